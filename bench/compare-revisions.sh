@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Compares the end-to-end throughput of two git revisions with the same harness.
+#
+# Usage: bench/compare-revisions.sh <base revision> <new revision> [ThroughputHarness options]
+# Example: bench/compare-revisions.sh main HEAD --engines SQLITE --seconds 60
+#
+# Each revision is checked out into a worktree under target/bench-revisions and built without the benchmark
+# profile, so that also revisions without the harness can be compared. The harness of the current tree runs
+# both jars and exits with a non-zero status if the queries per second of a run dropped by more than
+# --max-regression (10% by default).
+set -euo pipefail
+
+if [ $# -lt 2 ]; then
+    echo "Usage: $0 <base revision> <new revision> [ThroughputHarness options]" >&2
+    exit 2
+fi
+BASE=$1
+NEW=$2
+shift 2
+
+ROOT=$(git rev-parse --show-toplevel)
+WORK="$ROOT/target/bench-revisions"
+mkdir -p "$WORK"
+
+mvn -B -q -f "$ROOT/pom.xml" -Psqlancer-bench package -Dmaven.test.skip=true
+HARNESS_CP="$WORK/harness.jar:$ROOT/target/lib/*"
+cp "$ROOT"/target/sqlancer-*.jar "$WORK/harness.jar"
+
+run_revision() {
+    local name=$1
+    local revision=$2
+    shift 2
+    local dir="$WORK/$name"
+    git -C "$ROOT" worktree remove --force "$dir" 2>/dev/null || rm -rf "$dir"
+    git -C "$ROOT" worktree add --detach "$dir" "$revision"
+    mvn -B -q -f "$dir/pom.xml" package -Dmaven.test.skip=true
+    local jar
+    jar=$(ls "$dir"/target/sqlancer-*.jar | head -n 1)
+    java -cp "$HARNESS_CP" sqlancer.bench.ThroughputHarness --sqlancer-classpath "$jar:$dir/target/lib/*" \
+        --working-directory "$dir" --label "$revision" --output "$WORK/$name.json" "$@"
+    git -C "$ROOT" worktree remove --force "$dir"
+}
+
+run_revision base "$BASE" "$@"
+run_revision new "$NEW" "$@"
+java -cp "$HARNESS_CP" sqlancer.bench.ThroughputHarness --compare "$WORK/base.json" "$WORK/new.json"
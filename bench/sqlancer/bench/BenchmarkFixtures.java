@@ -0,0 +1,52 @@
+package sqlancer.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sqlancer.MainOptions;
+import sqlancer.Randomly;
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+
+/**
+ * Builds global states for benchmarks that do not need a connection to a DBMS.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String DATABASE_NAME = "bench";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates a global state with the tables t0 and t1, each of which has an INT, a BOOLEAN and a VARCHAR column.
+     *
+     * @param depth
+     *            the maximum expression depth used by the generators
+     */
+    public static GeneralGlobalState createGlobalState(long seed, int depth) {
+        GeneralDataType.calcWeight();
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setMainOptions(MainOptions.DEFAULT_OPTIONS);
+        state.setDbmsSpecificOptions(new GeneralOptions());
+        state.setRandomly(new Randomly(seed));
+        state.setDatabaseName(DATABASE_NAME);
+        state.getHandler().setCurDepth(DATABASE_NAME, depth);
+        List<GeneralTable> tables = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            List<GeneralColumn> columns = new ArrayList<>();
+            columns.add(new GeneralColumn("c0", GeneralDataType.INT.get(), false, true));
+            columns.add(new GeneralColumn("c1", GeneralDataType.BOOLEAN.get(), false, true));
+            columns.add(new GeneralColumn("c2", GeneralDataType.STRING.get(), false, true));
+            GeneralTable table = new GeneralTable("t" + i, columns, false);
+            columns.forEach(c -> c.setTable(table));
+            tables.add(table);
+        }
+        state.setSchema(tables);
+        return state;
+    }
+
+}
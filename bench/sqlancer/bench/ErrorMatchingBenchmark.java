@@ -0,0 +1,76 @@
+package sqlancer.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.general.GeneralErrors;
+
+/**
+ * Error messages matched per second against expected errors: the catch-all pattern of the general oracles, and a
+ * typical list of substrings and regular expressions. The messages are taken from a SQLite run and include both
+ * expected and unexpected ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ErrorMatchingBenchmark {
+
+    private static final String[] MESSAGES = {
+            "[SQLITE_ERROR] SQL error or missing database (near \"AS\": syntax error)",
+            "[SQLITE_ERROR] SQL error or missing database (unrecognized token: \"'abc\")",
+            "[SQLITE_CONSTRAINT_NOTNULL] A NOT NULL constraint failed (NOT NULL constraint failed: t0.c1)",
+            "[SQLITE_ERROR] SQL error or missing database (no such function: REGEXP_REPLACE)",
+            "[SQLITE_ERROR] SQL error or missing database (1st ORDER BY term out of range - should be between 1 and 3)",
+            "[SQLITE_ERROR] SQL error or missing database (misuse of window function LAG())",
+            "[SQLITE_ERROR] SQL error or missing database (no such column: t1.c2)",
+            "[SQLITE_CORRUPT] The database disk image is malformed (database disk image is malformed)" };
+
+    private static final List<String> SUBSTRINGS = List.of("no such function", "misuse of aggregate",
+            "misuse of window function", "NOT NULL constraint failed", "UNIQUE constraint failed",
+            "ORDER BY term out of range", "GROUP BY term out of range", "division by zero", "integer overflow",
+            "parser stack overflow", "ambiguous column name", "Expression tree is too large",
+            "too many terms in compound SELECT", "argument of type", "cannot be cast", "out of range",
+            "does not exist", "not supported", "Conversion Error", "Binder Error");
+    private static final List<Pattern> REGEXES = List.of(Pattern.compile("no such column: .*"),
+            Pattern.compile(".*unrecognized token.*"), Pattern.compile("Data conversion error converting .*"));
+
+    @Param({ "general", "substrings" })
+    public String expectedErrors;
+
+    private ExpectedErrors errors;
+    private int i;
+
+    @Setup
+    public void setup() {
+        errors = new ExpectedErrors();
+        if ("general".equals(expectedErrors)) {
+            GeneralErrors.addExpressionErrors(errors);
+        } else {
+            errors.addAll(SUBSTRINGS).addAllRegexes(REGEXES);
+        }
+    }
+
+    @Benchmark
+    public boolean errorIsExpected() {
+        i = i == MESSAGES.length - 1 ? 0 : i + 1;
+        return errors.errorIsExpected(MESSAGES[i]);
+    }
+
+}
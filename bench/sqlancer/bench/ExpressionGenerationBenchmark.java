@@ -0,0 +1,66 @@
+package sqlancer.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.gen.GeneralTypedExpressionGenerator;
+
+/**
+ * Expressions per second with a new generator and string per expression versus a reused generator that renders into a
+ * reused builder. Run with {@code -prof gc} to also get the bytes allocated per expression.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionGenerationBenchmark {
+
+    @Param({ "1", "2", "3", "4", "5" })
+    public int depth;
+
+    private GeneralGlobalState state;
+    private List<GeneralColumn> columns;
+    private final StringBuilder sb = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        state = BenchmarkFixtures.createGlobalState(0, depth);
+        columns = state.getSchema().getDatabaseTables().get(0).getColumns();
+    }
+
+    @Benchmark
+    public String freshGenerator() {
+        return GeneralToStringVisitor
+                .asString(new GeneralTypedExpressionGenerator(state).setColumns(columns).generatePredicate());
+    }
+
+    @Benchmark
+    public int reusedGenerator() {
+        GeneralTypedExpressionGenerator gen = state.acquireTypedExpressionGenerator(columns);
+        try {
+            sb.setLength(0);
+            GeneralToStringVisitor.appendTo(sb, gen.generatePredicate());
+            return sb.length();
+        } finally {
+            state.releaseExpressionGenerator(gen);
+        }
+    }
+
+}
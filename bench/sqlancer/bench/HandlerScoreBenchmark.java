@@ -0,0 +1,74 @@
+package sqlancer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.general.GeneralErrorHandler;
+import sqlancer.general.GeneralErrorHandler.GeneratorNode;
+
+/**
+ * Queries scored per second by the feedback handler, with one thread and with as many threads as the fuzzer uses by
+ * default. Like in the fuzzer, each thread has its own handler, but the options and examples are shared between all
+ * handlers. Scoring a query records its generator nodes and composite generators, checks whether they are enabled,
+ * and appends the score to the table of the handler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerScoreBenchmark {
+
+    private static final GeneratorNode[] NODES = { GeneratorNode.SELECT, GeneratorNode.WHERE,
+            GeneratorNode.BINARY_COMPARISON, GeneratorNode.EQUALS, GeneratorNode.BINARY_LOGICAL, GeneratorNode.LOPAND,
+            GeneratorNode.FUNC, GeneratorNode.CAST, GeneratorNode.IS_NULL, GeneratorNode.INNER_JOIN };
+    private static final String[] COMPOSITES = { "FUNCTION-ABS", "INT-ABS", "FUNCTION-LENGTH", "STRING-LENGTH" };
+    private static final String SQL = "SELECT * FROM t0 WHERE (ABS(t0.c0) = LENGTH(t0.c2)) AND (t0.c1 IS NULL)";
+    // the score tables grow with every query, so each handler is replaced after this many queries
+    private static final int QUERIES_PER_HANDLER = 10_000;
+
+    private GeneralErrorHandler handler = new GeneralErrorHandler(() -> false);
+    private int nrQueries;
+    private int i;
+
+    @Benchmark
+    @Threads(1)
+    public boolean scoreQuery() {
+        return score();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean scoreQueryContended() {
+        return score();
+    }
+
+    private boolean score() {
+        if (nrQueries++ == QUERIES_PER_HANDLER) {
+            handler = new GeneralErrorHandler(() -> false);
+            nrQueries = 0;
+        }
+        boolean enabled = true;
+        for (int j = 0; j < 6; j++) {
+            i = i == NODES.length - 1 ? 0 : i + 1;
+            enabled &= handler.getOption(NODES[i]);
+            handler.addScore(NODES[i]);
+        }
+        handler.addScore(COMPOSITES[i % COMPOSITES.length]);
+        handler.addScore(COMPOSITES[(i + 1) % COMPOSITES.length]);
+        handler.appendScoreToTable(true, true, SQL);
+        return enabled;
+    }
+
+}
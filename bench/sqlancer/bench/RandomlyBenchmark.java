@@ -0,0 +1,85 @@
+package sqlancer.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.MainOptions;
+import sqlancer.Randomly;
+
+/**
+ * Generator decisions per second for the static helpers of {@link Randomly} that the expression generators call for
+ * every node, and constants per second for different constant cache sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomlyBenchmark {
+
+    @Param({ "100", "10000" })
+    public int cacheSize;
+
+    private final List<String> options = List.of("c0", "c1", "c2", "c3", "c4");
+    private Randomly r;
+
+    @Setup
+    public void setup() {
+        MainOptions mainOptions = new MainOptions();
+        JCommander.newBuilder().addObject(mainOptions).build().parse("--constant-cache-size",
+                String.valueOf(cacheSize));
+        Randomly.initialize(mainOptions);
+        r = new Randomly(0);
+    }
+
+    @Benchmark
+    public boolean getBoolean() {
+        return Randomly.getBoolean();
+    }
+
+    @Benchmark
+    public boolean getBooleanWithRatherLowProbability() {
+        return Randomly.getBooleanWithRatherLowProbability();
+    }
+
+    @Benchmark
+    public String fromList() {
+        return Randomly.fromList(options);
+    }
+
+    @Benchmark
+    public int smallNumber() {
+        return Randomly.smallNumber();
+    }
+
+    @Benchmark
+    public int getIntegerInRange() {
+        return r.getInteger(0, 100);
+    }
+
+    @Benchmark
+    public long getInteger() {
+        return r.getInteger();
+    }
+
+    @Benchmark
+    public String getString() {
+        return r.getString();
+    }
+
+}
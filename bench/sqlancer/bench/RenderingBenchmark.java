@@ -0,0 +1,73 @@
+package sqlancer.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.gen.GeneralTypedExpressionGenerator;
+
+/**
+ * Rendering cost alone: a fixed set of pre-generated predicates is rendered to new strings and into a reused builder.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderingBenchmark {
+
+    private static final int NR_EXPRESSIONS = 256;
+
+    @Param({ "1", "3", "5" })
+    public int depth;
+
+    private final List<Node<GeneralExpression>> expressions = new ArrayList<>();
+    private final StringBuilder sb = new StringBuilder();
+    private int next;
+
+    @Setup
+    public void setup() {
+        GeneralGlobalState state = BenchmarkFixtures.createGlobalState(0, depth);
+        List<GeneralColumn> columns = state.getSchema().getDatabaseTables().get(0).getColumns();
+        GeneralTypedExpressionGenerator gen = new GeneralTypedExpressionGenerator(state).setColumns(columns);
+        for (int i = 0; i < NR_EXPRESSIONS; i++) {
+            expressions.add(gen.generatePredicate());
+        }
+    }
+
+    private Node<GeneralExpression> nextExpression() {
+        next = (next + 1) % NR_EXPRESSIONS;
+        return expressions.get(next);
+    }
+
+    @Benchmark
+    public String asString() {
+        return GeneralToStringVisitor.asString(nextExpression());
+    }
+
+    @Benchmark
+    public int appendTo() {
+        sb.setLength(0);
+        GeneralToStringVisitor.appendTo(sb, nextExpression());
+        return sb.length();
+    }
+
+}
@@ -0,0 +1,84 @@
+package sqlancer.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.ComparatorHelper;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+
+/**
+ * Time to compare the result of an original query with the combined result of its partitions, as done by the TLP
+ * oracles after both results were fetched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultSetComparisonBenchmark {
+
+    private static final String ORIGINAL_QUERY = "SELECT t0.c0 FROM t0";
+    private static final List<String> COMBINED_QUERIES = List.of("SELECT t0.c0 FROM t0 WHERE p",
+            "SELECT t0.c0 FROM t0 WHERE NOT p", "SELECT t0.c0 FROM t0 WHERE p IS NULL");
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    private GeneralGlobalState state;
+    private List<String> resultSet;
+    private List<String> combinedResultSet;
+
+    @Setup
+    public void setup() {
+        state = BenchmarkFixtures.createGlobalState(0, 1);
+        Random random = new Random(0);
+        resultSet = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            switch (random.nextInt(4)) {
+            case 0:
+                resultSet.add(null);
+                break;
+            case 1:
+                resultSet.add(Double.toString(random.nextDouble() * 1000));
+                break;
+            case 2:
+                resultSet.add(random.nextBoolean() ? "-0" : "0");
+                break;
+            default:
+                resultSet.add(Integer.toString(random.nextInt(rows)));
+                break;
+            }
+        }
+        combinedResultSet = new ArrayList<>(resultSet);
+        Collections.shuffle(combinedResultSet, random);
+    }
+
+    @Benchmark
+    public void compare() {
+        ComparatorHelper.assumeResultSetsAreEqual(resultSet, combinedResultSet, ORIGINAL_QUERY, COMBINED_QUERIES,
+                state);
+    }
+
+    @Benchmark
+    public void compareCanonicalized() {
+        ComparatorHelper.assumeResultSetsAreEqual(resultSet, combinedResultSet, ORIGINAL_QUERY, COMBINED_QUERIES,
+                state, ComparatorHelper::canonicalizeResultValue);
+    }
+
+}
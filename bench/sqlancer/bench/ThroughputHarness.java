@@ -0,0 +1,193 @@
+package sqlancer.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+
+/**
+ * End-to-end throughput benchmark of the whole fuzzing loop against the embedded DBMSs. Each combination of engine,
+ * oracle, and number of threads is run in a separate JVM (see {@link ThroughputRun}) with a fixed seed and duration,
+ * and the results are collected in one JSON file. Two such files, for example of two git revisions (see
+ * {@code bench/compare-revisions.sh}), can be compared with {@code --compare}.
+ */
+public final class ThroughputHarness {
+
+    @Parameter(names = "--engines", description = "The embedded engines to test")
+    private List<String> engines = List.of("SQLITE", "DUCKDB", "H2");
+
+    @Parameter(names = "--oracles", description = "The oracles to use")
+    private List<String> oracles = List.of("WHERE", "NOREC", "QUERY_PARTITIONING");
+
+    @Parameter(names = "--threads", description = "The numbers of threads to run with")
+    private List<Integer> threads = List.of(1, 4);
+
+    @Parameter(names = "--seconds", description = "The duration of each run in seconds")
+    private int seconds = 30;
+
+    @Parameter(names = "--seed", description = "The random seed of each run")
+    private long seed = 1;
+
+    @Parameter(names = "--jvm-args", description = "Arguments for the JVMs of the runs")
+    private List<String> jvmArgs = List.of("-Xmx2g");
+
+    @Parameter(names = "--sqlancer-classpath", description = "Class path of the SQLancer version to benchmark (by default the class path of the harness)")
+    private String sqlancerClasspath;
+
+    @Parameter(names = "--working-directory", description = "The working directory of the runs, which must contain the dbconfigs directory")
+    private String workingDirectory = ".";
+
+    @Parameter(names = "--label", description = "A name for the benchmarked version, such as a git revision")
+    private String label = "current";
+
+    @Parameter(names = "--output", description = "The JSON file to write the results to")
+    private String output = "target/throughput.json";
+
+    @Parameter(names = "--sqlancer-args", description = "Additional options for SQLancer, which are added before the DBMS command")
+    private List<String> sqlancerArgs = new ArrayList<>();
+
+    @Parameter(names = "--compare", arity = 2, description = "Compares two result files instead of running the benchmark")
+    private List<String> compare;
+
+    @Parameter(names = "--max-regression", description = "With --compare, the relative drop in queries per second above which the comparison fails")
+    private double maxRegression = 0.1;
+
+    private ThroughputHarness() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ThroughputHarness harness = new ThroughputHarness();
+        JCommander.newBuilder().addObject(harness).build().parse(args);
+        if (harness.compare != null) {
+            System.exit(harness.compare(new File(harness.compare.get(0)), new File(harness.compare.get(1))) ? 0 : 1);
+        } else {
+            harness.run();
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        File outputFile = new File(output).getAbsoluteFile();
+        File runDirectory = new File(outputFile.getParentFile(), "throughput-runs");
+        Files.createDirectories(runDirectory.toPath());
+        String harnessClasspath = System.getProperty("java.class.path");
+        String classpath = sqlancerClasspath == null ? harnessClasspath
+                : sqlancerClasspath + File.pathSeparator + harnessClasspath;
+        JSONArray results = new JSONArray();
+        for (String engine : engines) {
+            for (String oracle : oracles) {
+                for (int nrThreads : threads) {
+                    String name = String.format("%s-%s-%d", engine, oracle, nrThreads).toLowerCase();
+                    File resultFile = new File(runDirectory, name + ".json");
+                    Files.deleteIfExists(resultFile.toPath());
+                    List<String> command = new ArrayList<>();
+                    command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+                    command.addAll(jvmArgs);
+                    command.add("-cp");
+                    command.add(classpath);
+                    command.add(ThroughputRun.class.getName());
+                    command.add(resultFile.getPath());
+                    command.add("--random-seed=" + seed);
+                    command.add("--num-threads=" + nrThreads);
+                    command.add("--timeout-seconds=" + seconds);
+                    command.add("--print-progress-information=false");
+                    command.addAll(sqlancerArgs);
+                    command.add("general");
+                    command.add("--database-engine");
+                    command.add(engine);
+                    command.add("--oracle");
+                    command.add(oracle);
+                    System.out.println("Running " + name);
+                    Process process = new ProcessBuilder(command).directory(new File(workingDirectory))
+                            .redirectErrorStream(true).redirectOutput(new File(runDirectory, name + ".log")).start();
+                    process.waitFor();
+                    JSONObject result = new JSONObject();
+                    result.put("engine", engine);
+                    result.put("oracle", oracle);
+                    result.put("threads", nrThreads);
+                    if (resultFile.exists()) {
+                        JSONObject run = new JSONObject(
+                                new String(Files.readAllBytes(resultFile.toPath()), StandardCharsets.UTF_8));
+                        for (String key : run.keySet()) {
+                            result.put(key, run.get(key));
+                        }
+                        System.out.println(String.format("  %.0f queries/s, %.2f databases/s",
+                                run.getDouble("queries_per_second"), run.getDouble("databases_per_second")));
+                    } else {
+                        result.put("error", "the run failed, see " + name + ".log");
+                        System.out.println("  failed");
+                    }
+                    results.put(result);
+                }
+            }
+        }
+        JSONObject report = new JSONObject();
+        report.put("label", label);
+        report.put("seconds", seconds);
+        report.put("seed", seed);
+        report.put("java_version", System.getProperty("java.version"));
+        report.put("available_processors", Runtime.getRuntime().availableProcessors());
+        report.put("results", results);
+        Files.write(outputFile.toPath(), report.toString(2).getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + outputFile);
+    }
+
+    private boolean compare(File baseFile, File newFile) throws IOException {
+        JSONObject base = readReport(baseFile);
+        JSONObject current = readReport(newFile);
+        Map<String, JSONObject> baseResults = new HashMap<>();
+        for (Object o : base.getJSONArray("results")) {
+            JSONObject result = (JSONObject) o;
+            baseResults.put(getKey(result), result);
+        }
+        System.out.println(String.format("%-34s %12s %12s %8s %12s %14s %12s %14s", "run",
+                base.getString("label") + " q/s", current.getString("label") + " q/s", "change", "db/s",
+                "p99 (us)", "alloc MB/s", "peak heap MB"));
+        boolean passed = true;
+        for (Object o : current.getJSONArray("results")) {
+            JSONObject result = (JSONObject) o;
+            JSONObject baseResult = baseResults.get(getKey(result));
+            if (baseResult == null || !result.has("queries_per_second")
+                    || !baseResult.has("queries_per_second")) {
+                continue;
+            }
+            double baseQps = baseResult.getDouble("queries_per_second");
+            double qps = result.getDouble("queries_per_second");
+            double change = baseQps == 0 ? 0 : (qps - baseQps) / baseQps;
+            boolean regression = change < -maxRegression;
+            passed &= !regression;
+            System.out.println(String.format("%-34s %12.0f %12.0f %+7.1f%% %12s %14s %12s %14s%s", getKey(result),
+                    baseQps, qps, change * 100, compareValues(baseResult, result, "databases_per_second", 1, "%.2f"),
+                    compareValues(baseResult, result, "select_p99_us", 1, "%.0f"),
+                    compareValues(baseResult, result, "allocation_rate_mb_per_second", 1, "%.0f"),
+                    compareValues(baseResult, result, "peak_heap_bytes", 1024 * 1024, "%.0f"),
+                    regression ? "  REGRESSION" : ""));
+        }
+        return passed;
+    }
+
+    private static String compareValues(JSONObject base, JSONObject current, String key, double divisor,
+            String format) {
+        String baseValue = base.has(key) ? String.format(format, base.getDouble(key) / divisor) : "-";
+        String value = current.has(key) ? String.format(format, current.getDouble(key) / divisor) : "-";
+        return baseValue + "/" + value;
+    }
+
+    private static String getKey(JSONObject result) {
+        return result.getString("engine") + "-" + result.getString("oracle") + "-" + result.getInt("threads");
+    }
+
+    private static JSONObject readReport(File file) throws IOException {
+        return new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+}
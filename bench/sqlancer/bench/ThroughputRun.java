@@ -0,0 +1,152 @@
+package sqlancer.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+
+import sqlancer.Main;
+import sqlancer.MainOptions;
+
+/**
+ * A single run of {@link ThroughputHarness}: executes {@link Main#executeMain} in this JVM and writes its throughput,
+ * statement latencies, allocation rate, and peak heap usage as JSON.
+ *
+ * Only the public counters of {@link Main} and the file {@code logs/metrics.json} are used, so that the run also works
+ * with the jars of older revisions, for which the latencies are then missing. The file is only written if the revision
+ * has the option {@code --metrics-interval-seconds}, which this class then enables.
+ *
+ * Usage: {@code ThroughputRun <result file> <SQLancer arguments>}
+ */
+public final class ThroughputRun {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    // the metrics are also written when the run ends, so a long interval suffices
+    private static final int METRICS_INTERVAL_SECONDS = 60;
+
+    private final Map<Long, Long> allocatedBytesByThread = new HashMap<>();
+    private long peakHeapBytes;
+
+    private ThroughputRun() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File resultFile = new File(args[0]);
+        List<String> sqlancerArgs = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+        if (hasMetricsOption()) {
+            sqlancerArgs.add(0, "--metrics-interval-seconds=" + METRICS_INTERVAL_SECONDS);
+        }
+        JSONObject result = new ThroughputRun().run(sqlancerArgs.toArray(new String[0]));
+        Files.write(resultFile.toPath(), result.toString(2).getBytes(StandardCharsets.UTF_8));
+        // the fuzzing threads are not stopped by the timeout
+        System.exit(0);
+    }
+
+    private static boolean hasMetricsOption() {
+        try {
+            MainOptions.class.getDeclaredField("metricsIntervalSeconds");
+            return true;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    private JSONObject run(String... sqlancerArgs) {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "throughput-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        int exitCode = Main.executeMain(sqlancerArgs);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        long queries = Main.nrQueries.get();
+        long databases = Main.nrDatabases.get();
+        long successfulStatements = Main.nrSuccessfulActions.get();
+        long unsuccessfulStatements = Main.nrUnsuccessfulActions.get();
+        sampler.shutdownNow();
+        long allocatedBytes = sample();
+
+        JSONObject result = new JSONObject();
+        result.put("exit_code", exitCode);
+        result.put("seconds", seconds);
+        result.put("queries", queries);
+        result.put("databases", databases);
+        result.put("queries_per_second", queries / seconds);
+        result.put("databases_per_second", databases / seconds);
+        result.put("successful_statements", successfulStatements);
+        result.put("unsuccessful_statements", unsuccessfulStatements);
+        result.put("allocated_bytes", allocatedBytes);
+        result.put("allocation_rate_mb_per_second", allocatedBytes / seconds / (1024 * 1024));
+        result.put("peak_heap_bytes", peakHeapBytes);
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        result.put("gc_count", gcCount);
+        result.put("gc_millis", gcMillis);
+        addStatementLatencies(result, startMillis);
+        return result;
+    }
+
+    private static void addStatementLatencies(JSONObject result, long startMillis) {
+        File metricsFile = new File(Main.LOG_DIRECTORY, "metrics.json");
+        if (!metricsFile.exists() || metricsFile.lastModified() < startMillis) {
+            return;
+        }
+        try {
+            JSONObject statements = new JSONObject(
+                    new String(Files.readAllBytes(metricsFile.toPath()), StandardCharsets.UTF_8))
+                            .getJSONObject("statements");
+            result.put("statements", statements);
+            if (statements.has("select")) {
+                result.put("select_p50_us", statements.getJSONObject("select").getLong("p50_us"));
+                result.put("select_p99_us", statements.getJSONObject("select").getLong("p99_us"));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Updates the allocated bytes of the live threads and the peak heap usage, which is sampled and thus a lower bound.
+     *
+     * @return the bytes allocated by all threads that were seen so far
+     */
+    private synchronized long sample() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = allocations.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] > 0) {
+                    allocatedBytesByThread.merge(ids[i], bytes[i], Math::max);
+                }
+            }
+        }
+        peakHeapBytes = Math.max(peakHeapBytes, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        long total = 0;
+        for (long bytes : allocatedBytesByThread.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,97 @@
+package sqlancer.general.oracle;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sqlancer.bench.BenchmarkFixtures;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSelectTemplate;
+import sqlancer.general.GeneralToStringVisitor;
+
+/**
+ * TLP query bundles built per second: the base query with its joins and the three predicate variants, rendered as the
+ * original query and the three partitioning queries like {@link GeneralQueryPartitioningWhere#check()} does before
+ * executing them. The render benchmarks only render one bundle, once by visiting the whole select for each query
+ * and once by splicing the predicates into a {@link GeneralSelectTemplate}. Located in the package of the oracle, as
+ * the select that it builds is not public.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TLPBundleBenchmark {
+
+    @Param({ "1", "3", "5" })
+    public int depth;
+
+    private BundleBuilder builder;
+
+    @Setup
+    public void setup() throws SQLException {
+        builder = new BundleBuilder(BenchmarkFixtures.createGlobalState(0, depth));
+        builder.check();
+    }
+
+    @Benchmark
+    public void buildBundle(Blackhole bh) throws SQLException {
+        builder.build(bh);
+    }
+
+    @Benchmark
+    public void renderVisitingSelect(Blackhole bh) {
+        builder.renderVisitingSelect(bh);
+    }
+
+    @Benchmark
+    public void renderFromTemplate(Blackhole bh) {
+        builder.renderFromTemplate(bh);
+    }
+
+    private static final class BundleBuilder extends GeneralQueryPartitioningBase {
+
+        BundleBuilder(GeneralGlobalState state) {
+            super(state);
+        }
+
+        void build(Blackhole bh) throws SQLException {
+            check();
+            renderFromTemplate(bh);
+        }
+
+        void renderVisitingSelect(Blackhole bh) {
+            select.setWhereClause(null);
+            bh.consume(GeneralToStringVisitor.asString(select));
+            select.setWhereClause(predicate);
+            bh.consume(GeneralToStringVisitor.asString(select));
+            select.setWhereClause(negatedPredicate);
+            bh.consume(GeneralToStringVisitor.asString(select));
+            select.setWhereClause(isNullPredicate);
+            bh.consume(GeneralToStringVisitor.asString(select));
+            select.setWhereClause(null);
+        }
+
+        void renderFromTemplate(Blackhole bh) {
+            GeneralSelectTemplate template = GeneralSelectTemplate.of(select);
+            bh.consume(template.render(null));
+            bh.consume(template.render(predicate));
+            bh.consume(template.render(negatedPredicate));
+            bh.consume(template.render(isNullPredicate));
+        }
+    }
+
+}
@@ -15,7 +15,7 @@ import sqlancer.common.query.SQLancerResultSet;
 
 public final class ComparatorHelper {
 
-    private static final int MAX_ROWS_LIMIT = 100000;
+    public static final int MAX_ROWS_LIMIT = 100000;
 
     private ComparatorHelper() {
     }
@@ -50,27 +50,35 @@ public final class ComparatorHelper {
                 e.printStackTrace();
             }
         }
+        return getResultSetFirstColumnAsString(queryString, errors, state, state.getConnection());
+    }
+
+    /**
+     * Like {@link #getResultSetFirstColumnAsString(String, ExpectedErrors, SQLGlobalState)}, but on the given
+     * connection, and without logging the query, which is left to the caller.
+     */
+    public static List<String> getResultSetFirstColumnAsString(String queryString, ExpectedErrors errors,
+            SQLGlobalState<?, ?> state, SQLConnection con) throws SQLException {
         boolean canonicalizeString = state.getOptions().canonicalizeSqlString();
         SQLQueryAdapter q = new SQLQueryAdapter(queryString, errors, true, canonicalizeString);
         List<String> resultSet = new ArrayList<>();
         SQLancerResultSet result = null;
         try {
-            result = q.executeAndGet(state, MAX_ROWS_LIMIT);
+            result = q.executeAndGet(state, con, MAX_ROWS_LIMIT);
             if (result == null) {
                 throw new IgnoreMeException();
             }
             while (result.next()) {
-                String resultTemp = result.getString(1);
-                if (resultTemp != null) {
-                    resultTemp = resultTemp.replaceAll("[\\.]0+$", ""); // Remove the trailing zeros as many DBMS treat
-                    // it as non-bugs
-                }
-                resultSet.add(resultTemp);
+                resultSet.add(stripTrailingZeros(result.getString(1)));
             }
         } catch (Exception e) {
             if (e instanceof IgnoreMeException) {
                 throw e;
             }
+            if (result != null && result.isCanceled()) {
+                // the statement watchdog canceled the query while its rows were fetched
+                throw new IgnoreMeException();
+            }
 
             if (e.getMessage() == null) {
                 throw new AssertionError(queryString, e);
@@ -93,10 +101,22 @@ public final class ComparatorHelper {
 
     public static void assumeResultSetsAreEqual(List<String> resultSet, List<String> secondResultSet,
             String originalQueryString, List<String> combinedString, SQLGlobalState<?, ?> state) {
-        if (resultSet.size() != secondResultSet.size()) {
+        assumeResultSetsAreEqual(resultSet.size(), new HashSet<>(resultSet), secondResultSet, originalQueryString,
+                combinedString, state);
+    }
+
+    /**
+     * Like {@link #assumeResultSetsAreEqual(List, List, String, List, SQLGlobalState)}, but with the first result set
+     * given only by what the comparison needs, its cardinality and its distinct values, so that it can be kept to be
+     * compared with several other result sets.
+     */
+    public static void assumeResultSetsAreEqual(int resultSetSize, Set<String> firstHashSet,
+            List<String> secondResultSet, String originalQueryString, List<String> combinedString,
+            SQLGlobalState<?, ?> state) {
+        if (resultSetSize != secondResultSet.size()) {
             String queryFormatString = "-- %s;" + System.lineSeparator() + "-- cardinality: %d"
                     + System.lineSeparator();
-            String firstQueryString = String.format(queryFormatString, originalQueryString, resultSet.size());
+            String firstQueryString = String.format(queryFormatString, originalQueryString, resultSetSize);
             String combinedQueryString = String.join(";", combinedString);
             String secondQueryString = String.format(queryFormatString, combinedQueryString, secondResultSet.size());
             state.getState().getLocalState()
@@ -105,12 +125,11 @@ public final class ComparatorHelper {
                     "The size of the result sets mismatch (%d and %d)!" + System.lineSeparator()
                             + "First query: \"%s\", whose cardinality is: %d" + System.lineSeparator()
                             + "Second query:\"%s\", whose cardinality is: %d",
-                    resultSet.size(), secondResultSet.size(), originalQueryString, resultSet.size(),
+                    resultSetSize, secondResultSet.size(), originalQueryString, resultSetSize,
                     combinedQueryString, secondResultSet.size());
             throw new AssertionError(assertionMessage);
         }
 
-        Set<String> firstHashSet = new HashSet<>(resultSet);
         Set<String> secondHashSet = new HashSet<>(secondResultSet);
 
         boolean validateResultSizeOnly = state.getOptions().validateResultSizeOnly();
@@ -183,6 +202,16 @@ public final class ComparatorHelper {
         return secondResultSet;
     }
 
+    /**
+     * Removes the trailing zeros of a fetched value, as many DBMS treat it as non-bugs.
+     */
+    public static String stripTrailingZeros(String value) {
+        if (value == null) {
+            return value;
+        }
+        return value.replaceAll("[\\.]0+$", "");
+    }
+
     public static String canonicalizeResultValue(String value) {
         if (value == null) {
             return value;
@@ -0,0 +1,126 @@
+package sqlancer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Bounded set of {@code long} constants with constant-time insertion, lookup, and uniform sampling. The values are
+ * kept in a dense array for sampling, and an open-addressing table maps each value to its position in the array. Once
+ * the cache is full, new values replace cached ones by reservoir sampling, so the cache stays a uniform sample of the
+ * values that were offered instead of freezing on the first ones.
+ */
+final class LongConstantCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxSize;
+    private long[] values;
+    // position + 1 of a value in values, 0 marks an empty slot; linear probing
+    private int[] table;
+    private int size;
+    private final ReservoirSampler sampler;
+
+    LongConstantCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.values = new long[Math.min(this.maxSize, INITIAL_CAPACITY)];
+        this.table = new int[tableSizeFor(values.length)];
+        this.sampler = new ReservoirSampler(this.maxSize);
+    }
+
+    void add(long value, SplittableRandom random) {
+        if (maxSize == 0) {
+            return;
+        }
+        if (size < maxSize) {
+            if (contains(value)) {
+                return;
+            }
+            if (size == values.length) {
+                grow();
+            }
+            values[size] = value;
+            insert(size);
+            size++;
+        } else {
+            int pos = sampler.next(random);
+            if (pos != -1 && !contains(value)) {
+                remove(pos);
+                values[pos] = value;
+                insert(pos);
+            }
+        }
+    }
+
+    boolean contains(long value) {
+        int mask = table.length - 1;
+        for (int i = hash(value) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (values[table[i] - 1] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long get(SplittableRandom random) {
+        return values[random.nextInt(size)];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(int pos) {
+        int mask = table.length - 1;
+        int i = hash(values[pos]) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = pos + 1;
+    }
+
+    // backward-shift deletion, so that no tombstones are needed
+    private void remove(int pos) {
+        int mask = table.length - 1;
+        int i = hash(values[pos]) & mask;
+        while (table[i] != pos + 1) {
+            i = (i + 1) & mask;
+        }
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (table[j] == 0) {
+                break;
+            }
+            int home = hash(values[table[j] - 1]) & mask;
+            boolean homeBetween = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!homeBetween) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    private void grow() {
+        values = Arrays.copyOf(values, Math.min(maxSize, values.length * 2));
+        table = new int[tableSizeFor(values.length)];
+        for (int pos = 0; pos < size; pos++) {
+            insert(pos);
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        // keep the load factor at or below 0.5
+        return Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) * 2;
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -10,6 +10,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
@@ -24,8 +25,12 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.JCommander.Builder;
 
 import sqlancer.common.log.Loggable;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.MetricsExporter;
+import sqlancer.common.metrics.ThreadMetrics.Phase;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.StatementWatchdog;
 import sqlancer.general.GeneralProvider;
 
 public final class Main {
@@ -37,6 +42,7 @@ public final class Main {
     public static volatile AtomicLong nrUnsuccessfulActions = new AtomicLong();
     public static volatile AtomicLong threadsShutdown = new AtomicLong();
     static boolean progressMonitorStarted;
+    private static MetricsExporter metricsExporter;
 
     static {
         System.setProperty(org.slf4j.simple.SimpleLogger.DEFAULT_LOG_LEVEL_KEY, "ERROR");
@@ -208,12 +214,15 @@ public final class Main {
             if (!logEachSelect) {
                 throw new UnsupportedOperationException();
             }
+            long start = System.nanoTime();
             printState(getCurrentFileWriter(), state);
             try {
                 currentFileWriter.flush();
 
             } catch (IOException e) {
                 e.printStackTrace();
+            } finally {
+                Metrics.addPhaseTime(Phase.LOGGING, System.nanoTime() - start);
             }
         }
 
@@ -225,16 +234,20 @@ public final class Main {
             write(databaseProvider.getLoggableFactory().createLoggableWithNoLinebreak(input));
         }
 
-        private void write(Loggable loggable) {
+        // synchronized, as oracles may log from the threads that serve additional connections
+        private synchronized void write(Loggable loggable) {
             if (!logEachSelect) {
                 throw new UnsupportedOperationException();
             }
+            long start = System.nanoTime();
             try {
                 getCurrentFileWriter().write(loggable.getLogString());
 
                 currentFileWriter.flush();
             } catch (IOException e) {
                 throw new AssertionError();
+            } finally {
+                Metrics.addPhaseTime(Phase.LOGGING, System.nanoTime() - start);
             }
         }
 
@@ -318,7 +331,9 @@ public final class Main {
             StringBuilder sb = new StringBuilder();
 
             sb.append(databaseProvider.getLoggableFactory()
-                    .getInfo(state.getDatabaseName(), state.getDatabaseVersion(), state.getSeedValue()).getLogString());
+                    .getInfo(state.getDatabaseName(), state.getDatabaseVersion(), state.getSeedValue(),
+                            state.getDatabaseIndex())
+                    .getLogString());
 
             for (Query<?> s : state.getStatements()) {
                 sb.append(databaseProvider.getLoggableFactory().createLoggable(s.getLogString()).getLogString());
@@ -350,7 +365,6 @@ public final class Main {
         public boolean execute(Query<C> q, String... fills) throws Exception {
             boolean success;
             success = q.execute(globalState, fills);
-            Main.nrSuccessfulActions.addAndGet(1);
             if (globalState.getOptions().loggerPrintFailed() || success) {
                 globalState.getState().logStatement(q);
             }
@@ -361,7 +375,6 @@ public final class Main {
             globalState.getState().logStatement(q);
             SQLancerResultSet result;
             result = q.executeAndGet(globalState, fills);
-            Main.nrSuccessfulActions.addAndGet(1);
             return result;
         }
 
@@ -375,6 +388,7 @@ public final class Main {
 
         public void incrementCreateDatabase() {
             Main.nrDatabases.addAndGet(1);
+            Metrics.databaseCreated();
         }
 
     }
@@ -429,10 +443,13 @@ public final class Main {
         public void run() throws Exception {
             G state = createGlobalState();
             stateToRepro = provider.getStateToReproduce(databaseName);
-            stateToRepro.seedValue = r.getSeed();
+            // each database draws from its own stream of the thread's generator
+            Randomly databaseRandomly = r.split();
+            stateToRepro.seedValue = databaseRandomly.getSeed();
+            stateToRepro.databaseIndex = databaseRandomly.getSplitIndex();
             state.setState(stateToRepro);
             logger = new StateLogger(databaseName, provider, options);
-            state.setRandomly(r);
+            state.setRandomly(databaseRandomly);
             state.setDatabaseName(databaseName);
             state.setMainOptions(options);
             state.setDbmsSpecificOptions(command);
@@ -483,7 +500,7 @@ public final class Main {
                     }
                     G newGlobalState = createGlobalState();
                     newGlobalState.setState(stateToRepro);
-                    newGlobalState.setRandomly(r);
+                    newGlobalState.setRandomly(databaseRandomly);
                     newGlobalState.setDatabaseName(databaseName);
                     newGlobalState.setMainOptions(options);
                     newGlobalState.setDbmsSpecificOptions(command);
@@ -493,12 +510,17 @@ public final class Main {
                     newGlobalState.setStateLogger(newLogger);
                     newGlobalState.setManager(newManager);
 
-                    Reducer<G> reducer = new StatementReducer<>(provider);
-                    reducer.reduce(state, reproducer, newGlobalState);
+                    long reductionStart = System.nanoTime();
+                    try {
+                        Reducer<G> reducer = new StatementReducer<>(provider);
+                        reducer.reduce(state, reproducer, newGlobalState);
 
-                    if (options.reduceAST()) {
-                        Reducer<G> astBasedReducer = new ASTBasedReducer<>(provider);
-                        astBasedReducer.reduce(state, reproducer, newGlobalState);
+                        if (options.reduceAST()) {
+                            Reducer<G> astBasedReducer = new ASTBasedReducer<>(provider);
+                            astBasedReducer.reduce(state, reproducer, newGlobalState);
+                        }
+                    } finally {
+                        Metrics.addPhaseTime(Phase.REDUCTION, System.nanoTime() - reductionStart);
                     }
 
                     try {
@@ -602,6 +624,9 @@ public final class Main {
         }
 
         Randomly.initialize(options);
+        Metrics.setEngine(jc.getParsedCommand());
+        MetricsExporter exporter = startMetricsExporter(options);
+        StatementWatchdog.configure(options.getStatementTimeoutMillis(), options.getStatementTimeoutFactor());
         if (options.printProgressInformation()) {
             startProgressMonitor();
             if (options.printProgressSummary()) {
@@ -617,6 +642,7 @@ public final class Main {
                                 formatInteger(nrSuccessfulActions.get()) + " successfully-executed statements");
                         System.out.println(
                                 formatInteger(nrUnsuccessfulActions.get()) + " unsuccessfuly-executed statements");
+                        System.out.print(exporter.toConsoleSummary());
                     }
 
                     private String formatInteger(long intValue) {
@@ -691,6 +717,7 @@ public final class Main {
                 private boolean run(MainOptions options, ExecutorService execService,
                         DBMSExecutorFactory<?, ?, ?> executorFactory, Randomly r, final String databaseName) {
                     DBMSExecutor<?, ?, ?> executor = executorFactory.getDBMSExecutor(databaseName, r);
+                    Metrics.startDatabase();
                     try {
                         executor.run();
                         return true;
@@ -713,6 +740,7 @@ public final class Main {
                         } catch (IOException e) {
                             e.printStackTrace();
                         }
+                        Metrics.finishDatabase();
                     }
                 }
             });
@@ -727,6 +755,9 @@ public final class Main {
             e.printStackTrace();
         }
 
+        if (options.getMetricsIntervalSeconds() > 0) {
+            exporter.writeFiles(LOG_DIRECTORY);
+        }
         return someOneFails.get() ? options.getErrorExitCode() : 0;
     }
 
@@ -758,6 +789,29 @@ public final class Main {
         }
     }
 
+    private static synchronized MetricsExporter startMetricsExporter(MainOptions options) {
+        // like the progress monitor, the exporter is only started once if the main method is called multiple times
+        if (metricsExporter == null) {
+            metricsExporter = new MetricsExporter(Main::getCounters);
+            metricsExporter.registerMBean();
+            if (options.getMetricsIntervalSeconds() > 0) {
+                metricsExporter.startPeriodicExport(LOG_DIRECTORY, options.getMetricsIntervalSeconds());
+            }
+        }
+        return metricsExporter;
+    }
+
+    static Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("queries", nrQueries.get());
+        counters.put("databases", nrDatabases.get());
+        counters.put("successful_statements", nrSuccessfulActions.get());
+        counters.put("unsuccessful_statements", nrUnsuccessfulActions.get());
+        counters.put("statements_timed_out", StatementWatchdog.getNrCanceled());
+        counters.put("threads_shut_down", threadsShutdown.get());
+        return counters;
+    }
+
     private static synchronized void startProgressMonitor() {
         if (progressMonitorStarted) {
             /*
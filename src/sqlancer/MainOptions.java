@@ -84,9 +84,18 @@ public class MainOptions {
     @Parameter(names = "--print-progress-summary", description = "Whether to print an execution summary when exiting SQLancer", arity = 1)
     private boolean printProgressSummary; // NOPMD
 
+    @Parameter(names = "--metrics-interval-seconds", description = "How often (in seconds) to write the latency histograms and counters to logs/metrics.json and logs/metrics.prom, or 0 (the default) to not write them")
+    private int metricsIntervalSeconds = 0; // NOPMD
+
     @Parameter(names = "--timeout-seconds", description = "The timeout in seconds")
     private int timeoutSeconds = -1; // NOPMD
 
+    @Parameter(names = "--statement-timeout-ms", description = "The maximum time in milliseconds that a single statement may run before it is canceled, or 0 to never cancel statements")
+    private int statementTimeoutMillis = 0; // NOPMD
+
+    @Parameter(names = "--statement-timeout-factor", description = "Statements are canceled once they take this many times as long as the 99th percentile of the statements of the same kind (bounded by --statement-timeout-ms)")
+    private double statementTimeoutFactor = 20; // NOPMD
+
     @Parameter(names = "--max-generated-databases", description = "The maximum number of databases that are generated by each thread")
     private int maxGeneratedDatabases = -1; // NOPMD
 
@@ -163,6 +172,9 @@ public class MainOptions {
     @Parameter(names = "--reproduce-bugfile", description = "The file that contains the bug to reproduce", arity = 1)
     private String reproduceBugfile = ""; // NOPMD
 
+    @Parameter(names = "--reproduce-batch-size", description = "Number of consecutive INSERT, UPDATE, and DELETE statements of the --reproduce-bugfile that are sent to the DBMS as one JDBC batch (0 disables batching)")
+    private int reproduceBatchSize = 0; // NOPMD
+
     public int getMaxExpressionDepth() {
         return maxExpressionDepth;
     }
@@ -260,10 +272,22 @@ public class MainOptions {
         return printProgressSummary;
     }
 
+    public int getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+
     public int getTimeoutSeconds() {
         return timeoutSeconds;
     }
 
+    public int getStatementTimeoutMillis() {
+        return statementTimeoutMillis;
+    }
+
+    public double getStatementTimeoutFactor() {
+        return statementTimeoutFactor;
+    }
+
     public int getMaxGeneratedDatabases() {
         return maxGeneratedDatabases;
     }
@@ -372,4 +396,8 @@ public class MainOptions {
         return reproduceBugfile;
     }
 
+    public int getReproduceBatchSize() {
+        return reproduceBatchSize;
+    }
+
 }
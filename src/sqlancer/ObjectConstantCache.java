@@ -0,0 +1,58 @@
+package sqlancer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Counterpart of {@link LongConstantCache} for objects such as strings.
+ */
+final class ObjectConstantCache<T> {
+
+    private final int maxSize;
+    private final List<T> values = new ArrayList<>();
+    private final Map<T, Integer> positions = new HashMap<>();
+    private final ReservoirSampler sampler;
+
+    ObjectConstantCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.sampler = new ReservoirSampler(this.maxSize);
+    }
+
+    void add(T value, SplittableRandom random) {
+        if (maxSize == 0) {
+            return;
+        }
+        if (values.size() < maxSize) {
+            if (positions.putIfAbsent(value, values.size()) == null) {
+                values.add(value);
+            }
+        } else {
+            int pos = sampler.next(random);
+            if (pos != -1 && !positions.containsKey(value)) {
+                positions.remove(values.get(pos));
+                positions.put(value, pos);
+                values.set(pos, value);
+            }
+        }
+    }
+
+    boolean contains(T value) {
+        return positions.containsKey(value);
+    }
+
+    T get(SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    int size() {
+        return values.size();
+    }
+
+}
@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 
 import sqlancer.StateToReproduce.OracleRunReproductionState;
 import sqlancer.common.DBMSCommon;
+import sqlancer.common.metrics.Metrics;
 import sqlancer.common.oracle.CompositeTestOracle;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.schema.AbstractSchema;
@@ -65,7 +66,7 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
                 try (OracleRunReproductionState localState = globalState.getState().createLocalState()) {
                     assert localState != null;
                     try {
-                        oracle.check();
+                        checkOracle(oracle);
                         globalState.getManager().incrementSelectQueryCount();
                         globalState.incrementSuccessCaseNum();
                     } catch (IgnoreMeException ignored) {
@@ -94,6 +95,20 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
 
     protected abstract void checkViewsAreValid(G globalState) throws SQLException;
 
+    private static void checkOracle(TestOracle<?> oracle) throws Exception {
+        if (oracle instanceof CompositeTestOracle) {
+            // records the oracles that it delegates to
+            oracle.check();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            oracle.check();
+        } finally {
+            Metrics.recordOracleCheck(oracle.getClass(), System.nanoTime() - start);
+        }
+    }
+
     protected TestOracle<G> getTestOracle(G globalState) throws Exception {
         List<? extends OracleFactory<G>> testOracleFactory = globalState.getDbmsSpecificOptions()
                 .getTestOracleFactory();
@@ -142,7 +157,7 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
                     try (OracleRunReproductionState localState = globalState.getState().createLocalState()) {
                         assert localState != null;
                         try {
-                            oracle.check();
+                            checkOracle(oracle);
                             String query = oracle.getLastQueryString();
                             executedQueryCount += 1;
                             if (addQueryPlan(query, globalState)) {
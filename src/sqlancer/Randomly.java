@@ -6,7 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.function.Supplier;
 
 public final class Randomly {
@@ -16,37 +16,44 @@ public final class Randomly {
     private static boolean useCaching = true;
     private static int cacheSize = 100;
 
-    private final List<Long> cachedLongs = new ArrayList<>();
-    private final List<Integer> cachedIntegers = new ArrayList<>();
-    private final List<String> cachedStrings = new ArrayList<>();
-    private final List<Double> cachedDoubles = new ArrayList<>();
+    private final LongConstantCache cachedLongs = new LongConstantCache(cacheSize);
+    private final LongConstantCache cachedIntegers = new LongConstantCache(cacheSize);
+    private final ObjectConstantCache<String> cachedStrings = new ObjectConstantCache<>(cacheSize);
+    // raw bits, so that the values are compared like Double.equals does
+    private final LongConstantCache cachedDoubles = new LongConstantCache(cacheSize);
     private final List<byte[]> cachedBytes = new ArrayList<>();
     private Supplier<String> provider;
 
-    private static final ThreadLocal<Random> THREAD_RANDOM = new ThreadLocal<>();
+    // the generator of the Randomly instance that was last bound to the thread; used by the static methods
+    private static final ThreadLocal<SplittableRandom> THREAD_RANDOM = new ThreadLocal<>();
+    private final SplittableRandom random;
     private long seed;
+    // the number of streams that have been split off, and the index of this stream among those of its parent
+    private int nrSplits;
+    private int splitIndex;
 
+    // once a cache is full, new values replace cached ones by reservoir sampling
     private void addToCache(long val) {
-        if (useCaching && cachedLongs.size() < cacheSize && !cachedLongs.contains(val)) {
-            cachedLongs.add(val);
+        if (useCaching) {
+            cachedLongs.add(val, random);
         }
     }
 
     private void addToCache(int val) {
-        if (useCaching && cachedIntegers.size() < cacheSize && !cachedIntegers.contains(val)) {
-            cachedIntegers.add(val);
+        if (useCaching) {
+            cachedIntegers.add(val, random);
         }
     }
 
     private void addToCache(double val) {
-        if (useCaching && cachedDoubles.size() < cacheSize && !cachedDoubles.contains(val)) {
-            cachedDoubles.add(val);
+        if (useCaching) {
+            cachedDoubles.add(Double.doubleToLongBits(val), random);
         }
     }
 
     private void addToCache(String val) {
-        if (useCaching && cachedStrings.size() < cacheSize && !cachedStrings.contains(val)) {
-            cachedStrings.add(val);
+        if (useCaching) {
+            cachedStrings.add(val, random);
         }
     }
 
@@ -54,7 +61,7 @@ public final class Randomly {
         if (!useCaching || cachedLongs.isEmpty()) {
             return null;
         } else {
-            return Randomly.fromList(cachedLongs);
+            return cachedLongs.get(random);
         }
     }
 
@@ -62,7 +69,7 @@ public final class Randomly {
         if (!useCaching || cachedIntegers.isEmpty()) {
             return null;
         } else {
-            return Randomly.fromList(cachedIntegers);
+            return (int) cachedIntegers.get(random);
         }
     }
 
@@ -71,9 +78,9 @@ public final class Randomly {
             return null;
         }
         if (Randomly.getBoolean() && !cachedLongs.isEmpty()) {
-            return (double) Randomly.fromList(cachedLongs);
+            return (double) cachedLongs.get(random);
         } else if (!cachedDoubles.isEmpty()) {
-            return Randomly.fromList(cachedDoubles);
+            return Double.longBitsToDouble(cachedDoubles.get(random));
         } else {
             return null;
         }
@@ -84,14 +91,14 @@ public final class Randomly {
             return null;
         }
         if (Randomly.getBoolean() && !cachedLongs.isEmpty()) {
-            return String.valueOf(Randomly.fromList(cachedLongs));
+            return String.valueOf(cachedLongs.get(random));
         } else if (Randomly.getBoolean() && !cachedDoubles.isEmpty()) {
-            return String.valueOf(Randomly.fromList(cachedDoubles));
+            return String.valueOf(Double.longBitsToDouble(cachedDoubles.get(random)));
         } else if (Randomly.getBoolean() && !cachedBytes.isEmpty()
                 && stringGenerationStrategy == StringGenerationStrategy.SOPHISTICATED) {
             return new String(Randomly.fromList(cachedBytes));
         } else if (!cachedStrings.isEmpty()) {
-            String randomString = Randomly.fromList(cachedStrings);
+            String randomString = cachedStrings.get(random);
             if (Randomly.getBoolean()) {
                 return randomString;
             } else {
@@ -177,23 +184,38 @@ public final class Randomly {
 
     public static int smallNumber() {
         // no need to cache for small numbers
-        return (int) (Math.abs(getThreadRandom().get().nextGaussian())) * 2;
+        return (int) (Math.abs(nextGaussian(getThreadRandom()))) * 2;
     }
 
     public static boolean getBoolean() {
-        return getThreadRandom().get().nextBoolean();
+        return getThreadRandom().nextBoolean();
     }
 
     public static double getPercentage() {
-        return getThreadRandom().get().nextDouble();
+        return getThreadRandom().nextDouble();
     }
 
-    private static ThreadLocal<Random> getThreadRandom() {
-        if (THREAD_RANDOM.get() == null) {
+    private static SplittableRandom getThreadRandom() {
+        SplittableRandom threadRandom = THREAD_RANDOM.get();
+        if (threadRandom == null) {
             // a static method has been called, before Randomly was instantiated
-            THREAD_RANDOM.set(new Random());
+            threadRandom = new SplittableRandom();
+            THREAD_RANDOM.set(threadRandom);
         }
-        return THREAD_RANDOM;
+        return threadRandom;
+    }
+
+    // Marsaglia polar method; SplittableRandom has no nextGaussian() before Java 17
+    private static double nextGaussian(SplittableRandom random) {
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * random.nextDouble() - 1;
+            v2 = 2 * random.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * Math.sqrt(-2 * Math.log(s) / s);
     }
 
     public long getInteger() {
@@ -206,7 +228,7 @@ public final class Randomly {
                     return l;
                 }
             }
-            long nextLong = getThreadRandom().get().nextInt();
+            long nextLong = random.nextInt();
             addToCache(nextLong);
             return nextLong;
         }
@@ -348,7 +370,7 @@ public final class Randomly {
     public byte[] getBytes() {
         int size = Randomly.smallNumber();
         byte[] arr = new byte[size];
-        getThreadRandom().get().nextBytes(arr);
+        random.nextBytes(arr);
         return arr;
     }
 
@@ -425,17 +447,17 @@ public final class Randomly {
                 return d;
             }
         }
-        double value = getThreadRandom().get().nextDouble();
+        double value = random.nextDouble();
         addToCache(value);
         return value;
     }
 
     private static boolean smallBiasProbability() {
-        return getThreadRandom().get().nextInt(100) == 1;
+        return getThreadRandom().nextInt(100) == 1;
     }
 
     public static boolean getBooleanWithRatherLowProbability() {
-        return getThreadRandom().get().nextInt(10) == 1;
+        return getThreadRandom().nextInt(10) == 1;
     }
 
     public static boolean getBooleanWithSmallProbability() {
@@ -469,7 +491,7 @@ public final class Randomly {
     }
 
     public BigDecimal getRandomBigDecimal() {
-        return BigDecimal.valueOf(getThreadRandom().get().nextDouble());
+        return BigDecimal.valueOf(random.nextDouble());
     }
 
     public long getPositiveIntegerNotNull() {
@@ -482,7 +504,7 @@ public final class Randomly {
     }
 
     public static long getNonCachedInteger() {
-        return getThreadRandom().get().nextLong();
+        return getThreadRandom().nextLong();
     }
 
     public static long getPositiveOrZeroNonCachedInteger() {
@@ -495,19 +517,48 @@ public final class Randomly {
 
     public Randomly(Supplier<String> provider) {
         this.provider = provider;
+        this.random = new SplittableRandom();
     }
 
     public Randomly() {
-        THREAD_RANDOM.set(new Random());
+        this.random = new SplittableRandom();
+        bindToCurrentThread();
     }
 
     public Randomly(long seed) {
         this.seed = seed;
-        THREAD_RANDOM.set(new Random(seed));
+        this.random = new SplittableRandom(seed);
+        bindToCurrentThread();
+    }
+
+    private Randomly(Randomly parent) {
+        this.seed = parent.seed;
+        this.provider = parent.provider;
+        this.random = parent.random.split();
+        this.splitIndex = parent.nrSplits++;
+        bindToCurrentThread();
+    }
+
+    /**
+     * Makes the static methods of this class draw from this instance when called on the current thread. The
+     * constructors already do this, so this is only needed when an instance is used by a different thread than the
+     * one that created it.
+     */
+    public void bindToCurrentThread() {
+        THREAD_RANDOM.set(random);
+    }
+
+    /**
+     * Returns an instance with an independent stream that is bound to the current thread. The stream only depends on
+     * the seed and the number of previous splits, not on how many values have been drawn, so the n-th database of a
+     * thread generates the same statements for the same seed, regardless of what the previous databases did.
+     */
+    public Randomly split() {
+        return new Randomly(this);
     }
 
     public static double getUncachedDouble() {
-        return getThreadRandom().get().nextDouble();
+        return getThreadRandom().nextDouble();
     }
 
     public String getChar() {
@@ -538,17 +589,31 @@ public final class Randomly {
         if (lower == upper) {
             return lower;
         }
-        return getThreadRandom().get().longs(lower, upper).findFirst().getAsLong();
+        return getThreadRandom().nextLong(lower, upper);
     }
 
     private static int getNextInt(int lower, int upper) {
-        return (int) getNextLong(lower, upper);
+        if (lower > upper) {
+            throw new IllegalArgumentException(lower + " " + upper);
+        }
+        if (lower == upper) {
+            return lower;
+        }
+        return getThreadRandom().nextInt(lower, upper);
     }
 
     public long getSeed() {
         return seed;
     }
 
+    /**
+     * Returns how many streams the parent split off before this one, which, together with the seed, identifies the
+     * stream of a database (see {@link #split()}).
+     */
+    public int getSplitIndex() {
+        return splitIndex;
+    }
+
     public static void initialize(MainOptions options) {
         stringGenerationStrategy = options.getRandomStringGenerationStrategy();
         maxStringLength = options.getMaxStringConstantLength();
@@ -0,0 +1,48 @@
+package sqlancer;
+
+import java.util.SplittableRandom;
+
+/**
+ * Decides which of the values offered to a full reservoir of a fixed size replace an entry, so that the reservoir is a
+ * uniform sample of all values offered. Uses Algorithm L (Li, 1994), which draws the number of values to skip instead
+ * of a random number for every value.
+ */
+final class ReservoirSampler {
+
+    private final int size;
+    private double w;
+    private long skip = -1;
+
+    ReservoirSampler(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Called for each value offered after the reservoir has been filled.
+     *
+     * @return the position of the entry that the value replaces, or -1 if the value is dropped
+     */
+    int next(SplittableRandom random) {
+        if (skip == -1) {
+            w = Math.exp(Math.log(nextOpenDouble(random)) / size);
+            skip = nextSkip(random);
+        }
+        if (skip > 0) {
+            skip--;
+            return -1;
+        }
+        w *= Math.exp(Math.log(nextOpenDouble(random)) / size);
+        skip = nextSkip(random);
+        return random.nextInt(size);
+    }
+
+    private long nextSkip(SplittableRandom random) {
+        return Math.max(0, (long) Math.floor(Math.log(nextOpenDouble(random)) / Math.log(1 - w)));
+    }
+
+    // in (0, 1], so that the logarithm is finite
+    private static double nextOpenDouble(SplittableRandom random) {
+        return 1 - random.nextDouble();
+    }
+
+}
@@ -4,35 +4,139 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SQLConnection implements SQLancerDBConnection {
 
     private final Connection connection;
+    private int fetchSize;
+    private boolean cursorNeedsTransaction;
+    private boolean inCursorTransaction;
+    private final List<SQLConnection> siblings = new ArrayList<>();
+    private SQLConnection parent;
+    private final AtomicBoolean timedOut = new AtomicBoolean();
 
     public SQLConnection(Connection connection) {
         this.connection = connection;
     }
 
+    /**
+     * Configures how query results are fetched.
+     *
+     * @param fetchSize
+     *            the number of rows that are fetched per round trip, or 0 to leave it to the driver, which might read
+     *            the whole result before the first row is returned
+     * @param cursorNeedsTransaction
+     *            whether the driver only fetches through a cursor outside of auto-commit mode, as the PostgreSQL
+     *            driver does
+     */
+    public void setFetchSize(int fetchSize, boolean cursorNeedsTransaction) {
+        this.fetchSize = Math.max(0, fetchSize);
+        this.cursorNeedsTransaction = cursorNeedsTransaction;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Prepares a query statement to fetch its result in chunks of the configured fetch size. If the driver needs a
+     * transaction for that, one is opened; {@link #endStreaming()} must be called once the result has been read. If it
+     * is not, for example because a result set was not closed, the transaction is ended as soon as the next statement
+     * is created, so that the result must be read before another statement is created on this connection.
+     */
+    public void beginStreaming(Statement statement) throws SQLException {
+        if (fetchSize == 0) {
+            return;
+        }
+        statement.setFetchSize(fetchSize);
+        if (cursorNeedsTransaction && !inCursorTransaction && connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+            inCursorTransaction = true;
+        }
+    }
+
+    /**
+     * Ends the transaction opened by {@link #beginStreaming(Statement)}, if any. The transaction only read data, so it
+     * is rolled back, which also works after a failed or canceled query.
+     */
+    public void endStreaming() throws SQLException {
+        if (!inCursorTransaction) {
+            return;
+        }
+        inCursorTransaction = false;
+        try {
+            connection.rollback();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
     @Override
     public String getDatabaseVersion() throws SQLException {
         DatabaseMetaData meta = connection.getMetaData();
         return meta.getDatabaseProductVersion();
     }
 
+    /**
+     * Adds another connection to the same database, which is closed together with this one.
+     */
+    public void addSibling(SQLConnection sibling) {
+        sibling.parent = this;
+        siblings.add(sibling);
+    }
+
+    public List<SQLConnection> getSiblings() {
+        return siblings;
+    }
+
+    /**
+     * Records that a statement was canceled because it timed out. A sibling records it on the connection that it was
+     * added to, so that timeouts on any thread are seen there.
+     */
+    public void recordTimeout() {
+        if (parent != null) {
+            parent.recordTimeout();
+        } else {
+            timedOut.set(true);
+        }
+    }
+
+    /**
+     * Returns whether a statement timed out since the last call, and resets the flag.
+     */
+    public boolean takeTimeout() {
+        return timedOut.getAndSet(false);
+    }
+
     @Override
     public void close() throws SQLException {
-        connection.close();
+        try {
+            for (SQLConnection sibling : siblings) {
+                sibling.close();
+            }
+        } finally {
+            connection.close();
+        }
     }
 
     public Statement prepareStatement(String arg) throws SQLException {
+        endStreaming();
         return connection.prepareStatement(arg);
     }
 
     public Statement createStatement() throws SQLException {
+        endStreaming();
         return connection.createStatement();
     }
 
     public DatabaseMetaData getMetaData() throws SQLException {
         return connection.getMetaData();
     }
+
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return connection.unwrap(iface);
+    }
 }
@@ -19,6 +19,8 @@ public class StateToReproduce {
 
     protected long seedValue;
 
+    protected int databaseIndex;
+
     String exception;
 
     public OracleRunReproductionState localState;
@@ -86,6 +88,14 @@ public class StateToReproduce {
         return seedValue;
     }
 
+    /**
+     * Returns the index of the database among those that the thread with the seed generated, as the database draws
+     * from a stream split off the seed's generator rather than from the seed itself.
+     */
+    public int getDatabaseIndex() {
+        return databaseIndex;
+    }
+
     /**
      * Returns a local state in which a test oracle can save useful information about a single run. If the local state
      * is closed without indicating access to it, the local statements will be added to the global state.
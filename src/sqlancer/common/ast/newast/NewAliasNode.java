@@ -18,4 +18,9 @@ public class NewAliasNode<E> implements Node<E> {
         return alias;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<E> visitor) {
+        visitor.visit(this);
+    }
+
 }
@@ -30,4 +30,9 @@ public class NewBetweenOperatorNode<T> implements Node<T> {
         return isTrue;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<T> visitor) {
+        visitor.visit(this);
+    }
+
 }
@@ -26,4 +26,9 @@ public class NewBinaryOperatorNode<T> implements Node<T> {
         return right;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<T> visitor) {
+        visitor.visit(this);
+    }
+
 }
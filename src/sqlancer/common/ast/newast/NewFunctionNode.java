@@ -20,4 +20,9 @@ public class NewFunctionNode<T, F> implements Node<T> {
         return func;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<T> visitor) {
+        visitor.visit(this);
+    }
+
 }
@@ -36,4 +36,9 @@ public class NewTernaryNode<T> implements Node<T> {
         return rightStr;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<T> visitor) {
+        visitor.visit(this);
+    }
+
 }
@@ -20,4 +20,9 @@ public class NewUnaryPrefixOperatorNode<T> implements Node<T> {
         return expr;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<T> visitor) {
+        visitor.visit(this);
+    }
+
 }
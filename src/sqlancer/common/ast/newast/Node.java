@@ -2,4 +2,12 @@ package sqlancer.common.ast.newast;
 
 public interface Node<E> {
 
+    /**
+     * Calls the visit method of the visitor that matches the type of this node. Nodes without an overload in
+     * {@link NewToStringVisitor} keep this default, which hands them to {@link NewToStringVisitor#visitSpecific(Node)}.
+     */
+    default void accept(NewToStringVisitor<E> visitor) {
+        visitor.visitSpecific(this);
+    }
+
 }
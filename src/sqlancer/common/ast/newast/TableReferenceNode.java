@@ -14,4 +14,9 @@ public class TableReferenceNode<E, T extends AbstractTable<?, ?, ?>> implements
         return t;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<E> visitor) {
+        visitor.visit(this);
+    }
+
 }
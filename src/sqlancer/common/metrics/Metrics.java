@@ -0,0 +1,206 @@
+package sqlancer.common.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import sqlancer.common.metrics.ThreadMetrics.Phase;
+
+/**
+ * Process-wide registry of the metrics that SQLancer collects while testing: latency histograms per statement kind and
+ * per test oracle, counters of errors by normalized message, and the per-thread counters of {@link ThreadMetrics}.
+ *
+ * Recording statements, oracle checks, and phase times does not allocate once the histogram of an oracle and the
+ * counters of a thread exist. Errors are counted by a normalized copy of their message, which is only computed on the
+ * error path.
+ */
+public final class Metrics {
+
+    static final int MAX_ERROR_MESSAGES = 1000;
+    static final int MAX_ERROR_MESSAGE_LENGTH = 160;
+    static final String OTHER_ERRORS = "<other>";
+
+    private static final StatementKind[] KINDS = StatementKind.values();
+    private static final LatencyHistogram[] STATEMENT_LATENCIES = new LatencyHistogram[KINDS.length];
+    private static final LongAdder[] FAILED_STATEMENTS = new LongAdder[KINDS.length];
+    private static final Map<Class<?>, LatencyHistogram> ORACLE_LATENCIES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> ERRORS = new ConcurrentHashMap<>();
+    private static final List<ThreadMetrics> THREADS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ThreadMetrics> CURRENT_THREAD = ThreadLocal.withInitial(() -> {
+        ThreadMetrics metrics = new ThreadMetrics(Thread.currentThread().getName());
+        THREADS.add(metrics);
+        return metrics;
+    });
+    private static volatile String engine = "";
+
+    static {
+        for (int i = 0; i < KINDS.length; i++) {
+            STATEMENT_LATENCIES[i] = new LatencyHistogram();
+            FAILED_STATEMENTS[i] = new LongAdder();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static void setEngine(String engine) {
+        Metrics.engine = engine;
+    }
+
+    public static String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Records a statement that was sent to the DBMS. Its latency also counts as execution time of the current thread.
+     */
+    public static void recordStatement(StatementKind kind, long nanos, boolean success) {
+        STATEMENT_LATENCIES[kind.ordinal()].record(nanos);
+        if (!success) {
+            FAILED_STATEMENTS[kind.ordinal()].increment();
+        }
+        CURRENT_THREAD.get().addNanos(Phase.EXECUTION, nanos);
+    }
+
+    /**
+     * Records a call of {@code check()} of a test oracle, both for the oracle and for
+     * {@link StatementKind#ORACLE_CHECK}. Oracles that combine other oracles should not be recorded themselves, only the
+     * oracles that they call.
+     */
+    public static void recordOracleCheck(Class<?> oracle, long nanos) {
+        STATEMENT_LATENCIES[StatementKind.ORACLE_CHECK.ordinal()].record(nanos);
+        LatencyHistogram histogram = ORACLE_LATENCIES.get(oracle);
+        if (histogram == null) {
+            histogram = ORACLE_LATENCIES.computeIfAbsent(oracle, o -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public static void recordError(String message) {
+        String key = normalizeErrorMessage(message);
+        LongAdder counter = ERRORS.get(key);
+        if (counter == null) {
+            if (ERRORS.size() >= MAX_ERROR_MESSAGES) {
+                key = OTHER_ERRORS;
+            }
+            counter = ERRORS.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public static void addPhaseTime(Phase phase, long nanos) {
+        CURRENT_THREAD.get().addNanos(phase, nanos);
+    }
+
+    /**
+     * Called by a fuzzing thread when it starts working on a database, so that its counters carry the current thread
+     * name.
+     */
+    public static void startDatabase() {
+        ThreadMetrics metrics = CURRENT_THREAD.get();
+        metrics.setName(Thread.currentThread().getName());
+        metrics.startDatabase(System.nanoTime());
+    }
+
+    public static void databaseCreated() {
+        CURRENT_THREAD.get().incrementDatabases();
+    }
+
+    /**
+     * Called by a fuzzing thread when it is done with a database.
+     */
+    public static void finishDatabase() {
+        CURRENT_THREAD.get().finishDatabase(System.nanoTime());
+    }
+
+    public static LatencyHistogram getStatementLatencies(StatementKind kind) {
+        return STATEMENT_LATENCIES[kind.ordinal()];
+    }
+
+    public static long getFailedStatements(StatementKind kind) {
+        return FAILED_STATEMENTS[kind.ordinal()].sum();
+    }
+
+    /**
+     * Returns the latency histograms of the test oracles, keyed and sorted by the simple name of the oracle class.
+     */
+    public static Map<String, LatencyHistogram> getOracleLatencies() {
+        List<Map.Entry<Class<?>, LatencyHistogram>> entries = new ArrayList<>(ORACLE_LATENCIES.entrySet());
+        entries.sort(Map.Entry.comparingByKey((a, b) -> a.getSimpleName().compareTo(b.getSimpleName())));
+        Map<String, LatencyHistogram> result = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, LatencyHistogram> entry : entries) {
+            result.put(entry.getKey().getSimpleName(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the error counts, sorted from the most to the least frequent normalized message.
+     */
+    public static Map<String, Long> getErrorCounts() {
+        List<Map.Entry<String, LongAdder>> entries = new ArrayList<>(ERRORS.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : entries) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    public static List<ThreadMetrics> getThreads() {
+        return Collections.unmodifiableList(THREADS);
+    }
+
+    public static long getTotalNanos(Phase phase) {
+        long nanos = 0;
+        for (ThreadMetrics thread : THREADS) {
+            nanos += thread.getNanos(phase);
+        }
+        return nanos;
+    }
+
+    /**
+     * Normalizes an error message so that messages that only differ in literals or identifiers are counted together:
+     * only the first line is kept, quoted strings become {@code ?}, and numbers (also those in identifiers such as
+     * {@code t0}) become {@code N}.
+     */
+    public static String normalizeErrorMessage(String message) {
+        if (message == null) {
+            return "<no message>";
+        }
+        StringBuilder sb = new StringBuilder(Math.min(message.length(), MAX_ERROR_MESSAGE_LENGTH));
+        int i = 0;
+        while (i < message.length() && sb.length() < MAX_ERROR_MESSAGE_LENGTH) {
+            char c = message.charAt(i);
+            if (c == '\n' || c == '\r') {
+                break;
+            } else if (c == '\'' || c == '"') {
+                int end = message.indexOf(c, i + 1);
+                int lineEnd = message.indexOf('\n', i + 1);
+                if (end == -1 || lineEnd != -1 && lineEnd < end) {
+                    sb.append(c);
+                    i++;
+                } else {
+                    sb.append(c).append('?').append(c);
+                    i = end + 1;
+                }
+            } else if (Character.isDigit(c)) {
+                sb.append('N');
+                while (i < message.length() && (Character.isDigit(message.charAt(i)) || message.charAt(i) == '.'
+                        && i + 1 < message.length() && Character.isDigit(message.charAt(i + 1)))) {
+                    i++;
+                }
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString().trim();
+    }
+
+}
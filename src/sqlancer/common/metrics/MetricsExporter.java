@@ -0,0 +1,377 @@
+package sqlancer.common.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import sqlancer.common.metrics.ThreadMetrics.Phase;
+
+/**
+ * Renders the {@link Metrics} as JSON, in the Prometheus text format, and as a console summary, and exposes them
+ * through JMX and through files that are rewritten periodically.
+ */
+public final class MetricsExporter {
+
+    public static final String JSON_FILE_NAME = "metrics.json";
+    public static final String PROMETHEUS_FILE_NAME = "metrics.prom";
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+    private static final int NR_CONSOLE_ERRORS = 10;
+
+    private final Supplier<Map<String, Long>> counters;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param counters
+     *            supplies the global counters (such as the number of queries) that are exported along with the
+     *            {@link Metrics}
+     */
+    public MetricsExporter(Supplier<Map<String, Long>> counters) {
+        this.counters = counters;
+    }
+
+    /**
+     * Registers the metrics as the MXBean {@code sqlancer:type=Metrics}, unless one is already registered.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("sqlancer:type=Metrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Rewrites {@value #JSON_FILE_NAME} and {@value #PROMETHEUS_FILE_NAME} in the given directory every intervalSeconds
+     * seconds, using a daemon thread.
+     */
+    public void startPeriodicExport(File directory, int intervalSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> writeFiles(directory), intervalSeconds, intervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    public void writeFiles(File directory) {
+        try {
+            Files.createDirectories(directory.toPath());
+            writeAtomically(directory.toPath().resolve(JSON_FILE_NAME), toJson());
+            writeAtomically(directory.toPath().resolve(PROMETHEUS_FILE_NAME), toPrometheus());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeAtomically(Path file, String content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public String toJson() {
+        JSONObject root = new JSONObject();
+        root.put("engine", Metrics.getEngine());
+        root.put("uptime_seconds", toSeconds(System.nanoTime() - startNanos));
+        root.put("counters", new JSONObject(counters.get()));
+        JSONObject statements = new JSONObject();
+        for (StatementKind kind : StatementKind.values()) {
+            LatencyHistogram histogram = Metrics.getStatementLatencies(kind);
+            if (histogram.getCount() != 0) {
+                statements.put(kind.getLabel(), toJson(histogram).put("failed", Metrics.getFailedStatements(kind)));
+            }
+        }
+        root.put("statements", statements);
+        JSONObject oracles = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> oracle : Metrics.getOracleLatencies().entrySet()) {
+            oracles.put(oracle.getKey(), toJson(oracle.getValue()));
+        }
+        root.put("oracles", oracles);
+        JSONObject phases = new JSONObject();
+        for (Phase phase : Phase.values()) {
+            phases.put(phase.getLabel(), toSeconds(Metrics.getTotalNanos(phase)));
+        }
+        root.put("phases_seconds", phases);
+        JSONArray threads = new JSONArray();
+        for (ThreadMetrics thread : Metrics.getThreads()) {
+            JSONObject entry = new JSONObject();
+            entry.put("name", thread.getName());
+            entry.put("databases", thread.getDatabases());
+            entry.put("databases_per_second", thread.getDatabasesPerSecond());
+            for (Phase phase : Phase.values()) {
+                entry.put(phase.getLabel() + "_seconds", toSeconds(thread.getNanos(phase)));
+            }
+            threads.put(entry);
+        }
+        root.put("threads", threads);
+        root.put("errors", new JSONObject(Metrics.getErrorCounts()));
+        return root.toString(2) + "\n";
+    }
+
+    private static JSONObject toJson(LatencyHistogram histogram) {
+        JSONObject json = new JSONObject();
+        json.put("count", histogram.getCount());
+        json.put("mean_us", Math.round(histogram.getMean() / 1000));
+        for (double percentile : PERCENTILES) {
+            json.put("p" + percentileLabel(percentile) + "_us", histogram.getValueAtPercentile(percentile) / 1000);
+        }
+        json.put("max_us", histogram.getMax() / 1000);
+        return json;
+    }
+
+    public String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# TYPE sqlancer_info gauge\n");
+        sb.append("sqlancer_info{engine=");
+        appendLabelValue(sb, Metrics.getEngine());
+        sb.append("} 1\n");
+        for (Map.Entry<String, Long> counter : counters.get().entrySet()) {
+            String name = "sqlancer_" + counter.getKey() + "_total";
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            sb.append(name).append(' ').append(counter.getValue()).append('\n');
+        }
+        sb.append("# TYPE sqlancer_statement_latency_seconds summary\n");
+        for (StatementKind kind : StatementKind.values()) {
+            LatencyHistogram histogram = Metrics.getStatementLatencies(kind);
+            if (histogram.getCount() != 0) {
+                appendPrometheusSummary(sb, "sqlancer_statement_latency_seconds", "kind", kind.getLabel(), histogram);
+            }
+        }
+        sb.append("# TYPE sqlancer_statement_failures_total counter\n");
+        for (StatementKind kind : StatementKind.values()) {
+            if (Metrics.getStatementLatencies(kind).getCount() != 0) {
+                sb.append("sqlancer_statement_failures_total{kind=\"").append(kind.getLabel()).append("\"} ")
+                        .append(Metrics.getFailedStatements(kind)).append('\n');
+            }
+        }
+        sb.append("# TYPE sqlancer_oracle_check_latency_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> oracle : Metrics.getOracleLatencies().entrySet()) {
+            appendPrometheusSummary(sb, "sqlancer_oracle_check_latency_seconds", "oracle", oracle.getKey(),
+                    oracle.getValue());
+        }
+        sb.append("# TYPE sqlancer_phase_seconds_total counter\n");
+        for (Phase phase : Phase.values()) {
+            sb.append("sqlancer_phase_seconds_total{phase=\"").append(phase.getLabel()).append("\"} ")
+                    .append(toSeconds(Metrics.getTotalNanos(phase))).append('\n');
+        }
+        sb.append("# TYPE sqlancer_thread_databases_total counter\n");
+        for (ThreadMetrics thread : Metrics.getThreads()) {
+            sb.append("sqlancer_thread_databases_total{thread=");
+            appendLabelValue(sb, thread.getName());
+            sb.append("} ").append(thread.getDatabases()).append('\n');
+        }
+        sb.append("# TYPE sqlancer_thread_databases_per_second gauge\n");
+        for (ThreadMetrics thread : Metrics.getThreads()) {
+            sb.append("sqlancer_thread_databases_per_second{thread=");
+            appendLabelValue(sb, thread.getName());
+            sb.append("} ").append(thread.getDatabasesPerSecond()).append('\n');
+        }
+        sb.append("# TYPE sqlancer_errors_total counter\n");
+        for (Map.Entry<String, Long> error : Metrics.getErrorCounts().entrySet()) {
+            sb.append("sqlancer_errors_total{message=");
+            appendLabelValue(sb, error.getKey());
+            sb.append("} ").append(error.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendPrometheusSummary(StringBuilder sb, String name, String label, String value,
+            LatencyHistogram histogram) {
+        for (double percentile : PERCENTILES) {
+            sb.append(name).append('{').append(label).append('=');
+            appendLabelValue(sb, value);
+            String quantile = BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+            sb.append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(toSeconds(histogram.getValueAtPercentile(percentile))).append('\n');
+        }
+        sb.append(name).append("_sum{").append(label).append('=');
+        appendLabelValue(sb, value);
+        sb.append("} ").append(toSeconds(histogram.getSum())).append('\n');
+        sb.append(name).append("_count{").append(label).append('=');
+        appendLabelValue(sb, value);
+        sb.append("} ").append(histogram.getCount()).append('\n');
+    }
+
+    private static void appendLabelValue(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Returns a human-readable summary of the latencies, the time split, and the most frequent errors.
+     */
+    public String toConsoleSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-30s %12s %8s %10s %10s %10s %10s%n", "statement", "count", "failed", "p50 (us)",
+                "p99 (us)", "p99.9 (us)", "max (us)"));
+        for (StatementKind kind : StatementKind.values()) {
+            LatencyHistogram histogram = Metrics.getStatementLatencies(kind);
+            if (histogram.getCount() != 0) {
+                appendConsoleRow(sb, kind.getLabel(), histogram, Metrics.getFailedStatements(kind));
+            }
+        }
+        for (Map.Entry<String, LatencyHistogram> oracle : Metrics.getOracleLatencies().entrySet()) {
+            appendConsoleRow(sb, oracle.getKey(), oracle.getValue(), 0);
+        }
+        long totalNanos = 0;
+        for (Phase phase : Phase.values()) {
+            totalNanos += Metrics.getTotalNanos(phase);
+        }
+        sb.append("Time split:");
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format(" %s %.1f%%", phase.getLabel(),
+                    totalNanos == 0 ? 0 : 100.0 * Metrics.getTotalNanos(phase) / totalNanos));
+        }
+        sb.append(System.lineSeparator());
+        int nrErrors = 0;
+        for (Map.Entry<String, Long> error : Metrics.getErrorCounts().entrySet()) {
+            if (nrErrors++ == NR_CONSOLE_ERRORS) {
+                break;
+            }
+            sb.append(String.format("%,10d  %s%n", error.getValue(), error.getKey()));
+        }
+        return sb.toString();
+    }
+
+    private static void appendConsoleRow(StringBuilder sb, String name, LatencyHistogram histogram, long failed) {
+        sb.append(String.format("%-30s %,12d %,8d %,10d %,10d %,10d %,10d%n", name, histogram.getCount(), failed,
+                histogram.getValueAtPercentile(50) / 1000, histogram.getValueAtPercentile(99) / 1000,
+                histogram.getValueAtPercentile(99.9) / 1000, histogram.getMax() / 1000));
+    }
+
+    private static String percentileLabel(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile)
+                : Double.toString(percentile).replace(".", "");
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1_000_000_000d;
+    }
+
+    private final class Bean implements MetricsMXBean {
+
+        @Override
+        public String getEngine() {
+            return Metrics.getEngine();
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters.get();
+        }
+
+        @Override
+        public Map<String, Long> getStatementCounts() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (StatementKind kind : StatementKind.values()) {
+                result.put(kind.getLabel(), Metrics.getStatementLatencies(kind).getCount());
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Long> getFailedStatementCounts() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (StatementKind kind : StatementKind.values()) {
+                result.put(kind.getLabel(), Metrics.getFailedStatements(kind));
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Long> getStatementP50Micros() {
+            return getStatementPercentileMicros(50);
+        }
+
+        @Override
+        public Map<String, Long> getStatementP99Micros() {
+            return getStatementPercentileMicros(99);
+        }
+
+        private Map<String, Long> getStatementPercentileMicros(double percentile) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (StatementKind kind : StatementKind.values()) {
+                long nanos = Metrics.getStatementLatencies(kind).getValueAtPercentile(percentile);
+                result.put(kind.getLabel(), nanos / 1000);
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Long> getOracleCheckP99Micros() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (Map.Entry<String, LatencyHistogram> oracle : Metrics.getOracleLatencies().entrySet()) {
+                result.put(oracle.getKey(), oracle.getValue().getValueAtPercentile(99) / 1000);
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Long> getErrorCounts() {
+            return Metrics.getErrorCounts();
+        }
+
+        @Override
+        public Map<String, Double> getDatabasesPerSecondByThread() {
+            Map<String, Double> result = new LinkedHashMap<>();
+            for (ThreadMetrics thread : Metrics.getThreads()) {
+                result.put(thread.getName(), thread.getDatabasesPerSecond());
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Double> getPhaseSeconds() {
+            Map<String, Double> result = new LinkedHashMap<>();
+            for (Phase phase : Phase.values()) {
+                result.put(phase.getLabel(), toSeconds(Metrics.getTotalNanos(phase)));
+            }
+            return result;
+        }
+
+        @Override
+        public String getJson() {
+            return toJson();
+        }
+    }
+
+}
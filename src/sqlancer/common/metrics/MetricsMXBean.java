@@ -0,0 +1,32 @@
+package sqlancer.common.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link Metrics}, registered as {@code sqlancer:type=Metrics}. Latencies are in microseconds.
+ */
+public interface MetricsMXBean {
+
+    String getEngine();
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getStatementCounts();
+
+    Map<String, Long> getFailedStatementCounts();
+
+    Map<String, Long> getStatementP50Micros();
+
+    Map<String, Long> getStatementP99Micros();
+
+    Map<String, Long> getOracleCheckP99Micros();
+
+    Map<String, Long> getErrorCounts();
+
+    Map<String, Double> getDatabasesPerSecondByThread();
+
+    Map<String, Double> getPhaseSeconds();
+
+    String getJson();
+
+}
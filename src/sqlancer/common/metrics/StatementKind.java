@@ -0,0 +1,53 @@
+package sqlancer.common.metrics;
+
+import java.util.Locale;
+
+/**
+ * The kinds of statements for which latencies are recorded separately.
+ */
+public enum StatementKind {
+
+    CREATE, INSERT, UPDATE, DELETE, SELECT, EXPLAIN, ORACLE_CHECK, OTHER;
+
+    private static final StatementKind[] KEYWORD_KINDS = { CREATE, INSERT, UPDATE, DELETE, SELECT, EXPLAIN };
+
+    /**
+     * Classifies a statement by its leading keyword, without allocating. Leading whitespace and parentheses are
+     * skipped, and a WITH clause counts as a SELECT.
+     */
+    public static StatementKind of(CharSequence statement) {
+        int start = 0;
+        int length = statement.length();
+        while (start < length
+                && (Character.isWhitespace(statement.charAt(start)) || statement.charAt(start) == '(')) {
+            start++;
+        }
+        for (StatementKind kind : KEYWORD_KINDS) {
+            if (startsWithKeyword(statement, start, kind.name())) {
+                return kind;
+            }
+        }
+        if (startsWithKeyword(statement, start, "WITH") || startsWithKeyword(statement, start, "VALUES")) {
+            return SELECT;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWithKeyword(CharSequence statement, int start, String keyword) {
+        int end = start + keyword.length();
+        if (end > statement.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(statement.charAt(start + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return end == statement.length() || !Character.isLetterOrDigit(statement.charAt(end));
+    }
+
+    public String getLabel() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,108 @@
+package sqlancer.common.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a single fuzzing thread. Only the owning thread updates them, other threads only read them.
+ */
+public final class ThreadMetrics {
+
+    /**
+     * The phases between which the time of a thread is split. The generation time is not measured directly, but is
+     * the time spent on a database that is not attributed to one of the other phases.
+     */
+    public enum Phase {
+        GENERATION, EXECUTION, LOGGING, REDUCTION;
+
+        public String getLabel() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private volatile String name;
+    private final AtomicLong databases = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    // start of the database that the thread currently works on, or 0
+    private volatile long databaseStartNanos;
+    private final AtomicLong executionNanos = new AtomicLong();
+    private final AtomicLong loggingNanos = new AtomicLong();
+    private final AtomicLong reductionNanos = new AtomicLong();
+
+    ThreadMetrics(String name) {
+        this.name = name;
+    }
+
+    void setName(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void incrementDatabases() {
+        databases.incrementAndGet();
+    }
+
+    void addNanos(Phase phase, long nanos) {
+        switch (phase) {
+        case EXECUTION:
+            executionNanos.addAndGet(nanos);
+            break;
+        case LOGGING:
+            loggingNanos.addAndGet(nanos);
+            break;
+        case REDUCTION:
+            reductionNanos.addAndGet(nanos);
+            break;
+        default:
+            throw new AssertionError(phase);
+        }
+    }
+
+    void startDatabase(long startNanos) {
+        databaseStartNanos = startNanos;
+    }
+
+    void finishDatabase(long endNanos) {
+        totalNanos.addAndGet(endNanos - databaseStartNanos);
+        databaseStartNanos = 0;
+    }
+
+    public long getDatabases() {
+        return databases.get();
+    }
+
+    /**
+     * Returns the time spent on databases, including the one that the thread currently works on.
+     */
+    public long getTotalNanos() {
+        long start = databaseStartNanos;
+        return totalNanos.get() + (start == 0 ? 0 : System.nanoTime() - start);
+    }
+
+    public long getNanos(Phase phase) {
+        switch (phase) {
+        case GENERATION:
+            return Math.max(0, getTotalNanos() - executionNanos.get() - loggingNanos.get() - reductionNanos.get());
+        case EXECUTION:
+            return executionNanos.get();
+        case LOGGING:
+            return loggingNanos.get();
+        case REDUCTION:
+            return reductionNanos.get();
+        default:
+            throw new AssertionError(phase);
+        }
+    }
+
+    /**
+     * Returns the number of databases that the thread created per second of time spent on testing them.
+     */
+    public double getDatabasesPerSecond() {
+        long nanos = getTotalNanos();
+        return nanos == 0 ? 0 : databases.get() / (nanos / 1_000_000_000d);
+    }
+
+}
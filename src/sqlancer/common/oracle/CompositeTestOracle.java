@@ -3,6 +3,7 @@ package sqlancer.common.oracle;
 import java.util.List;
 
 import sqlancer.GlobalState;
+import sqlancer.common.metrics.Metrics;
 
 public class CompositeTestOracle<G extends GlobalState<?, ?, ?>> implements TestOracle<G> {
 
@@ -18,14 +19,17 @@ public class CompositeTestOracle<G extends GlobalState<?, ?, ?>> implements Test
 
     @Override
     public void check() throws Exception {
+        TestOracle<G> oracle = oracles.get(i);
+        long start = System.nanoTime();
         try {
-            oracles.get(i).check();
+            oracle.check();
             iLast = i;
             boolean lastOracleIndex = i == oracles.size() - 1;
             if (!lastOracleIndex) {
                 globalState.getManager().incrementSelectQueryCount();
             }
         } finally {
+            Metrics.recordOracleCheck(oracle.getClass(), System.nanoTime() - start);
             i = (i + 1) % oracles.size();
         }
     }
@@ -6,8 +6,12 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 import sqlancer.GlobalState;
+import sqlancer.IgnoreMeException;
 import sqlancer.Main;
 import sqlancer.SQLConnection;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.StatementKind;
+import sqlancer.common.query.StatementWatchdog.Watch;
 
 public class SQLQueryAdapter extends Query<SQLConnection> {
 
@@ -93,24 +97,45 @@ public class SQLQueryAdapter extends Query<SQLConnection> {
         } else {
             s = globalState.getConnection().createStatement();
         }
+        StatementKind kind = getStatementKind(fills);
+        long start = System.nanoTime();
+        Watch watch = StatementWatchdog.watch(s, kind);
         try {
             if (fills.length > 0) {
                 ((PreparedStatement) s).execute();
             } else {
                 s.execute(query);
             }
+            Metrics.recordStatement(kind, System.nanoTime() - start, true);
             Main.nrSuccessfulActions.addAndGet(1);
             return true;
         } catch (Exception e) {
+            long nanos = System.nanoTime() - start;
+            Metrics.recordStatement(kind, nanos, false);
+            Metrics.recordError(e.getMessage());
             Main.nrUnsuccessfulActions.addAndGet(1);
+            if (watch.isCanceled()) {
+                globalState.getConnection().recordTimeout();
+                globalState.getLogger().writeCurrent(" -- " + getTimeoutMessage(nanos));
+                return false;
+            }
             checkException(e);
             globalState.getLogger().writeCurrent(" -- " + e.getMessage());
             return false;
         } finally {
+            watch.close();
             s.close();
         }
     }
 
+    private StatementKind getStatementKind(String... fills) {
+        return StatementKind.of(fills.length > 0 ? fills[0] : query);
+    }
+
+    private static String getTimeoutMessage(long nanos) {
+        return "canceled by the statement watchdog after " + nanos / 1_000_000 + " ms";
+    }
+
     public void checkException(Exception e) throws AssertionError {
         Throwable ex = e;
 
@@ -137,21 +162,35 @@ public class SQLQueryAdapter extends Query<SQLConnection> {
         return executeAndGet(globalState, maxRows, new String[0]);
     }
 
-    public <G extends GlobalState<?, ?, SQLConnection>> SQLancerResultSet executeAndGet(G globalState, int maxRows, String... fills)
-            throws SQLException {
+    public <G extends GlobalState<?, ?, SQLConnection>> SQLancerResultSet executeAndGet(G globalState, int maxRows,
+            String... fills) throws SQLException {
+        return executeAndGet(globalState, globalState.getConnection(), maxRows, fills);
+    }
+
+    /**
+     * Executes the query on the given connection, which can be another connection to the database of the global state.
+     */
+    public <G extends GlobalState<?, ?, SQLConnection>> SQLancerResultSet executeAndGet(G globalState,
+            SQLConnection con, int maxRows, String... fills) throws SQLException {
         Statement s;
         if (fills.length > 0) {
-            s = globalState.getConnection().prepareStatement(fills[0]);
+            s = con.prepareStatement(fills[0]);
             for (int i = 1; i < fills.length; i++) {
                 ((PreparedStatement) s).setString(i, fills[i]);
             }
         } else {
-            s = globalState.getConnection().createStatement();
+            s = con.createStatement();
         }
         if (maxRows > 0) {
             s.setMaxRows(maxRows);
         }
+        con.beginStreaming(s);
         ResultSet result;
+        StatementKind kind = getStatementKind(fills);
+        long start = System.nanoTime();
+        // the watch stays open while the results are fetched, and is closed together with the result set, which then
+        // records the latency
+        Watch watch = StatementWatchdog.watch(s, kind);
         try {
             if (fills.length > 0) {
                 result = ((PreparedStatement) s).executeQuery();
@@ -160,12 +199,25 @@ public class SQLQueryAdapter extends Query<SQLConnection> {
             }
             Main.nrSuccessfulActions.addAndGet(1);
             if (result == null) {
+                watch.close();
+                Metrics.recordStatement(kind, System.nanoTime() - start, true);
+                con.endStreaming();
                 return null;
             }
-            return new SQLancerResultSet(result);
+            return new SQLancerResultSet(result, watch, con, kind, start);
         } catch (Exception e) {
+            watch.close();
             s.close();
+            con.endStreaming();
+            long nanos = System.nanoTime() - start;
+            Metrics.recordStatement(kind, nanos, false);
+            Metrics.recordError(e.getMessage());
             Main.nrUnsuccessfulActions.addAndGet(1);
+            if (watch.isCanceled()) {
+                con.recordTimeout();
+                globalState.getLogger().writeCurrent("-- " + getTimeoutMessage(nanos));
+                throw new IgnoreMeException();
+            }
             checkException(e);
             globalState.getLogger().writeCurrent("-- " + e.getMessage());
         }
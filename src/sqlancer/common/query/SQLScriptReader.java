@@ -0,0 +1,232 @@
+package sqlancer.common.query;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a SQL script into its statements while reading it, so that scripts of any size are processed with constant
+ * memory. Semicolons in string literals, quoted identifiers, comments and dollar-quoted strings do not end a statement.
+ * Line comments are dropped, block comments are kept, as some DBMSs read optimizer hints from them. In the MySQL dialect,
+ * a backslash escapes the next character of a quoted string.
+ */
+public class SQLScriptReader implements Closeable {
+
+    private final Reader reader;
+    private final boolean backslashEscapes;
+    private final StringBuilder sb = new StringBuilder();
+    private int pushedBack = -1;
+    private long line = 1;
+    private long statementLine;
+
+    public SQLScriptReader(Reader reader) {
+        this(reader, false);
+    }
+
+    /**
+     * @param backslashEscapes
+     *            whether a backslash escapes the next character in single- and double-quoted strings, as in MySQL,
+     *            MariaDB and TiDB
+     */
+    public SQLScriptReader(Reader reader, boolean backslashEscapes) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.backslashEscapes = backslashEscapes;
+    }
+
+    /**
+     * Reads the next statement.
+     *
+     * @return the statement without its terminating semicolon and surrounding whitespace, or null at the end of the
+     *         script
+     */
+    public String next() throws IOException {
+        sb.setLength(0);
+        statementLine = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (statementLine == 0 && !Character.isWhitespace(c)) {
+                statementLine = line;
+            }
+            switch (c) {
+            case ';':
+                String statement = trimmed();
+                if (statement != null) {
+                    return statement;
+                }
+                sb.setLength(0);
+                statementLine = 0;
+                break;
+            case '\'':
+            case '"':
+            case '`':
+                sb.append((char) c);
+                readQuoted((char) c);
+                break;
+            case '-':
+                if (!readLineComment()) {
+                    sb.append('-');
+                }
+                break;
+            case '/':
+                if (!readBlockComment()) {
+                    sb.append('/');
+                }
+                break;
+            case '$':
+                readDollar();
+                break;
+            default:
+                sb.append((char) c);
+                break;
+            }
+        }
+        // a last statement without a semicolon
+        return trimmed();
+    }
+
+    /**
+     * Returns the line number at which the statement last returned by {@link #next()} starts.
+     */
+    public long getStatementLine() {
+        return statementLine;
+    }
+
+    /**
+     * Returns the number of the line that is currently read.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -1) {
+            c = pushedBack;
+            pushedBack = -1;
+        } else {
+            c = reader.read();
+            if (c == '\n') {
+                line++;
+            }
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    // doubled quotes need no special handling: they close the literal and immediately open a new one
+    private void readQuoted(char quote) throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            sb.append((char) c);
+            if (c == quote) {
+                return;
+            }
+            // a backslash does not escape in backtick-quoted identifiers
+            if (c == '\\' && backslashEscapes && quote != '`') {
+                c = read();
+                if (c == -1) {
+                    return;
+                }
+                sb.append((char) c);
+            }
+        }
+    }
+
+    private boolean readLineComment() throws IOException {
+        int c = read();
+        if (c != '-') {
+            unread(c);
+            return false;
+        }
+        while ((c = read()) != -1 && c != '\n') {
+            // skip
+        }
+        if (sb.length() != 0) {
+            sb.append('\n');
+        }
+        return true;
+    }
+
+    private boolean readBlockComment() throws IOException {
+        int c = read();
+        if (c != '*') {
+            unread(c);
+            return false;
+        }
+        sb.append("/*");
+        int previous = -1;
+        while ((c = read()) != -1) {
+            sb.append((char) c);
+            if (previous == '*' && c == '/') {
+                break;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
+    // $tag$ ... $tag$ as in PostgreSQL; $1 and identifiers containing $ are left alone
+    private void readDollar() throws IOException {
+        int start = sb.length();
+        sb.append('$');
+        if (start != 0 && isTagCharacter(sb.charAt(start - 1))) {
+            return;
+        }
+        int c;
+        while ((c = read()) != -1 && isTagCharacter((char) c)) {
+            if (sb.length() == start + 1 && Character.isDigit(c)) {
+                break;
+            }
+            sb.append((char) c);
+        }
+        if (c != '$') {
+            unread(c);
+            return;
+        }
+        sb.append('$');
+        int delimiterLength = sb.length() - start;
+        int minEnd = start + 2 * delimiterLength;
+        while ((c = read()) != -1) {
+            sb.append((char) c);
+            if (c == '$' && sb.length() >= minEnd && endsWithDelimiter(start, delimiterLength)) {
+                return;
+            }
+        }
+    }
+
+    private boolean endsWithDelimiter(int start, int delimiterLength) {
+        int end = sb.length() - delimiterLength;
+        for (int i = 0; i < delimiterLength; i++) {
+            if (sb.charAt(end + i) != sb.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTagCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private String trimmed() {
+        int start = 0;
+        int end = sb.length();
+        while (start < end && Character.isWhitespace(sb.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(sb.charAt(end - 1))) {
+            end--;
+        }
+        return start == end ? null : sb.substring(start, end);
+    }
+
+}
@@ -4,23 +4,56 @@ import java.io.Closeable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import sqlancer.SQLConnection;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.StatementKind;
+
 public class SQLancerResultSet implements Closeable {
 
     ResultSet rs;
     private Runnable runnableEpilogue;
+    private final StatementWatchdog.Watch watch;
+    private final SQLConnection streamingConnection;
+    private final StatementKind kind;
+    private final long start;
 
     public SQLancerResultSet(ResultSet rs) {
+        this(rs, null, null, null, 0);
+    }
+
+    /**
+     * The latency of the statement is recorded once the result set is closed, so that it includes the fetching of the
+     * rows, which the watch also covers.
+     */
+    SQLancerResultSet(ResultSet rs, StatementWatchdog.Watch watch, SQLConnection streamingConnection,
+            StatementKind kind, long start) {
         this.rs = rs;
+        this.watch = watch;
+        this.streamingConnection = streamingConnection;
+        this.kind = kind;
+        this.start = start;
     }
 
     @Override
     public void close() {
+        if (watch != null) {
+            watch.close();
+            if (watch.isCanceled() && streamingConnection != null) {
+                streamingConnection.recordTimeout();
+            }
+        }
+        if (kind != null) {
+            Metrics.recordStatement(kind, System.nanoTime() - start, !isCanceled());
+        }
         try {
             if (runnableEpilogue != null) {
                 runnableEpilogue.run();
             }
             rs.getStatement().close();
             rs.close();
+            if (streamingConnection != null) {
+                streamingConnection.endStreaming();
+            }
         } catch (SQLException e) {
             throw new AssertionError(e);
         }
@@ -38,6 +71,14 @@ public class SQLancerResultSet implements Closeable {
         return rs.getString(i);
     }
 
+    /**
+     * Returns whether the statement was canceled by the {@link StatementWatchdog}, in which case fetching further rows
+     * fails.
+     */
+    public boolean isCanceled() {
+        return watch != null && watch.isCanceled();
+    }
+
     public boolean isClosed() throws SQLException {
         return rs.isClosed();
     }
@@ -54,6 +95,14 @@ public class SQLancerResultSet implements Closeable {
         return rs.getMetaData().getColumnTypeName(i);
     }
 
+    public int getColumnCount() throws SQLException {
+        return rs.getMetaData().getColumnCount();
+    }
+
+    public String getColumnName(int i) throws SQLException {
+        return rs.getMetaData().getColumnName(i);
+    }
+
     public void registerEpilogue(Runnable runnableEpilogue) {
         this.runnableEpilogue = runnableEpilogue;
     }
@@ -0,0 +1,168 @@
+package sqlancer.common.query;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import sqlancer.common.metrics.LatencyHistogram;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.StatementKind;
+
+/**
+ * Cancels statements that run past their deadline, so that a runaway query or a hung DDL statement does not block a
+ * thread until the whole run times out. A single daemon thread serves all threads.
+ *
+ * The deadline of a statement is a multiple of the 99th percentile of the latencies observed for statements of the
+ * same kind, bounded by a lower limit and the configured maximum. Until enough latencies are known, the maximum is
+ * used. As computing a percentile scans the whole histogram, the percentile of each kind is cached and only computed
+ * again after {@value #REFRESH_SAMPLES} further statements of that kind.
+ */
+public final class StatementWatchdog {
+
+    private static final long MIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MIN_SAMPLES = 100;
+    private static final long REFRESH_SAMPLES = 1000;
+
+    private static final DelayQueue<Watch> WATCHES = new DelayQueue<>();
+    private static final LongAdder NR_CANCELED = new LongAdder();
+    private static final Watch NO_WATCH = new Watch(null, Long.MAX_VALUE);
+    // per statement kind, the cached 99th percentile and the number of latencies it was computed from
+    private static final AtomicLongArray P99_NANOS = new AtomicLongArray(StatementKind.values().length);
+    private static final AtomicLongArray P99_SAMPLES = new AtomicLongArray(StatementKind.values().length);
+
+    private static volatile long maxTimeoutNanos;
+    private static volatile double factor;
+    private static Thread thread;
+
+    private StatementWatchdog() {
+    }
+
+    /**
+     * @param maxTimeoutMillis
+     *            the longest time that a statement may run, or 0 to never cancel statements
+     * @param p99Factor
+     *            the multiple of the 99th percentile latency after which a statement is canceled
+     */
+    public static synchronized void configure(long maxTimeoutMillis, double p99Factor) {
+        maxTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxTimeoutMillis));
+        factor = p99Factor;
+        if (maxTimeoutNanos != 0 && thread == null) {
+            thread = new Thread(StatementWatchdog::run, "sqlancer-statement-watchdog");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Starts to watch a statement that is about to be executed. The returned watch must be closed once the statement
+     * has completed, including the fetching of its results. Whether the statement timed out is kept on the watch, as
+     * the results might be fetched on another thread than the one that checks them.
+     */
+    public static Watch watch(Statement statement, StatementKind kind) {
+        long max = maxTimeoutNanos;
+        if (max == 0) {
+            return NO_WATCH;
+        }
+        Watch watch = new Watch(statement, System.nanoTime() + getTimeoutNanos(kind, max));
+        WATCHES.add(watch);
+        return watch;
+    }
+
+    static long getTimeoutNanos(StatementKind kind, long max) {
+        LatencyHistogram latencies = Metrics.getStatementLatencies(kind);
+        long count = latencies.getCount();
+        if (count < MIN_SAMPLES) {
+            return max;
+        }
+        int i = kind.ordinal();
+        long samples = P99_SAMPLES.get(i);
+        // only one thread refreshes the percentile, the others use the previous value in the meantime
+        if ((samples == 0 || count - samples >= REFRESH_SAMPLES) && P99_SAMPLES.compareAndSet(i, samples, count)) {
+            P99_NANOS.set(i, latencies.getValueAtPercentile(99));
+        }
+        long p99 = P99_NANOS.get(i);
+        if (p99 == 0) {
+            return max;
+        }
+        long timeout = (long) (p99 * factor);
+        return Math.min(max, Math.max(MIN_TIMEOUT_NANOS, timeout));
+    }
+
+    public static long getNrCanceled() {
+        return NR_CANCELED.sum();
+    }
+
+    private static void run() {
+        while (true) {
+            try {
+                WATCHES.take().expire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public static final class Watch implements Delayed, AutoCloseable {
+
+        private final long deadline;
+        private Statement statement;
+        private boolean canceled;
+
+        private Watch(Statement statement, long deadline) {
+            this.statement = statement;
+            this.deadline = deadline;
+        }
+
+        private void expire() {
+            Statement toCancel;
+            synchronized (this) {
+                toCancel = statement;
+                if (toCancel == null) {
+                    return;
+                }
+                canceled = true;
+            }
+            NR_CANCELED.increment();
+            try {
+                toCancel.cancel();
+            } catch (SQLException e) {
+                // the statement completed in the meantime, or the driver does not support canceling
+            }
+        }
+
+        /**
+         * Returns whether the statement was canceled because it ran past its deadline.
+         */
+        public synchronized boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public void close() {
+            if (this == NO_WATCH) {
+                return;
+            }
+            synchronized (this) {
+                statement = null;
+            }
+            WATCHES.remove(this);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadline, ((Watch) other).deadline);
+        }
+
+    }
+
+}
@@ -1,7 +1,12 @@
 package sqlancer.common.schema;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -10,12 +15,63 @@ import sqlancer.GlobalState;
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 
+/**
+ * Immutable snapshot of the tables and views of a database. Changes create a new snapshot with a higher version that
+ * shares the unchanged table objects, so a generator or oracle can keep using the snapshot it started with.
+ */
 public class AbstractSchema<G extends GlobalState<?, ?, ?>, A extends AbstractTable<?, ?, G>> {
 
     private final List<A> databaseTables;
+    private final Map<String, A> tablesByName = new HashMap<>();
+    private final Set<String> lowerCaseTableNames = new HashSet<>();
+    private final Set<String> indexNames = new HashSet<>();
+    private final long version;
 
     public AbstractSchema(List<A> databaseTables) {
-        this.databaseTables = Collections.unmodifiableList(databaseTables);
+        this(databaseTables, 0);
+    }
+
+    protected AbstractSchema(List<A> databaseTables, long version) {
+        this.databaseTables = List.copyOf(databaseTables);
+        this.version = version;
+        for (A table : this.databaseTables) {
+            tablesByName.putIfAbsent(table.getName(), table);
+            lowerCaseTableNames.add(table.getName().toLowerCase(Locale.ROOT));
+            for (TableIndex index : table.getIndexes()) {
+                indexNames.add(index.getIndexName());
+            }
+        }
+    }
+
+    /**
+     * Returns a number that increases with each change of the schema.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the tables of this schema, with the table of the same name replaced by the given one, or with the given
+     * one appended.
+     */
+    protected List<A> getTablesWith(A table) {
+        List<A> tables = new ArrayList<>(databaseTables);
+        A existing = tablesByName.get(table.getName());
+        if (existing == null) {
+            tables.add(table);
+        } else {
+            tables.set(tables.indexOf(existing), table);
+        }
+        return tables;
+    }
+
+    protected List<A> getTablesWithout(String tableName) {
+        List<A> tables = new ArrayList<>(databaseTables);
+        A existing = tablesByName.get(tableName);
+        if (existing != null) {
+            tables.remove(existing);
+        }
+        return tables;
     }
 
     @Override
@@ -65,7 +121,7 @@ public class AbstractSchema<G extends GlobalState<?, ?, ?>, A extends AbstractTa
     }
 
     public A getDatabaseTable(String name) {
-        return databaseTables.stream().filter(t -> t.getName().equals(name)).findAny().orElse(null);
+        return tablesByName.get(name);
     }
 
     public List<A> getViews() {
@@ -98,15 +154,8 @@ public class AbstractSchema<G extends GlobalState<?, ?, ?>, A extends AbstractTa
             i = (int) Randomly.getNotCachedInteger(0, 100);
         }
         do {
-            String indexName = String.format("i%d", i++);
-            boolean indexNameFound = false;
-            for (A table : databaseTables) {
-                if (table.getIndexes().stream().anyMatch(ind -> ind.getIndexName().contentEquals(indexName))) {
-                    indexNameFound = true;
-                    break;
-                }
-            }
-            if (!indexNameFound) {
+            String indexName = "i" + i++;
+            if (!indexNames.contains(indexName)) {
                 return indexName;
             }
         } while (true);
@@ -118,8 +167,8 @@ public class AbstractSchema<G extends GlobalState<?, ?, ?>, A extends AbstractTa
             i = (int) Randomly.getNotCachedInteger(0, 100);
         }
         do {
-            String tableName = String.format("t%d", i++);
-            if (databaseTables.stream().noneMatch(t -> t.getName().equalsIgnoreCase(tableName))) {
+            String tableName = "t" + i++;
+            if (!lowerCaseTableNames.contains(tableName)) {
                 return tableName;
             }
         } while (true);
@@ -132,8 +181,8 @@ public class AbstractSchema<G extends GlobalState<?, ?, ?>, A extends AbstractTa
             i = (int) Randomly.getNotCachedInteger(0, 100);
         }
         do {
-            String tableName = String.format("v%d", i++);
-            if (databaseTables.stream().noneMatch(t -> t.getName().contentEquals(tableName))) {
+            String tableName = "v" + i++;
+            if (!tablesByName.containsKey(tableName)) {
                 return tableName;
             }
         } while (true);
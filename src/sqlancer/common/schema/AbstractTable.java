@@ -1,7 +1,9 @@
 package sqlancer.common.schema;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -18,12 +20,14 @@ public abstract class AbstractTable<C extends AbstractTableColumn<?, ?>, I exten
     private final List<I> indexes;
     private final boolean isView;
     protected long rowCount = NO_ROW_COUNT_AVAILABLE;
+    private final Set<String> columnNames;
 
     protected AbstractTable(String name, List<C> columns, List<I> indexes, boolean isView) {
         this.name = name;
         this.indexes = indexes;
         this.isView = isView;
         this.columns = Collections.unmodifiableList(columns);
+        this.columnNames = columns.stream().map(c -> c.getName()).collect(Collectors.toCollection(HashSet::new));
     }
 
     public String getName() {
@@ -97,14 +101,22 @@ public abstract class AbstractTable<C extends AbstractTableColumn<?, ?>, I exten
             i = (int) Randomly.getNotCachedInteger(0, 100);
         }
         do {
-            String columnName = String.format("c%d", i++);
-            if (columns.stream().noneMatch(t -> t.getName().contentEquals(columnName))) {
+            String columnName = "c" + i++;
+            if (!columnNames.contains(columnName)) {
                 return columnName;
             }
         } while (true);
 
     }
 
+    /**
+     * Returns the row count determined by {@link #getNrRows}, or a negative value if it has not been determined yet.
+     * Unlike {@link #getNrRows}, this does not query the DBMS.
+     */
+    public long getCachedRowCount() {
+        return rowCount;
+    }
+
     public void recomputeCount() {
         rowCount = NO_ROW_COUNT_AVAILABLE;
     }
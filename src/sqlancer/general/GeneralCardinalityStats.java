@@ -0,0 +1,70 @@
+package sqlancer.general;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralTable;
+
+/**
+ * Row counts of the tables of a database, used to keep the cross products of oracle queries small.
+ *
+ * The counts are collected with one {@code SELECT COUNT(*)} per table and cached in the table objects, which the schema
+ * snapshots share until the table is changed.
+ */
+public final class GeneralCardinalityStats {
+
+    private GeneralCardinalityStats() {
+    }
+
+    /**
+     * Determines the row counts of all tables (but not the views) of the current schema.
+     */
+    public static void collect(GeneralGlobalState globalState) {
+        for (GeneralTable table : globalState.getSchema().getDatabaseTablesWithoutViews()) {
+            try {
+                table.getNrRows(globalState);
+            } catch (IgnoreMeException e) {
+                // the count stays unknown
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of rows of the cross product of the tables. Tables without a known row count are treated
+     * as if they had a single row.
+     */
+    public static long estimateCrossProductRows(List<GeneralTable> tables) {
+        long rows = 1;
+        for (GeneralTable table : tables) {
+            long count = table.getCachedRowCount();
+            if (count > 0) {
+                rows = count > Long.MAX_VALUE / rows ? Long.MAX_VALUE : rows * count;
+            } else if (count == 0) {
+                return 0;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Removes the largest tables until the estimated size of the cross product of the remaining tables is at most
+     * maxRows. At least one table is kept.
+     *
+     * @param maxRows
+     *            the maximum number of rows, or 0 for no limit
+     */
+    public static List<GeneralTable> limitCrossProduct(List<GeneralTable> tables, long maxRows) {
+        if (maxRows <= 0 || tables.size() <= 1 || estimateCrossProductRows(tables) <= maxRows) {
+            return tables;
+        }
+        List<GeneralTable> remaining = new ArrayList<>(tables);
+        while (remaining.size() > 1 && estimateCrossProductRows(remaining) > maxRows) {
+            remaining.remove(remaining.stream().max(Comparator.comparingLong(GeneralTable::getCachedRowCount)).get());
+        }
+        return remaining;
+    }
+
+}
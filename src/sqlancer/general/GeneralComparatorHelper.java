@@ -1,12 +1,25 @@
 package sqlancer.general;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.IgnoreMeException;
+import sqlancer.SQLConnection;
 import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
 import sqlancer.general.GeneralProvider.GeneralGlobalState;
 import sqlancer.general.gen.AutoIndexSelectHelper;
 import sqlancer.general.gen.AutoIndexSelectHelper.IndexedSelectResult;
@@ -17,6 +30,12 @@ import sqlancer.general.gen.AutoIndexSelectHelper.IndexedSelectResult;
  */
 public final class GeneralComparatorHelper {
 
+    private static final ExecutorService SIBLING_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sqlancer-sibling-connection");
+        t.setDaemon(true);
+        return t;
+    });
+
     private GeneralComparatorHelper() {
     }
 
@@ -76,6 +95,229 @@ public final class GeneralComparatorHelper {
         }
     }
 
+    /**
+     * Gets the result set of the union of three queries without duplicates, optionally routing through an indexed view
+     * if auto-index-selects is enabled.
+     *
+     * @param combinedString Output list for the combined query string
+     * @param asUnion Whether to combine as UNION, or as SELECT DISTINCT over a UNION ALL
+     * @return Combined result set without duplicates
+     * @throws SQLException If query execution fails
+     */
+    public static List<String> getCombinedResultSetNoDuplicates(
+            String firstQueryString,
+            String secondQueryString,
+            String thirdQueryString,
+            List<String> combinedString,
+            boolean asUnion,
+            GeneralGlobalState state,
+            ExpectedErrors errors) throws SQLException {
+
+        if (AutoIndexSelectHelper.isEnabled(state)) {
+            String unionString;
+            if (asUnion) {
+                unionString = firstQueryString + " UNION " + secondQueryString + " UNION " + thirdQueryString;
+            } else {
+                unionString = "SELECT DISTINCT * FROM (" + firstQueryString + " UNION ALL " + secondQueryString
+                        + " UNION ALL " + thirdQueryString + ")";
+            }
+            combinedString.add(unionString);
+            return executeWithIndexedView(unionString, errors, state);
+        } else {
+            return ComparatorHelper.getCombinedResultSetNoDuplicates(
+                    firstQueryString, secondQueryString, thirdQueryString,
+                    combinedString, asUnion, state, errors);
+        }
+    }
+
+    /**
+     * Fetches the first column of the results of the queries, distributed over the main connection and its siblings
+     * (see {@link GeneralGlobalState#getSiblingConnections()}), so that the queries on different connections run
+     * concurrently. The queries are logged in their order before any of them is executed.
+     *
+     * @return the results, in the order of the queries
+     */
+    public static List<List<String>> getResultSetsConcurrently(List<String> queryStrings, ExpectedErrors errors,
+            GeneralGlobalState state) throws SQLException {
+        if (state.getOptions().logEachSelect()) {
+            for (String queryString : queryStrings) {
+                state.getLogger().writeCurrent(queryString);
+            }
+        }
+        List<SQLConnection> connections = new ArrayList<>();
+        connections.add(state.getConnection());
+        connections.addAll(state.getSiblingConnections());
+        int nrConnections = Math.min(connections.size(), queryStrings.size());
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(queryStrings.size(), null));
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 1; i < nrConnections; i++) {
+            int connection = i;
+            futures.add(SIBLING_EXECUTOR.submit(() -> fetchResultSets(queryStrings, errors, state,
+                    connections.get(connection), connection, nrConnections, results)));
+        }
+        Throwable failure = null;
+        try {
+            fetchResultSets(queryStrings, errors, state, connections.get(0), 0, nrConnections, results);
+        } catch (SQLException | RuntimeException | AssertionError e) {
+            failure = e;
+        }
+        // all connections must be idle again before the failure is thrown
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IgnoreMeException();
+            } catch (ExecutionException e) {
+                // a bug takes precedence over a query that is skipped
+                if (!(failure instanceof AssertionError)) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof SQLException) {
+            throw (SQLException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw (Error) failure;
+        }
+        return results;
+    }
+
+    private static Void fetchResultSets(List<String> queryStrings, ExpectedErrors errors, GeneralGlobalState state,
+            SQLConnection con, int connection, int nrConnections, List<List<String>> results) throws SQLException {
+        for (int i = connection; i < queryStrings.size(); i += nrConnections) {
+            results.set(i, ComparatorHelper.getResultSetFirstColumnAsString(queryStrings.get(i), errors, state, con));
+        }
+        return null;
+    }
+
+    /**
+     * The construct with which the DBMS can compute the multiset difference of two query results.
+     */
+    public enum SetDifference {
+        /** {@code (q1) EXCEPT ALL (q2)}, in both directions. */
+        EXCEPT_ALL,
+        /** a {@code GROUP BY ... HAVING SUM(diff) <> 0} over both results, which requires named columns. */
+        GROUP_BY,
+        /** none, the results are compared on the client. */
+        NONE
+    }
+
+    private static final int MAX_REPORTED_ROWS = 10;
+    private static final String DIFF_COLUMN = "diff";
+    private static final Map<GeneralDatabaseEngineFactory, SetDifference> SET_DIFFERENCES = new ConcurrentHashMap<>();
+
+    /**
+     * Returns how the DBMS under test can compute the difference of two query results, as determined by a probe that
+     * runs once per engine.
+     */
+    public static SetDifference getSetDifference(GeneralGlobalState state) {
+        return SET_DIFFERENCES.computeIfAbsent(state.getDbmsSpecificOptions().getDatabaseEngineFactory(),
+                engine -> probeSetDifference(state.getConnection()));
+    }
+
+    public static SetDifference probeSetDifference(SQLConnection con) {
+        if (probe(con, "(SELECT 1) EXCEPT ALL (SELECT 2)", 1)) {
+            return SetDifference.EXCEPT_ALL;
+        }
+        String union = "SELECT 1 AS v0, 1 AS " + DIFF_COLUMN + " UNION ALL SELECT 1 AS v0, -1 AS " + DIFF_COLUMN;
+        if (probe(con, getGroupByDifferenceQuery(union, List.of("v0")), 0)) {
+            return SetDifference.GROUP_BY;
+        }
+        return SetDifference.NONE;
+    }
+
+    private static boolean probe(SQLConnection con, String query, int expectedRows) {
+        try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery(query)) {
+            int rows = 0;
+            while (rs.next()) {
+                rows++;
+            }
+            return rows == expectedRows;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the queries that fetch the rows of the multiset difference of the two queries. For
+     * {@link SetDifference#EXCEPT_ALL}, these are the rows missing from the second result and the rows missing from
+     * the first result; for {@link SetDifference#GROUP_BY}, a single query fetches both, with a positive last column
+     * for the rows missing from the second result.
+     *
+     * @param columnNames
+     *            the names of the columns of both queries, only needed for {@link SetDifference#GROUP_BY}
+     */
+    public static List<String> getDifferenceQueries(SetDifference setDifference, String firstQueryString,
+            String secondQueryString, List<String> columnNames) {
+        switch (setDifference) {
+        case EXCEPT_ALL:
+            return List.of("(" + firstQueryString + ") EXCEPT ALL (" + secondQueryString + ")",
+                    "(" + secondQueryString + ") EXCEPT ALL (" + firstQueryString + ")");
+        case GROUP_BY:
+            String columns = String.join(", ", columnNames);
+            String union = "SELECT " + columns + ", 1 AS " + DIFF_COLUMN + " FROM (" + firstQueryString
+                    + ") AS first_result UNION ALL SELECT " + columns + ", -1 AS " + DIFF_COLUMN + " FROM ("
+                    + secondQueryString + ") AS second_result";
+            return List.of(getGroupByDifferenceQuery(union, columnNames));
+        default:
+            throw new AssertionError(setDifference);
+        }
+    }
+
+    private static String getGroupByDifferenceQuery(String union, List<String> columnNames) {
+        String columns = String.join(", ", columnNames);
+        return "SELECT " + columns + ", SUM(" + DIFF_COLUMN + ") FROM (" + union + ") AS both_results GROUP BY "
+                + columns + " HAVING SUM(" + DIFF_COLUMN + ") <> 0";
+    }
+
+    /**
+     * Like {@link ComparatorHelper#assumeResultSetsAreEqual}, but the DBMS computes the multiset difference of the
+     * results, so that only differing rows are transferred.
+     *
+     * @return false if the difference could not be computed, in which case the results need to be compared on the
+     *         client
+     * @throws AssertionError
+     *             if the results differ, which is not logged, as callers may want to confirm it on the client first
+     */
+    public static boolean assumeResultSetsAreEqualOnServer(SetDifference setDifference, String originalQueryString,
+            String combinedQueryString, List<String> columnNames, GeneralGlobalState state, ExpectedErrors errors)
+            throws SQLException {
+        List<String> queries = getDifferenceQueries(setDifference, originalQueryString, combinedQueryString,
+                columnNames);
+        // as on the client, the rows of each result that the other result lacks
+        List<String> originalOnly = new ArrayList<>();
+        List<String> combinedOnly = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            if (state.getOptions().logEachSelect()) {
+                state.getLogger().writeCurrent(queries.get(i));
+            }
+            try (SQLancerResultSet rs = new SQLQueryAdapter(queries.get(i), errors).executeAndGet(state)) {
+                if (rs == null) {
+                    return false;
+                }
+                while (rs.next() && originalOnly.size() + combinedOnly.size() < MAX_REPORTED_ROWS) {
+                    boolean inOriginal = setDifference == SetDifference.GROUP_BY
+                            ? rs.getLong(columnNames.size() + 1) > 0 : i == 0;
+                    (inOriginal ? originalOnly : combinedOnly).add(rs.getString(1));
+                }
+            } catch (SQLException e) {
+                // e.g., a column type without equality, which the comparison on the client does not need
+                return false;
+            }
+        }
+        if (!originalOnly.isEmpty() || !combinedOnly.isEmpty()) {
+            String queryFormatString = "\"%s\"; It misses: \"%s\"";
+            throw new AssertionError(String.format("The content of the result sets mismatch!"
+                    + System.lineSeparator() + "First query : " + queryFormatString + System.lineSeparator()
+                    + "Second query: " + queryFormatString, originalQueryString, originalOnly, combinedQueryString,
+                    combinedOnly));
+        }
+        return true;
+    }
+
     private static List<String> executeWithIndexedView(
             String queryString,
             ExpectedErrors errors,
@@ -4,11 +4,13 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import com.opencsv.CSVParser;
@@ -60,6 +62,7 @@ public class GeneralErrorHandler implements ErrorHandler {
 
     private final GeneratorInfoTable generatorTable;
     private GeneratorInfo generatorInfo;
+    private final BooleanSupplier statementTimedOut;
 
     // expression depth for each DATABASE --> it is thread unique parameter
     // TODO concurrent
@@ -69,6 +72,7 @@ public class GeneralErrorHandler implements ErrorHandler {
         private final Map<GeneralFragmentChoice, Integer> fragmentScore;
         private boolean status;
         private boolean isQuery;
+        private boolean timedOut;
 
         public GeneratorInfo() {
             this.generatorScore = new HashMap<>();
@@ -108,6 +112,15 @@ public class GeneralErrorHandler implements ErrorHandler {
             }
         }
 
+        /**
+         * Adds the scores of the other instance to this one.
+         */
+        public void addScores(GeneratorInfo other) {
+            other.generatorScore.forEach((k, v) -> generatorScore.merge(k, v, Integer::sum));
+            other.compositeGeneratorScore.forEach((k, v) -> compositeGeneratorScore.merge(k, v, Integer::sum));
+            other.fragmentScore.forEach((k, v) -> fragmentScore.merge(k, v, Integer::sum));
+        }
+
         public boolean getStatus() {
             return status;
         }
@@ -124,6 +137,18 @@ public class GeneralErrorHandler implements ErrorHandler {
             this.status = status;
         }
 
+        /**
+         * Whether the statement failed because the statement watchdog canceled it. Such statements count as failed, so
+         * that the options that lead to runaway statements are chosen less often.
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public void setTimedOut(boolean timedOut) {
+            this.timedOut = timedOut;
+        }
+
         @Override
         public String toString() {
             return "GeneratorInfo [generatorScore=" + generatorScore + ", status=" + status + "]";
@@ -254,7 +279,12 @@ public class GeneralErrorHandler implements ErrorHandler {
         return execDatabaseNum;
     }
 
-    public GeneralErrorHandler() {
+    /**
+     * @param statementTimedOut
+     *            returns whether a statement of the state timed out since it was last asked
+     */
+    public GeneralErrorHandler(BooleanSupplier statementTimedOut) {
+        this.statementTimedOut = statementTimedOut;
         this.generatorTable = new GeneratorInfoTable();
         this.generatorInfo = new GeneratorInfo();
         if (generatorOptions.isEmpty()) {
@@ -421,9 +451,19 @@ public class GeneralErrorHandler implements ErrorHandler {
         return generatorInfo;
     }
 
-    // public void loadGeneratorInfo(GeneratorInfo info) {
-    // this.generatorInfo = info;
-    // }
+    /**
+     * Returns the scores collected since the last {@link #appendScoreToTable} and starts collecting anew, so that the
+     * scores of several expressions generated in a row can be appended separately with {@link #loadGeneratorInfo}.
+     */
+    public GeneratorInfo takeGeneratorInfo() {
+        GeneratorInfo info = generatorInfo;
+        generatorInfo = new GeneratorInfo();
+        return info;
+    }
+
+    public void loadGeneratorInfo(GeneratorInfo info) {
+        this.generatorInfo = info;
+    }
 
     public void addScore(GeneratorNode generatorName) {
         Map<GeneratorNode, Integer> score = generatorInfo.getGeneratorScore();
@@ -473,6 +513,10 @@ public class GeneralErrorHandler implements ErrorHandler {
         return generatorTable.getLastGeneratorScore();
     }
 
+    public List<GeneratorInfo> getGeneratorInfos() {
+        return Collections.unmodifiableList(generatorTable.getGeneratorTable());
+    }
+
     public void appendScoreToTable(boolean status, boolean isQuery, String sql) {
         if (status) {
             setExample(generatorInfo, sql);
@@ -483,6 +527,8 @@ public class GeneralErrorHandler implements ErrorHandler {
     public void appendScoreToTable(boolean status, boolean isQuery) {
         setExecutionStatus(status);
         generatorInfo.setQuery(isQuery);
+        boolean timedOut = statementTimedOut.getAsBoolean();
+        generatorInfo.setTimedOut(!status && timedOut);
         generatorTable.add(generatorInfo);
         generatorInfo = new GeneratorInfo();
     }
@@ -506,6 +552,8 @@ public class GeneralErrorHandler implements ErrorHandler {
         // successGeneratorTable
         // HashMap<GeneratorNode, Double> average = getAverageScore(generatorTable);
         System.out.println("Total queries: " + generatorTable.getGeneratorTable().size());
+        System.out.println("Timed out statements and queries: "
+                + generatorTable.getGeneratorTable().stream().filter(GeneratorInfo::isTimedOut).count());
         // System.out.println("Average: " + average);
 
         // HashMap<String, Double> compositeAverage =
@@ -0,0 +1,132 @@
+package sqlancer.general;
+
+import java.util.Map;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.common.ast.newast.NewBinaryOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPostfixOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPrefixOperatorNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.ast.GeneralColumnReference;
+import sqlancer.general.ast.GeneralConstant.GeneralBooleanConstant;
+import sqlancer.general.ast.GeneralConstant.GeneralIntConstant;
+import sqlancer.general.ast.GeneralConstant.GeneralNullConstant;
+import sqlancer.general.ast.GeneralConstant.GeneralTextConstant;
+import sqlancer.general.ast.GeneralExpression;
+
+/**
+ * Computes the value of an expression for given column values on the client, as needed by pivoted query synthesis.
+ *
+ * Only the expressions whose semantics all DBMSs agree on are supported: integer and boolean values, comparisons of
+ * integers, NOT, AND, OR, IS NULL and IS NOT NULL, all with the three-valued logic of SQL. Values are represented as
+ * {@link Long}, {@link Boolean} and {@link String}, and NULL as null.
+ */
+public final class GeneralExpressionEvaluator {
+
+    private GeneralExpressionEvaluator() {
+    }
+
+    /**
+     * @throws IgnoreMeException
+     *             if the expression contains a node that cannot be evaluated
+     */
+    public static Object evaluate(Node<GeneralExpression> expr, Map<GeneralColumn, Object> values) {
+        if (expr instanceof GeneralColumnReference) {
+            GeneralColumn column = ((GeneralColumnReference) expr).getColumn();
+            if (!values.containsKey(column)) {
+                throw new IgnoreMeException();
+            }
+            return values.get(column);
+        } else if (expr instanceof GeneralNullConstant) {
+            return null;
+        } else if (expr instanceof GeneralIntConstant) {
+            return ((GeneralIntConstant) expr).getValue();
+        } else if (expr instanceof GeneralBooleanConstant) {
+            return ((GeneralBooleanConstant) expr).getValue();
+        } else if (expr instanceof GeneralTextConstant) {
+            return ((GeneralTextConstant) expr).getValue();
+        } else if (expr instanceof NewUnaryPrefixOperatorNode) {
+            NewUnaryPrefixOperatorNode<GeneralExpression> op = (NewUnaryPrefixOperatorNode<GeneralExpression>) expr;
+            if (!"NOT".equals(op.getOperatorRepresentation())) {
+                throw new IgnoreMeException();
+            }
+            Boolean value = asBoolean(evaluate(op.getExpr(), values));
+            return value == null ? null : !value;
+        } else if (expr instanceof NewUnaryPostfixOperatorNode) {
+            NewUnaryPostfixOperatorNode<GeneralExpression> op = (NewUnaryPostfixOperatorNode<GeneralExpression>) expr;
+            Object value = evaluate(op.getExpr(), values);
+            switch (op.getOperatorRepresentation()) {
+            case "IS NULL":
+                return value == null;
+            case "IS NOT NULL":
+                return value != null;
+            default:
+                throw new IgnoreMeException();
+            }
+        } else if (expr instanceof NewBinaryOperatorNode) {
+            NewBinaryOperatorNode<GeneralExpression> op = (NewBinaryOperatorNode<GeneralExpression>) expr;
+            return evaluateBinary(op.getOperatorRepresentation(), evaluate(op.getLeft(), values),
+                    evaluate(op.getRight(), values));
+        }
+        throw new IgnoreMeException();
+    }
+
+    private static Object evaluateBinary(String op, Object left, Object right) {
+        switch (op) {
+        case "AND": {
+            Boolean l = asBoolean(left);
+            Boolean r = asBoolean(right);
+            if (Boolean.FALSE.equals(l) || Boolean.FALSE.equals(r)) {
+                return false;
+            }
+            return l == null || r == null ? null : true;
+        }
+        case "OR": {
+            Boolean l = asBoolean(left);
+            Boolean r = asBoolean(right);
+            if (Boolean.TRUE.equals(l) || Boolean.TRUE.equals(r)) {
+                return true;
+            }
+            return l == null || r == null ? null : false;
+        }
+        default:
+            break;
+        }
+        if (left == null || right == null) {
+            if (!(left == null || left instanceof Long) || !(right == null || right instanceof Long)) {
+                throw new IgnoreMeException();
+            }
+            return null;
+        }
+        if (!(left instanceof Long) || !(right instanceof Long)) {
+            throw new IgnoreMeException();
+        }
+        int comparison = Long.compare((Long) left, (Long) right);
+        switch (op) {
+        case "=":
+            return comparison == 0;
+        case "!=":
+        case "<>":
+            return comparison != 0;
+        case "<":
+            return comparison < 0;
+        case "<=":
+            return comparison <= 0;
+        case ">":
+            return comparison > 0;
+        case ">=":
+            return comparison >= 0;
+        default:
+            throw new IgnoreMeException();
+        }
+    }
+
+    private static Boolean asBoolean(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new IgnoreMeException();
+    }
+
+}
@@ -11,6 +11,7 @@ import sqlancer.general.GeneralSchema.GeneralCompositeDataType;
 import sqlancer.general.ast.GeneralBinaryOperator;
 import sqlancer.general.ast.GeneralFunction;
 import sqlancer.general.learner.GeneralFragments;
+import sqlancer.general.learner.GeneralLearningService;
 
 public class GeneralLearningManager {
 
@@ -57,6 +58,13 @@ public class GeneralLearningManager {
         return GeneralCompositeDataType.getByName(curTopic);
     }
 
+    /**
+     * Takes over the current topic of the manager of another state, e.g., of the worker a learning job belongs to.
+     */
+    public void inheritTopic(GeneralLearningManager other) {
+        curTopic = other.curTopic;
+    }
+
     public void setTopic(String databaseName, String topic) {
         topics.put(databaseName, topic);
         topicPool.put(topic, true);
@@ -74,6 +82,12 @@ public class GeneralLearningManager {
         return topicPool;
     }
 
+    private static void learnTopic(GeneralFragments fragments, GeneralGlobalState globalState, String topic) {
+        fragments.learnSpecificTopicFromLearner(globalState, topic);
+        GeneralFunction.loadFunctionsFromFragments(globalState);
+        GeneralBinaryOperator.loadOperatorsFromFragments(globalState);
+    }
+
     private synchronized void initializeTopicPool(GeneralFragments fragments) {
         if (topicPool.isEmpty()) {
             for (String topic : fragments.getFragments().keySet()) {
@@ -121,9 +135,16 @@ public class GeneralLearningManager {
             curTopic = topic;
             // globalState.getHandler().setCompositeOption(topic, true);
             // learn the topic
-            fragments.learnSpecificTopicFromLearner(globalState, topic);
-            GeneralFunction.loadFunctionsFromFragments(globalState);
-            GeneralBinaryOperator.loadOperatorsFromFragments(globalState);
+            if (globalState.getDbmsSpecificOptions().asyncLearning) {
+                // keep fuzzing with the current fragments; the learned ones are published when the job finishes
+                GeneralGlobalState learnerState = globalState.createLearnerState();
+                GeneralLearningService.getInstance().submit("TOPIC-" + topic, () -> {
+                    learnerState.getRandomly().bindToCurrentThread();
+                    learnTopic(fragments, learnerState, topic);
+                });
+            } else {
+                learnTopic(fragments, globalState, topic);
+            }
             // System.out.println(GeneralFunction.getFuncNames());
             // System.out.println(GeneralBinaryOperator.getOperators());
             // globalState.getHandler().setCurDepth(globalState.getDatabaseName(), 2);
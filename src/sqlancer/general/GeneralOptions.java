@@ -8,6 +8,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.duckdb.DuckDBConnection;
+
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 
@@ -18,7 +20,13 @@ import sqlancer.common.oracle.CompositeTestOracle;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.general.GeneralProvider.GeneralGlobalState;
 import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.learner.GeneralFragmentFileCache;
+import sqlancer.general.learner.GeneralLearnerCache;
+import sqlancer.general.oracle.GeneralCERTOracle;
 import sqlancer.general.oracle.GeneralNoRECOracle;
+import sqlancer.general.oracle.GeneralPivotedQuerySynthesisOracle;
+import sqlancer.general.oracle.GeneralQueryPartitioningAggregate;
+import sqlancer.general.oracle.GeneralQueryPartitioningDistinct;
 import sqlancer.general.oracle.GeneralQueryPartitioningWhere;
 
 @Parameters(commandDescription = "General")
@@ -75,6 +83,54 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
     @Parameter(names = "--enable-direct-validation", description = "Enable direct validation", arity = 1)
     public boolean enableDirectValidation;
 
+    @Parameter(names = "--parallel-fragment-loading", description = "Load the fragment config files in parallel at startup", arity = 1)
+    public boolean parallelFragmentLoading = true;
+
+    @Parameter(names = "--fragment-cache-directory", description = "The directory in which the parsed fragment config files are cached (empty = no cache)", arity = 1)
+    public String fragmentCacheDirectory = GeneralFragmentFileCache.DEFAULT_DIRECTORY.getPath();
+
+    @Parameter(names = "--async-learning", description = "Learn new fragments on a background thread instead of blocking the fuzzing threads", arity = 1)
+    public boolean asyncLearning = true;
+
+    @Parameter(names = "--use-learner-cache", description = "Cache learner responses and fragments under --learner-cache-directory", arity = 1)
+    public boolean useLearnerCache = true;
+
+    @Parameter(names = "--learner-cache-directory", description = "The directory of the learner cache", arity = 1)
+    public String learnerCacheDirectory = GeneralLearnerCache.DEFAULT_DIRECTORY.getPath();
+
+    @Parameter(names = "--learner-cache-ttl-hours", description = "Hours after which a cached learner result expires (0 = never)", arity = 1)
+    public int learnerCacheTtlHours = 24 * 7;
+
+    @Parameter(names = "--learner-cache-max-entries", description = "The maximum number of files kept in the learner cache (0 = unbounded)", arity = 1)
+    public int learnerCacheMaxEntries = 1000;
+
+    @Parameter(names = "--learner-chat-url", description = "The chat completion endpoint used by the learner (e.g., a local stand-in server)", arity = 1)
+    public String learnerChatUrl = "https://api.openai.com/v1/chat/completions";
+
+    @Parameter(names = "--learner-model", description = "The chat model used by the learner", arity = 1)
+    public String learnerModel = "gpt-4o";
+
+    @Parameter(names = "--max-cross-product-rows", description = "Oracles drop tables from the FROM clause while the estimated size of the cross product of the tables exceeds this number (0 = no limit)", arity = 1)
+    public long maxCrossProductRows = 1_000_000;
+
+    @Parameter(names = "--norec-predicates", description = "The number of predicates that NoREC checks on the same FROM clause, with a single scan for the unoptimized queries of all of them", arity = 1)
+    public int norecPredicates = 1;
+
+    @Parameter(names = "--tlp-predicates", description = "The number of predicates whose partitions TLP compares with the same result of the original query", arity = 1)
+    public int tlpPredicates = 1;
+
+    @Parameter(names = "--tlp-aggregate-checks", description = "The number of aggregate TLP checks, which fetch at most three rows, that QUERY_PARTITIONING runs after each TLP check that fetches whole results", arity = 1)
+    public int tlpAggregateChecks = 1;
+
+    @Parameter(names = "--tlp-sibling-connections", description = "The number of additional connections to the database over which TLP distributes the original query and the partitions, which are then fetched concurrently (0 = fetch them one after another on the main connection)", arity = 1)
+    public int tlpSiblingConnections;
+
+    @Parameter(names = "--multi-statement-groups", description = "Send the queries of a TLP or NoREC check as a single request of several statements, if the driver returns a result set per statement (e.g., MySQL with allowMultiQueries=true)", arity = 1)
+    public boolean multiStatementGroups;
+
+    @Parameter(names = "--server-side-comparison", description = "Let the DBMS compute the difference of the results that TLP compares, with EXCEPT ALL or GROUP BY, instead of fetching both results", arity = 1)
+    public boolean serverSideComparison;
+
     @Parameter(names = "--auto-index-selects", description = "Create an indexed view for each SELECT query and query through the view", arity = 1)
     public boolean autoIndexSelects;
 
@@ -93,11 +149,43 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 return new GeneralQueryPartitioningWhere(globalState);
             }
         },
+        CERT {
+            @Override
+            public TestOracle<GeneralGlobalState> create(GeneralGlobalState globalState) throws SQLException {
+                return new GeneralCERTOracle(globalState);
+            }
+        },
+        AGGREGATE {
+            @Override
+            public TestOracle<GeneralGlobalState> create(GeneralGlobalState globalState) throws SQLException {
+                return new GeneralQueryPartitioningAggregate(globalState);
+            }
+        },
+        DISTINCT {
+            @Override
+            public TestOracle<GeneralGlobalState> create(GeneralGlobalState globalState) throws SQLException {
+                return new GeneralQueryPartitioningDistinct(globalState);
+            }
+        },
+        PQS {
+            @Override
+            public TestOracle<GeneralGlobalState> create(GeneralGlobalState globalState) throws SQLException {
+                return new GeneralPivotedQuerySynthesisOracle(globalState);
+            }
+        },
         QUERY_PARTITIONING {
             @Override
             public TestOracle<GeneralGlobalState> create(GeneralGlobalState globalState) throws SQLException {
                 List<TestOracle<GeneralGlobalState>> oracles = new ArrayList<>();
-                oracles.add(new GeneralQueryPartitioningWhere(globalState));
+                TestOracle<GeneralGlobalState> aggregate = new GeneralQueryPartitioningAggregate(globalState);
+                // the cheap aggregate checks are interleaved with the ones that fetch whole results
+                for (TestOracle<GeneralGlobalState> oracle : List.of(new GeneralQueryPartitioningWhere(globalState),
+                        new GeneralQueryPartitioningDistinct(globalState))) {
+                    oracles.add(oracle);
+                    for (int i = 0; i < globalState.getDbmsSpecificOptions().tlpAggregateChecks; i++) {
+                        oracles.add(aggregate);
+                    }
+                }
                 return new CompositeTestOracle<GeneralGlobalState>(oracles, globalState);
             }
         };
@@ -158,6 +246,15 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                     // ignore
                 }
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("set query_mode to local;");
+                }
+                return conn;
+            }
         },
         // Special case: file-based database with system property support
         DUCKDB {
@@ -176,6 +273,18 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                     throws SQLException {
                 return DriverManager.getConnection(getJDBCString(globalState));
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                // an in-memory database is private to a connection and its duplicates, and a file can only be opened
+                // once per process
+                return globalState.getConnection().unwrap(DuckDBConnection.class).duplicate();
+            }
+
+            @Override
+            public boolean supportsTransactionalDdl() {
+                return true;
+            }
         },
         POSTGRESQL {
             @Override
@@ -199,6 +308,26 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 }
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("set statement_timeout to 5000;");
+                }
+                return conn;
+            }
+
+            @Override
+            public boolean estimatesOuterJoinsAndCrossProducts() {
+                // the estimate of an outer join is at least the larger of the inner join and the preserved side
+                return true;
+            }
+
+            @Override
+            public boolean supportsTransactionalDdl() {
+                return true;
+            }
         },
         MATERIALIZE {
             @Override
@@ -231,6 +360,18 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 }
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("set cluster = quickstart");
+                    s.execute("set database = " + globalState.getDatabaseName());
+                    s.execute("set auto_route_introspection_queries = false");
+                    s.execute("set statement_timeout = 5000;");
+                }
+                return conn;
+            }
         },
         COCKROACHDB {
             @Override
@@ -254,6 +395,15 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                         .logStatement("SET CLUSTER SETTING diagnostics.reporting.send_crash_reports = false;");
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("USE " + globalState.getDatabaseName());
+                }
+                return conn;
+            }
         },
         TIDB,
         // Special case: file-based in-memory database with dynamic database name
@@ -269,6 +419,17 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                     throws SQLException {
                 return DriverManager.getConnection(getJDBCString(globalState));
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                // the in-memory database is private to the connection
+                return null;
+            }
+
+            @Override
+            public boolean supportsTransactionalDdl() {
+                return true;
+            }
         },
         UMBRA {
             @Override
@@ -292,6 +453,15 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 }
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("set debug.storage = 'P';");
+                }
+                return conn;
+            }
         },
         MARIADB,
         IMMUDB,
@@ -334,6 +504,11 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 conn = DriverManager.getConnection(getJDBCString(globalState));
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                return DriverManager.getConnection(getJDBCString(globalState));
+            }
         },
         CLICKHOUSE {
             @Override
@@ -382,6 +557,15 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 }
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("USE " + globalState.getDatabaseName());
+                }
+                return conn;
+            }
         },
         PRESTO {
             @Override
@@ -412,6 +596,17 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 }
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                if (isNewSchema()) {
+                    try (Statement s = conn.createStatement()) {
+                        s.execute("USE MEMORY." + globalState.getDatabaseName());
+                    }
+                }
+                return conn;
+            }
         },
         ORACLE,
         CEDARDB {
@@ -436,9 +631,19 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
                 }
                 return conn;
             }
+
+            @Override
+            public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+                Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+                try (Statement s = conn.createStatement()) {
+                    s.execute("SET implicit_cross_products = ON;");
+                }
+                return conn;
+            }
         },
         OCEANBASE;
 
+
         private boolean isNewSchema = true;
 
         /**
@@ -463,6 +668,55 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
             this.isNewSchema = isNewSchema;
         }
 
+        /**
+         * Returns the number of rows that are fetched per round trip, as configured by the fetchSize property, or 0 to
+         * leave it to the driver. Fetching in chunks is opt-in: the PostgreSQL driver then fetches through a cursor,
+         * which needs a transaction around each query and thus two further round trips, and which some of the engines
+         * reached through it restrict.
+         */
+        public int getFetchSize() {
+            String fetchSize = GeneralJdbcConfigLoader.getProperty(name(), "fetchSize");
+            return fetchSize.isEmpty() ? 0 : Integer.parseInt(fetchSize.trim());
+        }
+
+        /**
+         * The PostgreSQL driver ignores the fetch size in auto-commit mode.
+         */
+        public boolean cursorNeedsTransaction() {
+            return usesPostgresDriver();
+        }
+
+        private boolean usesPostgresDriver() {
+            return GeneralJdbcConfigLoader.getProperty(name(), "url").startsWith("jdbc:postgresql:");
+        }
+
+        /**
+         * Returns whether a backslash escapes the next character of a string literal, as in the engines reached through
+         * the MySQL and MariaDB drivers.
+         */
+        public boolean usesBackslashEscapes() {
+            String url = GeneralJdbcConfigLoader.getProperty(name(), "url");
+            return url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:");
+        }
+
+        /**
+         * Returns whether the row estimates of EXPLAIN model outer joins and cross products, so that an outer join is
+         * estimated at least as large as the inner join with the same condition, and a filter on a cross product
+         * never increases its estimate. CERT only tests queries with a single table or inner joins on the other
+         * engines, whose estimates of such queries would otherwise only show their known estimator behavior.
+         */
+        public boolean estimatesOuterJoinsAndCrossProducts() {
+            return false;
+        }
+
+        /**
+         * Returns whether CREATE TABLE and the like are rolled back with the transaction that runs them, so that the
+         * fragment validator can reuse a scratch database for all candidates rather than setting it up for each.
+         */
+        public boolean supportsTransactionalDdl() {
+            return false;
+        }
+
         public String getDropTableStatement(String tableName) {
             return String.format("DROP TABLE %s", tableName);
         }
@@ -496,6 +750,23 @@ public class GeneralOptions implements DBMSSpecificOptions<GeneralOptions.Genera
             return conn;
         }
 
+        /**
+         * Opens another connection to the database under test, on which oracles can run queries concurrently with the
+         * main connection. The session settings that the queries depend on, such as the current database, are applied
+         * as in {@link #cleanOrSetUpDatabase}.
+         *
+         * @return null if the database cannot be reached from another connection
+         */
+        public Connection openSiblingConnection(GeneralGlobalState globalState) throws SQLException {
+            Connection conn = DriverManager.getConnection(getJDBCString(globalState));
+            if (isNewSchema) {
+                try (Statement s = conn.createStatement()) {
+                    s.execute("USE " + globalState.getDatabaseName());
+                }
+            }
+            return conn;
+        }
+
         @Override
         public void syncData(GeneralGlobalState globalState) throws SQLException {
         }
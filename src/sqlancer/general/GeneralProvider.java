@@ -1,11 +1,9 @@
 package sqlancer.general;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -13,6 +11,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.auto.service.AutoService;
 
@@ -26,30 +29,46 @@ import sqlancer.Reproducer;
 import sqlancer.SQLConnection;
 import sqlancer.SQLGlobalState;
 import sqlancer.SQLProviderAdapter;
+import sqlancer.StateToReproduce;
 import sqlancer.StatementExecutor;
+import sqlancer.common.gen.ExpressionGenerator;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.StatementKind;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.SQLQueryAdapter;
 import sqlancer.common.query.SQLQueryProvider;
-import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.SQLScriptReader;
 import sqlancer.general.GeneralErrorHandler.GeneratorNode;
 import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralSchema.GeneralColumn;
 import sqlancer.general.GeneralSchema.GeneralTable;
 import sqlancer.general.ast.GeneralBinaryOperator;
 import sqlancer.general.ast.GeneralFunction;
 import sqlancer.general.gen.GeneralAlterTableGenerator;
 import sqlancer.general.gen.GeneralDeleteGenerator;
+import sqlancer.general.gen.GeneralExpressionGenerator;
 import sqlancer.general.gen.GeneralIndexGenerator;
 import sqlancer.general.gen.GeneralInsertGenerator;
 import sqlancer.general.gen.GeneralStatementGenerator;
 import sqlancer.general.gen.GeneralTableGenerator;
+import sqlancer.general.gen.GeneralTypedExpressionGenerator;
 import sqlancer.general.gen.GeneralUpdateGenerator;
 import sqlancer.general.gen.GeneralViewGenerator;
 import sqlancer.general.learner.GeneralFragments;
+import sqlancer.general.learner.GeneralLearningService;
 
 @AutoService(DatabaseProvider.class)
 public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralGlobalState, GeneralOptions> {
 
+    private static final long REPRODUCE_PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+    // shared by the threads that initialize the features of their database
+    private static final ExecutorService FRAGMENT_LOADER_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sqlancer-fragment-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
     // QPG mutation operators
     private enum QPGMutator {
         INSERT, DELETE, UPDATE
@@ -121,10 +140,17 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
 
     public static class GeneralGlobalState extends SQLGlobalState<GeneralOptions, GeneralSchema> {
         private GeneralSchema schema = new GeneralSchema(new ArrayList<>());
-        private final GeneralErrorHandler handler = new GeneralErrorHandler();
+        private final GeneralErrorHandler handler = new GeneralErrorHandler(this::takeStatementTimeout);
         private final GeneralLearningManager manager = new GeneralLearningManager();
         private GeneralTable updateTable;
         private boolean creatingDatabase; // is currently creating database
+        // reusable generators; a nested request while an instance is in use (e.g., from a fragment variable) gets a
+        // fresh instance
+        private GeneralTypedExpressionGenerator typedGenerator;
+        private boolean typedGeneratorInUse;
+        private GeneralExpressionGenerator untypedGenerator;
+        private boolean untypedGeneratorInUse;
+        private boolean siblingConnectionsOpened;
 
         private final Map<String, String> testObjectMap = new HashMap<>();
 
@@ -169,7 +195,11 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
         }
 
         public void setSchema(List<GeneralTable> tables) {
-            this.schema = new GeneralSchema(tables);
+            this.schema = schema.withTables(tables);
+        }
+
+        public void removeTable(String tableName) {
+            this.schema = schema.withoutTable(tableName);
         }
 
         public void setUpdateTable(GeneralTable updateTable) {
@@ -180,6 +210,89 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
             return updateTable;
         }
 
+        public GeneralTypedExpressionGenerator acquireTypedExpressionGenerator(List<GeneralColumn> columns) {
+            if (typedGeneratorInUse) {
+                return new GeneralTypedExpressionGenerator(this).setColumns(columns);
+            }
+            if (typedGenerator == null) {
+                typedGenerator = new GeneralTypedExpressionGenerator(this);
+            }
+            typedGeneratorInUse = true;
+            return typedGenerator.reset(columns);
+        }
+
+        public GeneralExpressionGenerator acquireUntypedExpressionGenerator(List<GeneralColumn> columns) {
+            if (untypedGeneratorInUse) {
+                return new GeneralExpressionGenerator(this).setColumns(columns);
+            }
+            if (untypedGenerator == null) {
+                untypedGenerator = new GeneralExpressionGenerator(this);
+            }
+            untypedGeneratorInUse = true;
+            return untypedGenerator.reset(columns);
+        }
+
+        /**
+         * Returns a generator obtained by one of the acquire methods; fresh instances are simply dropped.
+         */
+        public void releaseExpressionGenerator(ExpressionGenerator<?> generator) {
+            if (generator == typedGenerator) {
+                typedGeneratorInUse = false;
+            } else if (generator == untypedGenerator) {
+                untypedGeneratorInUse = false;
+            }
+        }
+
+        /**
+         * Returns the additional connections to the database, which are opened on the first call. There are fewer than
+         * configured if the engine does not support them, or if they could not be opened.
+         */
+        public List<SQLConnection> getSiblingConnections() {
+            if (!siblingConnectionsOpened) {
+                siblingConnectionsOpened = true;
+                GeneralDatabaseEngineFactory factory = getDbmsSpecificOptions().getDatabaseEngineFactory();
+                try {
+                    for (int i = 0; i < getDbmsSpecificOptions().tlpSiblingConnections; i++) {
+                        Connection conn = factory.openSiblingConnection(this);
+                        if (conn == null) {
+                            break;
+                        }
+                        SQLConnection sibling = new SQLConnection(conn);
+                        sibling.setFetchSize(factory.getFetchSize(), factory.cursorNeedsTransaction());
+                        getConnection().addSibling(sibling);
+                    }
+                } catch (SQLException e) {
+                    // the queries are distributed over the connections that could be opened
+                }
+            }
+            return getConnection().getSiblings();
+        }
+
+        /**
+         * Returns a state for a job of the learning service. It has a random stream that is split from this state's, a
+         * handler and a learning manager of its own, and the current schema, so that the job, which generates the
+         * learning sketch on another thread, neither draws from nor modifies the state of this worker.
+         */
+        public GeneralGlobalState createLearnerState() {
+            GeneralGlobalState learnerState = new GeneralGlobalState();
+            learnerState.setMainOptions(getOptions());
+            learnerState.setDbmsSpecificOptions(getDbmsSpecificOptions());
+            learnerState.setStateLogger(getLogger());
+            learnerState.setDatabaseName(getDatabaseName());
+            learnerState.setState(new StateToReproduce(getDatabaseName(), new GeneralProvider()));
+            learnerState.setRandomly(getRandomly().split());
+            // split() binds the new stream to the calling thread, which keeps generating with this state
+            getRandomly().bindToCurrentThread();
+            learnerState.schema = schema;
+            learnerState.manager.inheritTopic(manager);
+            return learnerState;
+        }
+
+        private boolean takeStatementTimeout() {
+            SQLConnection con = getConnection();
+            return con != null && con.takeTimeout();
+        }
+
         public boolean getCreatingDatabase() {
             return creatingDatabase;
         }
@@ -191,20 +304,7 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
         @Override
         public void updateSchema() {
             if (updateTable != null) {
-                List<GeneralTable> databaseTables = new ArrayList<>(schema.getDatabaseTables());
-                boolean found = false;
-                // substitute or add the table with the new one according to getName
-                for (int i = 0; i < databaseTables.size(); i++) {
-                    if (databaseTables.get(i).getName().equals(updateTable.getName())) {
-                        databaseTables.set(i, updateTable);
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    databaseTables.add(updateTable);
-                }
-                setSchema(databaseTables);
+                schema = schema.withTable(updateTable);
             }
             updateTable = null;
         }
@@ -258,7 +358,18 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
                     // randomly pick one of the fragment to update by LLM
                     GeneralFragments f = Randomly.fromOptions(GeneralTableGenerator.getFragments(),
                             GeneralIndexGenerator.getFragments(), GeneralStatementGenerator.getFragments());
-                    f.updateFragmentsFromLearner(this);
+                    if (getDbmsSpecificOptions().asyncLearning) {
+                        GeneralGlobalState learnerState = createLearnerState();
+                        GeneralLearningService.getInstance().submit(f.getStatementType(), () -> {
+                            learnerState.getRandomly().bindToCurrentThread();
+                            f.updateFragmentsFromLearner(learnerState);
+                        });
+                    } else {
+                        f.updateFragmentsFromLearner(this);
+                    }
+                }
+                if (getOptions().debugLogs()) {
+                    System.out.println(GeneralLearningService.getInstance());
                 }
             }
             if (getDbmsSpecificOptions().enableErrorHandling) {
@@ -316,29 +427,6 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
             }
         }
 
-        public boolean checkIfQueriesAreValid(GeneralGlobalState globalState, List<String> queries,
-                String databaseName) {
-            GeneralDatabaseEngineFactory databaseEngine = globalState.getDbmsSpecificOptions()
-                    .getDatabaseEngineFactory();
-            try (Connection conn = DriverManager.getConnection(databaseEngine.getJDBCString(globalState))) {
-                try (Statement s = conn.createStatement()) {
-                    s.execute("DROP TABLE " + databaseName);
-                } catch (SQLException e) {
-                    // do nothing
-                }
-                Statement stmt = conn.createStatement();
-                for (String query : queries) {
-                    stmt.addBatch(query);
-                }
-                stmt.executeBatch();
-            } catch (SQLException e) {
-                // TODO Auto-generated catch block
-                // System.out.println("Error: " + e.getMessage());
-                return false;
-            }
-            return true;
-        }
-
     }
 
     // TODO: we might need another method to check if there's any data in the table
@@ -346,51 +434,28 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
     protected void checkViewsAreValid(GeneralGlobalState globalState) {
         List<GeneralTable> views = globalState.getSchema().getViews();
         for (GeneralTable view : views) {
-            SQLQueryAdapter q = new SQLQueryAdapter("SELECT * FROM " + view.getName(), new ExpectedErrors(), false,
-                    globalState.getOptions().canonicalizeSqlString());
-            try {
-                if (!q.execute(globalState)) {
-                    dropView(globalState, view.getName());
-                }
-            } catch (Throwable t) {
+            // fetching a single row is enough to find views that fail at query time; fall back to the full query for
+            // DBMSs without LIMIT
+            if (!isValidQuery(globalState, "SELECT * FROM " + view.getName() + " LIMIT 1")
+                    && !isValidQuery(globalState, "SELECT * FROM " + view.getName())) {
                 dropView(globalState, view.getName());
             }
         }
-        String sb = "SELECT COUNT(*) FROM ";
-        List<GeneralTable> databaseTables = globalState.getSchema().getDatabaseTables();
-        // Select all the tables using cross join
-        for (int i = 0; i < databaseTables.size(); i++) {
-            sb += databaseTables.get(i).getName();
-            if (i != databaseTables.size() - 1) {
-                sb += ", ";
-            }
+        GeneralCardinalityStats.collect(globalState);
+        if (globalState.getOptions().debugLogs()) {
+            System.out.println("Estimated join table size: " + GeneralCardinalityStats
+                    .estimateCrossProductRows(globalState.getSchema().getDatabaseTablesWithoutViews()));
+            globalState.getSchema().printTables();
         }
-        // check if query result is larger than 1000 rows
-        SQLQueryAdapter q2 = new SQLQueryAdapter(sb, new ExpectedErrors(), false,
+    }
+
+    private static boolean isValidQuery(GeneralGlobalState globalState, String query) {
+        SQLQueryAdapter q = new SQLQueryAdapter(query, new ExpectedErrors(), false,
                 globalState.getOptions().canonicalizeSqlString());
-        SQLancerResultSet resultSet;
         try {
-            resultSet = q2.executeAndGet(globalState);
-            globalState.getLogger().writeCurrent(sb);
-            // check if the result is larger than 100K
-            while (resultSet.next()) {
-                if (globalState.getOptions().debugLogs()) {
-                    System.out.println("Join table size: " + resultSet.getLong(1));
-                }
-                // if (resultSet.getLong(1) > 5000) {
-                //     // drop all the views
-                //     globalState.getLogger().writeCurrent("-- size:" + resultSet.getLong(1));
-                //     System.out.println("Join table size exceeds 10000, dropping all views");
-                //     for (GeneralTable view : views) {
-                //         dropView(globalState, view.getName());
-                //     }
-                // }
-            }
+            return q.execute(globalState);
         } catch (Throwable t) {
-            throw new AssertionError(t);
-        }
-        if (globalState.getOptions().debugLogs()) {
-            globalState.getSchema().printTables();
+            return false;
         }
     }
 
@@ -401,14 +466,7 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
         } catch (Throwable t2) {
             globalState.getLogger().writeCurrent(" -- " + t2.getMessage());
         } finally {
-            List<GeneralTable> databaseTables = new ArrayList<>(globalState.getSchema().getDatabaseTables());
-            for (int i = 0; i < databaseTables.size(); i++) {
-                if (databaseTables.get(i).getName().equals(viewName)) {
-                    databaseTables.remove(i);
-                    break;
-                }
-            }
-            globalState.setSchema(databaseTables);
+            globalState.removeTable(viewName);
         }
     }
 
@@ -439,14 +497,7 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
         } catch (Throwable t2) {
             globalState.getLogger().writeCurrent("-- Warning: drop table fail");
         } finally {
-            List<GeneralTable> databaseTables = new ArrayList<>(globalState.getSchema().getDatabaseTables());
-            for (int i = 0; i < databaseTables.size(); i++) {
-                if (databaseTables.get(i).getName().equals(tableName)) {
-                    databaseTables.remove(i);
-                    break;
-                }
-            }
-            globalState.setSchema(databaseTables);
+            globalState.removeTable(tableName);
         }
     }
 
@@ -454,6 +505,7 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
     public void generateDatabase(GeneralGlobalState globalState) throws Exception {
         DatabaseEngineFactory<GeneralGlobalState> databaseEngineFactory = globalState.getDbmsSpecificOptions()
                 .getDatabaseEngineFactory();
+        Metrics.setEngine(getDBMSName() + "/" + databaseEngineFactory);
         // globalState.setCreatingDatabase(true);
         GeneralSchema.GeneralDataType.calcWeight();
         for (int i = 0; i < Randomly.fromOptions(1, 2); i++) {
@@ -519,7 +571,7 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
 
     @Override
     public SQLConnection createDatabase(GeneralGlobalState globalState) throws SQLException {
-        DatabaseEngineFactory<GeneralGlobalState> databaseEngineFactory = globalState.getDbmsSpecificOptions()
+        GeneralDatabaseEngineFactory databaseEngineFactory = globalState.getDbmsSpecificOptions()
                 .getDatabaseEngineFactory();
         String databaseName = globalState.getDatabaseName();
 
@@ -527,7 +579,9 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
         Connection conn = databaseEngineFactory.cleanOrSetUpDatabase(globalState, databaseName);
         globalState.getHandler().setOption(GeneratorNode.CREATE_DATABASE, databaseEngineFactory.isNewSchema());
 
-        return new SQLConnection(conn);
+        SQLConnection con = new SQLConnection(conn);
+        con.setFetchSize(databaseEngineFactory.getFetchSize(), databaseEngineFactory.cursorNeedsTransaction());
+        return con;
     }
 
     @Override
@@ -537,12 +591,38 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
 
     @Override
     public void initializeFeatures(GeneralGlobalState globalState) {
-        GeneralSchema.getFragments().loadFragmentsFromFile(globalState);
+        // resolve the fragments here so that the static initializers do not race in the loader threads
+        GeneralFragments schemaFragments = GeneralSchema.getFragments();
+        GeneralFragments tableFragments = GeneralTableGenerator.getFragments();
+        GeneralFragments indexFragments = GeneralIndexGenerator.getFragments();
+        GeneralFragments operatorFragments = GeneralBinaryOperator.getFragments();
+        GeneralFunction.getFragments();
+        List<Callable<Void>> loaders = List.of(toCallable(() -> schemaFragments.loadFragmentsFromFile(globalState)),
+                toCallable(() -> tableFragments.loadFragmentsFromFile(globalState)),
+                toCallable(() -> indexFragments.loadFragmentsFromFile(globalState)),
+                toCallable(() -> GeneralFunction.loadFunctionsFromFile(globalState)),
+                toCallable(() -> operatorFragments.loadFragmentsFromFile(globalState)));
+        if (globalState.getDbmsSpecificOptions().parallelFragmentLoading) {
+            try {
+                for (Future<Void> future : FRAGMENT_LOADER_EXECUTOR.invokeAll(loaders)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            } catch (ExecutionException e) {
+                throw new AssertionError(e.getCause());
+            }
+        } else {
+            for (Callable<Void> loader : loaders) {
+                try {
+                    loader.call();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }
         GeneralSchema.GeneralDataType.calcWeight();
-        GeneralTableGenerator.getFragments().loadFragmentsFromFile(globalState);
-        GeneralIndexGenerator.getFragments().loadFragmentsFromFile(globalState);
-        GeneralFunction.loadFunctionsFromFile(globalState);
-        GeneralBinaryOperator.getFragments().loadFragmentsFromFile(globalState);
         GeneralBinaryOperator.loadOperatorsFromFragments(globalState);
 
         if (globalState.getOptions().enableLearning()) {
@@ -555,6 +635,13 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
 
     }
 
+    private static Callable<Void> toCallable(Runnable loader) {
+        return () -> {
+            loader.run();
+            return null;
+        };
+    }
+
     // QPG: initialize the weighted average reward for mutation operators
     @Override
     protected double[] initializeWeightedAverageReward() {
@@ -564,24 +651,12 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
     // QPG: obtain the query plan of a query using EXPLAIN
     @Override
     protected String getQueryPlan(String selectStr, GeneralGlobalState globalState) throws Exception {
-        String explainQuery = "EXPLAIN " + selectStr;
-        StringBuilder plan = new StringBuilder();
-        ExpectedErrors errors = new ExpectedErrors();
-        SQLQueryAdapter query = new SQLQueryAdapter(explainQuery, errors);
         try {
-            SQLancerResultSet rs = query.executeAndGet(globalState);
-            if (rs == null) {
-                return "";
-            }
-            while (rs.next()) {
-                plan.append(rs.getString(1));
-                plan.append("\n");
-            }
-            rs.close();
+            GeneralQueryPlan plan = GeneralQueryPlan.explain(selectStr, globalState, new ExpectedErrors());
+            return plan == null ? "" : plan.getPlan();
         } catch (Exception e) {
             return "";
         }
-        return plan.toString();
     }
 
     // QPG: execute a mutation operator
@@ -620,45 +695,89 @@ public class GeneralProvider extends SQLProviderAdapter<GeneralProvider.GeneralG
         return super.generateAndTestDatabase(globalState);
     }
 
+    /**
+     * Executes the statements of the --reproduce-bugfile while the file is read, so that large logs are replayed with
+     * constant memory. Consecutive INSERT, UPDATE, and DELETE statements are sent as JDBC batches if
+     * --reproduce-batch-size is set and the driver supports it.
+     *
+     * @return whether all statements could be executed
+     */
     @Override
     public boolean reproduceBugFromFile(GeneralGlobalState globalState) throws Exception {
         String bugFile = globalState.getOptions().getReproduceBugfile();
-        if (bugFile.length() > 0) {
-            // assume the bug is already a executable SQL file separated by ;
-            // open the file and execute the queries
-            Path path = Path.of(bugFile);
-            if (!path.toFile().exists()) {
-                throw new AssertionError("File not found: " + bugFile);
-            }
-            // List<String> lines = Files.readAllLines(path);
-            StringBuilder sb = new StringBuilder();
-            try (BufferedReader reader = Files.newBufferedReader(path)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sb.append(line);
-                }
-            }
-            String[] rawqueries = sb.toString().split(";");
-            List<String> queries = new ArrayList<>();
-            for (String query : rawqueries) {
-                if (!query.isBlank()) {
-                    queries.add(query);
+        if (bugFile.length() == 0) {
+            return true;
+        }
+        Path path = Path.of(bugFile);
+        if (!Files.exists(path)) {
+            throw new AssertionError("File not found: " + bugFile);
+        }
+        int batchSize = globalState.getOptions().getReproduceBatchSize();
+        boolean batching = batchSize > 1 && globalState.getConnection().getMetaData().supportsBatchUpdates();
+        long nrStatements = 0;
+        long startNanos = System.nanoTime();
+        long lastReportNanos = startNanos;
+        int nrBatched = 0;
+        boolean backslashEscapes = globalState.getDbmsSpecificOptions().getDatabaseEngineFactory()
+                .usesBackslashEscapes();
+        try (SQLScriptReader reader = new SQLScriptReader(Files.newBufferedReader(path), backslashEscapes);
+                Statement s = globalState.getConnection().createStatement()) {
+            String query;
+            while ((query = reader.next()) != null) {
+                boolean batch = batching && isBatchable(StatementKind.of(query));
+                if (nrBatched != 0 && (!batch || nrBatched == batchSize)) {
+                    if (!executeBatch(s, reader.getStatementLine())) {
+                        return false;
+                    }
+                    nrBatched = 0;
                 }
-            }
-            // List<String> queries =
-            for (String query : queries) {
-                try (Statement s = globalState.getConnection().createStatement()) {
-                    s.execute(query);
-                    globalState.getState().logStatement(query);
-                } catch (SQLException t) {
-                    System.err.println("Error: " + t.getMessage());
+                try {
+                    if (batch) {
+                        s.addBatch(query);
+                        nrBatched++;
+                    } else {
+                        s.execute(query);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error in the statement at line " + reader.getStatementLine() + ": "
+                            + e.getMessage());
                     return false;
                 }
+                nrStatements++;
+                long now = System.nanoTime();
+                if (now - lastReportNanos > REPRODUCE_PROGRESS_INTERVAL_NANOS) {
+                    lastReportNanos = now;
+                    System.out.println(String.format("Replayed %d statements of %s (%d statements/s)", nrStatements,
+                            bugFile, nrStatements * 1_000_000_000L / (now - startNanos)));
+                }
+            }
+            if (nrBatched != 0 && !executeBatch(s, reader.getLine())) {
+                return false;
             }
-            return true;
         }
+        System.out.println(String.format("Replayed %d statements of %s in %d ms", nrStatements, bugFile,
+                (System.nanoTime() - startNanos) / 1_000_000));
         return true;
-        // return super.reproduceBugFromFile(globalState);
+    }
+
+    private static boolean isBatchable(StatementKind kind) {
+        return kind == StatementKind.INSERT || kind == StatementKind.UPDATE || kind == StatementKind.DELETE;
+    }
+
+    private static boolean executeBatch(Statement s, long line) {
+        try {
+            s.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error in the batch of statements before line " + line + ": " + e.getMessage());
+            return false;
+        } finally {
+            try {
+                s.clearBatch();
+            } catch (SQLException e) {
+                // the statement is not used anymore after an error
+            }
+        }
     }
 
 }
@@ -0,0 +1,164 @@
+package sqlancer.general;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import sqlancer.ComparatorHelper;
+import sqlancer.IgnoreMeException;
+import sqlancer.Main;
+import sqlancer.SQLConnection;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.StatementKind;
+import sqlancer.common.query.StatementWatchdog;
+import sqlancer.common.query.StatementWatchdog.Watch;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.gen.AutoIndexSelectHelper;
+
+/**
+ * Sends the read-only queries of an oracle check as a single request of several statements, so that the group costs
+ * one round trip instead of one per query. Whether the driver returns a result set per statement is probed once per
+ * engine; e.g., the MySQL driver only does so with {@code allowMultiQueries=true}, and the embedded drivers not at all.
+ *
+ * If the group fails as a whole, the caller executes its queries one by one, so that an error is attributed to the
+ * query that caused it, as the expected errors and the statistics of the error handler require.
+ */
+public final class GeneralQueryGroup {
+
+    /**
+     * Reads the result set of the query with the given index in the group.
+     */
+    @FunctionalInterface
+    public interface ResultReader {
+        void read(int index, ResultSet rs) throws SQLException;
+    }
+
+    private static final Map<GeneralDatabaseEngineFactory, Boolean> SUPPORTED = new ConcurrentHashMap<>();
+
+    private GeneralQueryGroup() {
+    }
+
+    /**
+     * Returns whether the groups are enabled by --multi-statement-groups and supported by the driver.
+     */
+    public static boolean isEnabled(GeneralGlobalState state) {
+        if (!state.getDbmsSpecificOptions().multiStatementGroups || AutoIndexSelectHelper.isEnabled(state)) {
+            return false;
+        }
+        return SUPPORTED.computeIfAbsent(state.getDbmsSpecificOptions().getDatabaseEngineFactory(),
+                engine -> probe(state.getConnection()));
+    }
+
+    public static boolean probe(SQLConnection con) {
+        List<String> values = new ArrayList<>();
+        try (Statement s = con.createStatement()) {
+            boolean isResultSet = s.execute("SELECT 1; SELECT 2");
+            while (isResultSet || s.getUpdateCount() != -1) {
+                if (isResultSet) {
+                    try (ResultSet rs = s.getResultSet()) {
+                        while (rs.next()) {
+                            values.add(rs.getString(1));
+                        }
+                    }
+                }
+                isResultSet = s.getMoreResults();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+        // some drivers silently execute only the first or only return the last statement
+        return values.equals(List.of("1", "2"));
+    }
+
+    /**
+     * Executes the queries as a single request and passes each result set to the reader. The queries are logged once
+     * the group succeeded; if it fails, the caller logs them as it executes them one by one.
+     *
+     * @return false if the group failed, in which case the reader may have seen some of the results, and the caller
+     *         has to execute the queries one by one
+     * @throws IgnoreMeException
+     *             if the statement watchdog canceled the group
+     */
+    public static boolean execute(List<String> queryStrings, int maxRows, GeneralGlobalState state,
+            ResultReader reader) throws SQLException {
+        SQLConnection con = state.getConnection();
+        String group = String.join(";\n", queryStrings);
+        long start = System.nanoTime();
+        try (Statement s = con.createStatement()) {
+            s.setMaxRows(maxRows);
+            con.beginStreaming(s);
+            try (Watch watch = StatementWatchdog.watch(s, StatementKind.SELECT)) {
+                int index = 0;
+                try {
+                    boolean isResultSet = s.execute(group);
+                    while (isResultSet || s.getUpdateCount() != -1) {
+                        if (isResultSet) {
+                            if (index == queryStrings.size()) {
+                                return false;
+                            }
+                            try (ResultSet rs = s.getResultSet()) {
+                                reader.read(index++, rs);
+                            }
+                        }
+                        isResultSet = s.getMoreResults();
+                    }
+                } catch (SQLException e) {
+                    if (watch.isCanceled()) {
+                        con.recordTimeout();
+                        throw new IgnoreMeException();
+                    }
+                    return false;
+                }
+                if (index != queryStrings.size()) {
+                    return false;
+                }
+            } finally {
+                con.endStreaming();
+            }
+        }
+        if (state.getOptions().logEachSelect()) {
+            for (String queryString : queryStrings) {
+                state.getLogger().writeCurrent(queryString);
+            }
+        }
+        // each query is recorded as a statement, with an equal share of the latency of the group
+        long nanos = (System.nanoTime() - start) / queryStrings.size();
+        for (int i = 0; i < queryStrings.size(); i++) {
+            Metrics.recordStatement(StatementKind.SELECT, nanos, true);
+        }
+        Main.nrSuccessfulActions.addAndGet(queryStrings.size());
+        return true;
+    }
+
+    /**
+     * Like {@link ComparatorHelper#getResultSetFirstColumnAsString}, for each query of the group.
+     *
+     * @return the results in the order of the queries, or null if the group failed and the queries have to be
+     *         executed one by one
+     */
+    public static List<List<String>> getResultSetsFirstColumnAsString(List<String> queryStrings,
+            GeneralGlobalState state) throws SQLException {
+        List<List<String>> results = new ArrayList<>();
+        boolean executed = execute(queryStrings, ComparatorHelper.MAX_ROWS_LIMIT, state, (index, rs) -> {
+            List<String> result = new ArrayList<>();
+            while (rs.next()) {
+                result.add(ComparatorHelper.stripTrailingZeros(rs.getString(1)));
+            }
+            results.add(result);
+        });
+        if (!executed) {
+            return null;
+        }
+        // some drivers ignore the limit, and return all rows
+        if (results.stream().anyMatch(r -> r.size() >= ComparatorHelper.MAX_ROWS_LIMIT)) {
+            throw new IgnoreMeException();
+        }
+        return results;
+    }
+
+}
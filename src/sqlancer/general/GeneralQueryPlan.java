@@ -0,0 +1,242 @@
+package sqlancer.general;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+
+/**
+ * The output of EXPLAIN for a query, together with the estimated number of result rows and the sequence of plan
+ * operators, as far as they can be recognized.
+ *
+ * The formats that are recognized are the tabular output of MySQL and TiDB, the text output of PostgreSQL and
+ * CockroachDB and the drawn boxes of DuckDB, which covers the engines that speak these dialects. For other engines, the
+ * estimate is unknown.
+ */
+public final class GeneralQueryPlan {
+
+    public static final long UNKNOWN = -1;
+
+    // the first match is the estimate of the topmost operator that reports one
+    private static final List<Pattern> ESTIMATE_PATTERNS = List.of(Pattern.compile("\\brows=(\\d+(?:\\.\\d+)?)"),
+            Pattern.compile("estimated row count: ([\\d,]+)"), Pattern.compile("~([\\d,]+) [Rr]ows"),
+            Pattern.compile("\\bEC: (\\d+)"));
+    private static final Pattern POSTGRES_OPERATOR = Pattern
+            .compile("^\\s*(?:->\\s+)?([A-Z][A-Za-z ]*?)(?:\\s+(?:on|using)\\s.*?)?\\s+\\(cost=");
+    private static final Pattern COCKROACH_OPERATOR = Pattern
+            .compile("^[\\s\\u2502\\u251c\\u2514\\u2500]*\\u2022\\s+(.+?)\\s*$");
+    private static final char BOX_TOP_LEFT = '\u250c';
+    private static final char BOX_VERTICAL = '\u2502';
+
+    private final String plan;
+    private final long estimatedRows;
+    private final String estimatingOperator;
+    private final List<String> operators;
+
+    private GeneralQueryPlan(String plan, long estimatedRows, String estimatingOperator, List<String> operators) {
+        this.plan = plan;
+        this.estimatedRows = estimatedRows;
+        this.estimatingOperator = estimatingOperator;
+        this.operators = operators;
+    }
+
+    /**
+     * Runs EXPLAIN for the query.
+     *
+     * @return the plan, or null if the EXPLAIN statement failed with an expected error
+     */
+    public static GeneralQueryPlan explain(String selectStr, GeneralGlobalState globalState, ExpectedErrors errors)
+            throws SQLException {
+        SQLQueryAdapter query = new SQLQueryAdapter("EXPLAIN " + selectStr, errors);
+        try (SQLancerResultSet rs = query.executeAndGet(globalState)) {
+            if (rs == null) {
+                return null;
+            }
+            List<String> columnNames = new ArrayList<>();
+            for (int i = 1; i <= rs.getColumnCount(); i++) {
+                columnNames.add(rs.getColumnName(i));
+            }
+            List<List<String>> rows = new ArrayList<>();
+            while (rs.next()) {
+                List<String> row = new ArrayList<>(columnNames.size());
+                for (int i = 1; i <= columnNames.size(); i++) {
+                    row.add(rs.getString(i));
+                }
+                rows.add(row);
+            }
+            return parse(columnNames, rows);
+        }
+    }
+
+    public static GeneralQueryPlan parse(List<String> columnNames, List<List<String>> rows) {
+        StringBuilder plan = new StringBuilder();
+        for (List<String> row : rows) {
+            plan.append(row.get(0));
+            plan.append('\n');
+        }
+        int estRows = indexOf(columnNames, "estRows");
+        int mysqlRows = indexOf(columnNames, "rows");
+        if (estRows != -1) {
+            return parseTiDB(plan.toString(), rows, estRows, indexOf(columnNames, "id"));
+        } else if (mysqlRows != -1) {
+            return parseMySQL(plan.toString(), rows, mysqlRows, indexOf(columnNames, "filtered"),
+                    indexOf(columnNames, "type"));
+        } else {
+            return parseText(plan.toString(), rows);
+        }
+    }
+
+    // TiDB: one row per operator, indented with tree characters, the root first
+    private static GeneralQueryPlan parseTiDB(String plan, List<List<String>> rows, int estRows, int id) {
+        long estimate = rows.isEmpty() ? UNKNOWN : parseNumber(rows.get(0).get(estRows));
+        List<String> operators = new ArrayList<>();
+        if (id != -1) {
+            for (List<String> row : rows) {
+                operators.add(row.get(id).replaceAll("^[^A-Za-z]*", "").replaceAll("_\\d+$", ""));
+            }
+        }
+        return new GeneralQueryPlan(plan, estimate, operators.isEmpty() ? null : operators.get(0), operators);
+    }
+
+    // MySQL: one row per table in join order, each with the rows examined per row of the previous tables
+    private static GeneralQueryPlan parseMySQL(String plan, List<List<String>> rows, int mysqlRows, int filtered,
+            int type) {
+        double estimate = 1;
+        boolean known = false;
+        List<String> operators = new ArrayList<>();
+        for (List<String> row : rows) {
+            if (type != -1) {
+                operators.add(String.valueOf(row.get(type)));
+            }
+            long tableRows = parseNumber(row.get(mysqlRows));
+            if (tableRows == UNKNOWN) {
+                continue;
+            }
+            known = true;
+            double fraction = filtered == -1 || row.get(filtered) == null ? 1
+                    : Double.parseDouble(row.get(filtered)) / 100;
+            estimate *= tableRows * fraction;
+        }
+        return new GeneralQueryPlan(plan, known ? Math.round(estimate) : UNKNOWN, null, operators);
+    }
+
+    private static GeneralQueryPlan parseText(String plan, List<List<String>> rows) {
+        List<String> lines = new ArrayList<>();
+        for (List<String> row : rows) {
+            for (String value : row) {
+                if (value != null) {
+                    lines.addAll(Arrays.asList(value.split("\n")));
+                }
+            }
+        }
+        long estimate = UNKNOWN;
+        String estimatingOperator = null;
+        List<String> operators = new ArrayList<>();
+        // the operators of the DuckDB boxes that are currently open, by the column at which they start
+        TreeMap<Integer, String> boxes = new TreeMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            Matcher postgres = POSTGRES_OPERATOR.matcher(line);
+            Matcher cockroach = COCKROACH_OPERATOR.matcher(line);
+            if (postgres.find()) {
+                operators.add(postgres.group(1));
+            } else if (cockroach.find()) {
+                operators.add(cockroach.group(1));
+            } else if (i + 1 < lines.size()) {
+                addBoxNames(line, lines.get(i + 1), operators, boxes);
+            }
+            if (estimate != UNKNOWN) {
+                continue;
+            }
+            for (Pattern pattern : ESTIMATE_PATTERNS) {
+                Matcher m = pattern.matcher(line);
+                if (m.find()) {
+                    estimate = parseNumber(m.group(1));
+                    Map.Entry<Integer, String> box = boxes.floorEntry(m.start());
+                    if (box != null) {
+                        estimatingOperator = box.getValue();
+                    } else if (!operators.isEmpty()) {
+                        estimatingOperator = operators.get(operators.size() - 1);
+                    }
+                    break;
+                }
+            }
+        }
+        return new GeneralQueryPlan(plan, estimate, estimatingOperator, operators);
+    }
+
+    // DuckDB draws each operator as a box, possibly next to each other, with the operator name in the first line
+    private static void addBoxNames(String line, String nextLine, List<String> operators,
+            TreeMap<Integer, String> boxes) {
+        int start = line.indexOf(BOX_TOP_LEFT);
+        while (start != -1 && start + 1 < nextLine.length()) {
+            int end = nextLine.indexOf(BOX_VERTICAL, start + 1);
+            if (end == -1) {
+                return;
+            }
+            String name = nextLine.substring(start + 1, end).trim();
+            if (!name.isEmpty()) {
+                operators.add(name);
+                boxes.put(start, name);
+            }
+            start = line.indexOf(BOX_TOP_LEFT, start + 1);
+        }
+    }
+
+    private static int indexOf(List<String> columnNames, String name) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (name.equalsIgnoreCase(columnNames.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long parseNumber(String value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        try {
+            return Math.round(Double.parseDouble(value.replace(",", "")));
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns the first column of the EXPLAIN output, one line per row.
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    /**
+     * Returns the estimated number of rows of the query, or {@link #UNKNOWN}.
+     */
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * Returns the operator whose estimate {@link #getEstimatedRows()} returns, or null if the estimate is not that of a
+     * single operator. Some engines only report estimates for some operators, so the estimates of two plans are only
+     * comparable if they belong to the same operator.
+     */
+    public String getEstimatingOperator() {
+        return estimatingOperator;
+    }
+
+    public List<String> getOperators() {
+        return operators;
+    }
+
+}
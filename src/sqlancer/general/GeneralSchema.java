@@ -1,18 +1,23 @@
 package sqlancer.general;
 
-import java.io.StringReader;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
+import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.query.SQLancerResultSet;
 import sqlancer.common.schema.AbstractRelationalTable;
+import sqlancer.common.schema.AbstractRowValue;
 import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
@@ -91,25 +96,14 @@ public class GeneralSchema extends AbstractSchema<GeneralGlobalState, GeneralTab
         }
 
         @Override
-        protected void parseFragments(String... s) {
-            String key = s[0];
-
-            Pattern pattern = Pattern.compile("<([^>]*)>");
-            Matcher matcher = pattern.matcher(s[1]);
-
-            String content = "";
-            StringBuffer output = new StringBuffer();
-
-            List<GeneralFragmentVariable> vars = new ArrayList<>();
-
-            while (matcher.find()) {
-                content = matcher.group(1);
-                matcher.appendReplacement(output, "%s");
-                vars.add(GeneralFragmentVariable.valueOf(content.toUpperCase()));
-            }
-            matcher.appendTail(output);
+        protected boolean isValidKey(String key) {
+            // keys are data type names
+            return true;
+        }
 
-            addFragment(key, output.toString(), vars);
+        @Override
+        protected void addParsedFragment(String key, String fmtString, List<GeneralFragmentVariable> vars) {
+            super.addParsedFragment(key, fmtString, vars);
 
             // if key is not in the typeMap, add it
             if (!typeMap.containsValue(key)) {
@@ -209,7 +203,7 @@ public class GeneralSchema extends AbstractSchema<GeneralGlobalState, GeneralTab
                 return;
             }
 
-            loadFragmentsFromCSV(new StringReader(fragmentsString), globalState, true);
+            loadLearnedFragments(fragmentsString, globalState, true);
 
         }
 
@@ -225,53 +219,42 @@ public class GeneralSchema extends AbstractSchema<GeneralGlobalState, GeneralTab
             }
             String key = s[0];
 
-            StringBuffer fmtString = new StringBuffer();
             List<GeneralFragmentVariable> vars = new ArrayList<>();
-            Pattern pattern = Pattern.compile("<([^>]*)>");
-            Matcher matcher = pattern.matcher(s[1]);
-
-            String content = "";
-
-            while (matcher.find()) {
-                content = matcher.group(1);
-                matcher.appendReplacement(fmtString, "%s");
-                vars.add(GeneralFragmentVariable.valueOf(content.toUpperCase()));
-            }
-            matcher.appendTail(fmtString);
+            String fmtString = parseVariable(s[1], vars);
             GeneralFragments typeFragments = GeneralSchema.getFragments();
             GeneralFragments funcFragments = GeneralFunction.getFragments();
             GeneralFragments opFragments = GeneralBinaryOperator.getFragments();
 
             switch (key) {
             case "0":
-                typeFragments.addFragment(type, fmtString.toString(), vars);
+                typeFragments.addFragment(type, fmtString, vars);
                 break;
             case "1":
-                funcFragments.addFragment("0", fmtString.toString().replaceAll("^\"+|\"+$", ""), vars);
-                // typeToFunction.get(type).add(fmtString.toString())
+                funcFragments.addFragment("0", fmtString.replaceAll("^\"+|\"+$", ""), vars);
+                // typeToFunction.get(type).add(fmtString)
                 try {
-                    updateTypeToFunction(type, new ArrayList<>(List.of(fmtString.toString())), false);
+                    updateTypeToFunction(type, new ArrayList<>(List.of(fmtString)), false);
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
                 break;
             case "2":
                 // add more cases here
-                funcFragments.addFragment("1", fmtString.toString().replaceAll("^\"+|\"+$", ""), vars);
+                funcFragments.addFragment("1", fmtString.replaceAll("^\"+|\"+$", ""), vars);
                 try {
-                    updateTypeToFunction(type, new ArrayList<>(List.of(fmtString.toString())), false);
+                    updateTypeToFunction(type, new ArrayList<>(List.of(fmtString)), false);
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
                 break;
             case "3":
-                funcFragments.addFragment("2", fmtString.toString().replaceAll("^\"+|\"+$", ""), vars);
+                funcFragments.addFragment("2", fmtString.replaceAll("^\"+|\"+$", ""), vars);
                 break;
             case "4":
-                opFragments.addFragment("BOOLEAN", fmtString.toString().replaceAll("^\"+|\"+$", ""), vars);
+                opFragments.addFragment("BOOLEAN", fmtString.replaceAll("^\"+|\"+$", ""), vars);
                 break;
             case "5":
-                opFragments.addFragment(type, fmtString.toString().replaceAll("^\"+|\"+$", ""), vars);
+                opFragments.addFragment(type, fmtString.replaceAll("^\"+|\"+$", ""), vars);
                 break;
             default:
                 break;
@@ -523,16 +506,110 @@ public class GeneralSchema extends AbstractSchema<GeneralGlobalState, GeneralTab
             super(tables);
         }
 
+        /**
+         * Fetches one row of each table with {@code LIMIT 1 OFFSET k}, for a random k below the cached row count, so
+         * that the cost does not depend on the size of the tables.
+         */
+        public GeneralRowValue getRandomRowValue(GeneralGlobalState globalState, ExpectedErrors errors)
+                throws SQLException {
+            Map<GeneralColumn, Object> values = new HashMap<>();
+            for (GeneralTable table : getTables()) {
+                long rowCount = table.getCachedRowCount();
+                long offset = rowCount > 1 ? Randomly.getNotCachedInteger(0, (int) Math.min(rowCount, Integer.MAX_VALUE))
+                        : 0;
+                String query = String.format("SELECT %s FROM %s LIMIT 1 OFFSET %d",
+                        table.getColumns().stream().map(c -> c.getFullQualifiedName())
+                                .collect(Collectors.joining(", ")),
+                        table.getName(), offset);
+                try (SQLancerResultSet rs = new SQLQueryAdapter(query, errors).executeAndGet(globalState)) {
+                    if (rs == null || !rs.next()) {
+                        throw new IgnoreMeException();
+                    }
+                    for (int i = 0; i < table.getColumns().size(); i++) {
+                        GeneralColumn column = table.getColumns().get(i);
+                        values.put(column, parseValue(column.getType().getPrimitiveDataType(), rs.getString(i + 1)));
+                    }
+                }
+            }
+            return new GeneralRowValue(this, values);
+        }
+
+        // integers as Long and booleans as Boolean, other values as the string that the driver returns
+        private static Object parseValue(GeneralDataType type, String value) {
+            if (value == null) {
+                return null;
+            }
+            switch (type) {
+            case INT:
+                try {
+                    return Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    return value;
+                }
+            case BOOLEAN:
+                if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("t") || value.equals("1")) {
+                    return true;
+                } else if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("f") || value.equals("0")) {
+                    return false;
+                }
+                return value;
+            default:
+                return value;
+            }
+        }
+
     }
 
+    public static class GeneralRowValue extends AbstractRowValue<GeneralTables, GeneralColumn, Object> {
+
+        GeneralRowValue(GeneralTables tables, Map<GeneralColumn, Object> values) {
+            super(tables, values);
+        }
+
+    }
+
+    // table names may be prefixed with the database name, e.g., database0_t1
+    private final Set<String> localTableNames = new HashSet<>();
+
     public GeneralSchema(List<GeneralTable> databaseTables) {
-        super(databaseTables);
+        this(databaseTables, 0);
+    }
+
+    private GeneralSchema(List<GeneralTable> databaseTables, long version) {
+        super(databaseTables, version);
+        for (GeneralTable table : getDatabaseTables()) {
+            localTableNames.add(getLocalTableName(table.getName()));
+        }
+    }
+
+    /**
+     * Returns the next snapshot of the schema, in which the table replaces the table with the same name or is added.
+     */
+    public GeneralSchema withTable(GeneralTable table) {
+        return new GeneralSchema(getTablesWith(table), getVersion() + 1);
+    }
+
+    public GeneralSchema withoutTable(String tableName) {
+        return new GeneralSchema(getTablesWithout(tableName), getVersion() + 1);
+    }
+
+    public GeneralSchema withTables(List<GeneralTable> tables) {
+        return new GeneralSchema(tables, getVersion() + 1);
     }
 
     public GeneralTables getRandomTableNonEmptyTables() {
         return new GeneralTables(Randomly.nonEmptySubset(getDatabaseTables()));
     }
 
+    /**
+     * Like {@link #getRandomTableNonEmptyTables()}, but without the largest tables if the estimated size of the cross
+     * product of the selected tables exceeds maxCrossProductRows.
+     */
+    public GeneralTables getRandomTableNonEmptyTables(long maxCrossProductRows) {
+        return new GeneralTables(GeneralCardinalityStats
+                .limitCrossProduct(Randomly.nonEmptySubset(getDatabaseTables()), maxCrossProductRows));
+    }
+
     public static class GeneralTable extends AbstractRelationalTable<GeneralColumn, TableIndex, GeneralGlobalState> {
 
         public GeneralTable(String tableName, List<GeneralColumn> columns, boolean isView) {
@@ -547,19 +624,30 @@ public class GeneralSchema extends AbstractSchema<GeneralGlobalState, GeneralTab
 
     @Override
     public String getFreeTableName() {
-        // TODO Auto-generated method stub
         int i = 0;
         if (Randomly.getBooleanWithRatherLowProbability()) {
             i = (int) Randomly.getNotCachedInteger(0, 10);
         }
         do {
-            String tableName = String.format("t%d", i++);
-            if (super.getDatabaseTables().stream().noneMatch(t -> t.getName().endsWith(tableName))) {
+            String tableName = "t" + i++;
+            if (!localTableNames.contains(tableName)) {
                 return tableName;
             }
         } while (true);
     }
 
+    // the trailing "t<number>" of the name, or the name itself
+    private static String getLocalTableName(String name) {
+        int start = name.length();
+        while (start > 0 && Character.isDigit(name.charAt(start - 1))) {
+            start--;
+        }
+        if (start > 0 && start < name.length() && name.charAt(start - 1) == 't') {
+            return name.substring(start - 1);
+        }
+        return name;
+    }
+
     public void printTables() {
         for (GeneralTable t : getDatabaseTables()) {
             System.out.println(t.getName() + " -------");
@@ -0,0 +1,48 @@
+package sqlancer.general;
+
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.ast.GeneralSelect;
+
+/**
+ * A select rendered once around its WHERE clause, so that queries that only differ in the WHERE clause, such as the
+ * partitioning queries of TLP, can be spliced together without rendering the fetch columns and joins again.
+ */
+public final class GeneralSelectTemplate {
+
+    private final String prefix;
+    private final String suffix;
+
+    private GeneralSelectTemplate(String prefix, String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Renders the select without its WHERE clause.
+     */
+    public static GeneralSelectTemplate of(GeneralSelect select) {
+        return new GeneralSelectTemplate(GeneralToStringVisitor.selectPrefixAsString(select),
+                GeneralToStringVisitor.selectSuffixAsString(select));
+    }
+
+    /**
+     * Returns a template that keeps the rendered prefix but takes the clauses after the WHERE clause, such as an ORDER
+     * BY that was added in the meantime, from the given select.
+     */
+    public GeneralSelectTemplate withSuffixOf(GeneralSelect select) {
+        return new GeneralSelectTemplate(prefix, GeneralToStringVisitor.selectSuffixAsString(select));
+    }
+
+    /**
+     * @param whereClause
+     *            the WHERE clause, or null for a query without one
+     */
+    public String render(Node<GeneralExpression> whereClause) {
+        if (whereClause == null) {
+            return prefix + suffix;
+        }
+        return GeneralToStringVisitor.spliceSelect(prefix, whereClause, suffix);
+    }
+
+}
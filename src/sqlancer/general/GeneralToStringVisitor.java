@@ -1,5 +1,7 @@
 package sqlancer.general;
 
+import java.util.function.Consumer;
+
 import sqlancer.common.ast.newast.NewToStringVisitor;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.general.ast.GeneralCast;
@@ -12,26 +14,31 @@ import sqlancer.general.ast.GeneralSelect.GeneralSubquery;
 
 public class GeneralToStringVisitor extends NewToStringVisitor<GeneralExpression> {
 
+    private static final int INITIAL_CAPACITY = 256;
+    // builders that grew beyond this size while rendering a large query are not kept
+    private static final int MAX_RETAINED_CAPACITY = 1 << 14;
+
+    private static final ThreadLocal<GeneralToStringVisitor> CACHED_VISITOR = ThreadLocal
+            .withInitial(() -> new GeneralToStringVisitor(new StringBuilder(INITIAL_CAPACITY)));
+
+    private boolean inUse;
+
+    public GeneralToStringVisitor() {
+    }
+
+    private GeneralToStringVisitor(StringBuilder sb) {
+        super(sb);
+    }
+
+    /**
+     * Only reached by nodes that do not dispatch to a visit method themselves.
+     */
     @Override
     public void visitSpecific(Node<GeneralExpression> expr) {
-        if (expr instanceof GeneralConstant) {
-            visit((GeneralConstant) expr);
-        } else if (expr instanceof GeneralSelect) {
-            visit((GeneralSelect) expr);
-        } else if (expr instanceof GeneralJoin) {
-            visit((GeneralJoin) expr);
-        } else if (expr instanceof GeneralColumnReference) {
-            visit((GeneralColumnReference) expr);
-        } else if (expr instanceof GeneralCast) {
-            visit((GeneralCast) expr);
-        } else if (expr instanceof GeneralSubquery) {
-            visit((GeneralSubquery) expr);
-        } else {
-            throw new AssertionError(expr.getClass());
-        }
+        throw new AssertionError(expr.getClass());
     }
 
-    private void visit(GeneralJoin join) {
+    public void visit(GeneralJoin join) {
         visit(join.getLeftTable());
         sb.append(" ");
         sb.append(join.getJoinType());
@@ -47,11 +54,20 @@ public class GeneralToStringVisitor extends NewToStringVisitor<GeneralExpression
         }
     }
 
-    private void visit(GeneralConstant constant) {
+    public void visit(GeneralConstant constant) {
         sb.append(constant.toString());
     }
 
-    private void visit(GeneralSelect select) {
+    public void visit(GeneralSelect select) {
+        visitSelectPrefix(select);
+        if (select.getWhereClause() != null) {
+            sb.append(" WHERE ");
+            visit(select.getWhereClause());
+        }
+        visitSelectSuffix(select);
+    }
+
+    private void visitSelectPrefix(GeneralSelect select) {
         sb.append("SELECT ");
         if (select.isDistinct()) {
             sb.append("DISTINCT ");
@@ -65,10 +81,9 @@ public class GeneralToStringVisitor extends NewToStringVisitor<GeneralExpression
         if (!select.getJoinList().isEmpty()) {
             visit(select.getJoinList());
         }
-        if (select.getWhereClause() != null) {
-            sb.append(" WHERE ");
-            visit(select.getWhereClause());
-        }
+    }
+
+    private void visitSelectSuffix(GeneralSelect select) {
         if (!select.getGroupByExpressions().isEmpty()) {
             sb.append(" GROUP BY ");
             visit(select.getGroupByExpressions());
@@ -91,15 +106,15 @@ public class GeneralToStringVisitor extends NewToStringVisitor<GeneralExpression
         }
     }
 
-    private void visit(GeneralColumnReference column) {
-        if (column.getColumn().getTable() == null) {
-            sb.append(column.getColumn().getName());
-        } else {
-            sb.append(column.getColumn().getFullQualifiedName());
+    public void visit(GeneralColumnReference column) {
+        if (column.getColumn().getTable() != null) {
+            sb.append(column.getColumn().getTable().getName());
+            sb.append('.');
         }
+        sb.append(column.getColumn().getName());
     }
 
-    private void visit(GeneralCast cast) {
+    public void visit(GeneralCast cast) {
         if (cast.isFunc()) {
             sb.append("CAST(");
             visit(cast.getExpr());
@@ -115,7 +130,7 @@ public class GeneralToStringVisitor extends NewToStringVisitor<GeneralExpression
         }
     }
 
-    private void visit(GeneralSubquery subquery) {
+    public void visit(GeneralSubquery subquery) {
         sb.append(" (");
         visit(subquery.getSelect());
         sb.append(")");
@@ -124,10 +139,70 @@ public class GeneralToStringVisitor extends NewToStringVisitor<GeneralExpression
         sb.append(" ");
     }
 
+    /**
+     * Renders the part of the select that precedes its WHERE clause.
+     */
+    static String selectPrefixAsString(GeneralSelect select) {
+        return render(visitor -> visitor.visitSelectPrefix(select));
+    }
+
+    /**
+     * Renders the part of the select that follows its WHERE clause.
+     */
+    static String selectSuffixAsString(GeneralSelect select) {
+        return render(visitor -> visitor.visitSelectSuffix(select));
+    }
+
+    /**
+     * Renders a select from its rendered prefix and suffix and the given WHERE clause.
+     */
+    static String spliceSelect(String prefix, Node<GeneralExpression> whereClause, String suffix) {
+        return render(visitor -> {
+            visitor.sb.append(prefix);
+            visitor.sb.append(" WHERE ");
+            visitor.visit(whereClause);
+            visitor.sb.append(suffix);
+        });
+    }
+
+    /**
+     * Appends the SQL text of the expression to the given builder, without an intermediate string.
+     */
+    public static void appendTo(StringBuilder target, Node<GeneralExpression> expr) {
+        if (expr instanceof GeneralConstant) {
+            target.append(expr.toString());
+        } else {
+            new GeneralToStringVisitor(target).visit(expr);
+        }
+    }
+
+    /**
+     * Renders the expression with a visitor and builder that are reused by the current thread.
+     */
     public static String asString(Node<GeneralExpression> expr) {
-        GeneralToStringVisitor visitor = new GeneralToStringVisitor();
-        visitor.visit(expr);
-        return visitor.get();
+        return render(visitor -> visitor.visit(expr));
+    }
+
+    private static String render(Consumer<GeneralToStringVisitor> action) {
+        GeneralToStringVisitor visitor = CACHED_VISITOR.get();
+        if (visitor.inUse) {
+            // called from within a rendering, for example by a toString() method
+            visitor = new GeneralToStringVisitor();
+            action.accept(visitor);
+            return visitor.get();
+        }
+        visitor.inUse = true;
+        try {
+            action.accept(visitor);
+            return visitor.get();
+        } finally {
+            if (visitor.sb.capacity() > MAX_RETAINED_CAPACITY) {
+                CACHED_VISITOR.set(new GeneralToStringVisitor(new StringBuilder(INITIAL_CAPACITY)));
+            } else {
+                visitor.sb.setLength(0);
+                visitor.inUse = false;
+            }
+        }
     }
 
 }
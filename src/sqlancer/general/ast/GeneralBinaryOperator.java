@@ -4,8 +4,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import sqlancer.Randomly;
 import sqlancer.common.ast.BinaryOperatorNode.Operator;
@@ -26,7 +24,8 @@ public class GeneralBinaryOperator implements Operator {
     private static final String CONFIG_NAME = "operators.txt";
     private static final SQLFeature FEATURE = SQLFeature.OPERATOR;
 
-    private static Map<String, GeneralCompositeDataType> operators = initOperators();
+    // copy-on-write: learned operators are merged into a new map by the learning thread
+    private static volatile Map<String, GeneralCompositeDataType> operators = initOperators();
     private static GeneralBinaryOperatorFragments fragments = new GeneralBinaryOperatorFragments();
 
     private static final class GeneralBinaryOperatorFragments extends GeneralFragments {
@@ -75,24 +74,9 @@ public class GeneralBinaryOperator implements Operator {
         }
 
         @Override
-        protected void parseFragments(String... s) {
-            String key = s[0];
-
-            StringBuffer fmtString = new StringBuffer();
-            List<GeneralFragmentVariable> vars = new ArrayList<>();
-            Pattern pattern = Pattern.compile("<([^>]*)>");
-            Matcher matcher = pattern.matcher(s[1]);
-
-            String content = "";
-
-            while (matcher.find()) {
-                content = matcher.group(1);
-                matcher.appendReplacement(fmtString, "%s");
-                vars.add(GeneralFragmentVariable.valueOf(content.toUpperCase()));
-            }
-            matcher.appendTail(fmtString);
-
-            addFragment(key, fmtString.toString(), vars);
+        protected boolean isValidKey(String key) {
+            // keys are the result types of the operators
+            return true;
         }
     }
 
@@ -198,6 +182,12 @@ public class GeneralBinaryOperator implements Operator {
                 }
             }
         }
-        operators.putAll(ops);
+        mergeOperators(ops);
+    }
+
+    private static synchronized void mergeOperators(Map<String, GeneralCompositeDataType> ops) {
+        Map<String, GeneralCompositeDataType> merged = new HashMap<>(operators);
+        merged.putAll(ops);
+        operators = merged;
     }
 }
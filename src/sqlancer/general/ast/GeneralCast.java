@@ -2,10 +2,12 @@ package sqlancer.general.ast;
 
 import sqlancer.Randomly;
 import sqlancer.common.ast.BinaryOperatorNode.Operator;
+import sqlancer.common.ast.newast.NewToStringVisitor;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.general.GeneralErrorHandler;
 import sqlancer.general.GeneralErrorHandler.GeneratorNode;
 import sqlancer.general.GeneralSchema.GeneralCompositeDataType;
+import sqlancer.general.GeneralToStringVisitor;
 
 public class GeneralCast implements Node<GeneralExpression> {
 
@@ -57,4 +59,10 @@ public class GeneralCast implements Node<GeneralExpression> {
     public boolean isFunc() {
         return op == GeneralCastOperator.FUNC;
     }
+
+    @Override
+    public void accept(NewToStringVisitor<GeneralExpression> visitor) {
+        ((GeneralToStringVisitor) visitor).visit(this);
+    }
+
 }
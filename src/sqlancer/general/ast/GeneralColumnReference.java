@@ -1,7 +1,9 @@
 package sqlancer.general.ast;
 
+import sqlancer.common.ast.newast.NewToStringVisitor;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralToStringVisitor;
 
 public class GeneralColumnReference implements Node<GeneralExpression> {
 
@@ -15,4 +17,9 @@ public class GeneralColumnReference implements Node<GeneralExpression> {
         return c;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<GeneralExpression> visitor) {
+        ((GeneralToStringVisitor) visitor).visit(this);
+    }
+
 }
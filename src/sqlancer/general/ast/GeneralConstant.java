@@ -3,7 +3,9 @@ package sqlancer.general.ast;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 
+import sqlancer.common.ast.newast.NewToStringVisitor;
 import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralToStringVisitor;
 
 public class GeneralConstant implements Node<GeneralExpression> {
 
@@ -212,4 +214,9 @@ public class GeneralConstant implements Node<GeneralExpression> {
         return new GeneralVartypeConstant(text);
     }
 
+    @Override
+    public void accept(NewToStringVisitor<GeneralExpression> visitor) {
+        ((GeneralToStringVisitor) visitor).visit(this);
+    }
+
 }
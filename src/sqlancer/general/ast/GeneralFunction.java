@@ -29,7 +29,8 @@ public class GeneralFunction {
     private String name;
     // String: function name
     // Integer: number of arguments, if negative then variadic
-    private static Map<String, Integer> functions = initFunctions();
+    // copy-on-write: learned functions are merged into a new map by the learning thread
+    private static volatile Map<String, Integer> functions = initFunctions();
     private static GeneralFunctionFragments fragments = new GeneralFunctionFragments();
 
     private static final class GeneralFunctionFragments extends GeneralFragments {
@@ -259,8 +260,10 @@ public class GeneralFunction {
         mergeFunctions(newFuncsUpper);
     }
 
-    public static void mergeFunctions(Map<String, Integer> newFunctions) {
-        functions.putAll(newFunctions);
+    public static synchronized void mergeFunctions(Map<String, Integer> newFunctions) {
+        Map<String, Integer> merged = new HashMap<>(functions);
+        merged.putAll(newFunctions);
+        functions = merged;
     }
 
     public static GeneralFragments getFragments() {
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import sqlancer.Randomly;
+import sqlancer.common.ast.newast.NewToStringVisitor;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.common.ast.newast.TableReferenceNode;
 import sqlancer.common.gen.ExpressionGenerator;
@@ -13,6 +14,7 @@ import sqlancer.general.GeneralProvider.GeneralGlobalState;
 import sqlancer.general.GeneralSchema.GeneralColumn;
 import sqlancer.general.GeneralSchema.GeneralTable;
 import sqlancer.general.GeneralSchema.GeneralTables;
+import sqlancer.general.GeneralToStringVisitor;
 import sqlancer.general.ast.GeneralSelect.GeneralSubquery;
 import sqlancer.general.gen.GeneralRandomQuerySynthesizer;
 
@@ -130,7 +132,11 @@ public class GeneralJoin implements Node<GeneralExpression> {
             columns.addAll(rightTable.getTable().getColumns());
             ExpressionGenerator<Node<GeneralExpression>> joinGen = GeneralRandomQuerySynthesizer
                     .getExpressionGenerator(globalState, columns);
-            joinExpressions.add(getJoinExpression(leftTable, rightTable, joinGen, globalState));
+            try {
+                joinExpressions.add(getJoinExpression(leftTable, rightTable, joinGen, globalState));
+            } finally {
+                globalState.releaseExpressionGenerator(joinGen);
+            }
         }
         return joinExpressions;
     }
@@ -188,8 +194,13 @@ public class GeneralJoin implements Node<GeneralExpression> {
                     subquery.getTable());
             List<GeneralColumn> columns = new ArrayList<>(leftTable.getTable().getColumns());
             columns.addAll(rightTable.getTable().getColumns());
-            joinExpressions.add(getJoinExpression(leftTable, subquery,
-                    GeneralRandomQuerySynthesizer.getExpressionGenerator(globalState, columns), globalState));
+            ExpressionGenerator<Node<GeneralExpression>> joinGen = GeneralRandomQuerySynthesizer
+                    .getExpressionGenerator(globalState, columns);
+            try {
+                joinExpressions.add(getJoinExpression(leftTable, subquery, joinGen, globalState));
+            } finally {
+                globalState.releaseExpressionGenerator(joinGen);
+            }
             globalState.getHandler().addScore(GeneratorNode.SUBQUERY);
         }
 
@@ -218,4 +229,9 @@ public class GeneralJoin implements Node<GeneralExpression> {
         return join;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<GeneralExpression> visitor) {
+        ((GeneralToStringVisitor) visitor).visit(this);
+    }
+
 }
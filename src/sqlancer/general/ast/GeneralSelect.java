@@ -1,8 +1,10 @@
 package sqlancer.general.ast;
 
 import sqlancer.common.ast.SelectBase;
+import sqlancer.common.ast.newast.NewToStringVisitor;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.GeneralToStringVisitor;
 
 public class GeneralSelect extends SelectBase<Node<GeneralExpression>> implements Node<GeneralExpression> {
 
@@ -16,6 +18,11 @@ public class GeneralSelect extends SelectBase<Node<GeneralExpression>> implement
         return isDistinct;
     }
 
+    @Override
+    public void accept(NewToStringVisitor<GeneralExpression> visitor) {
+        ((GeneralToStringVisitor) visitor).visit(this);
+    }
+
     public static class GeneralSubquery implements Node<GeneralExpression> {
 
         private final GeneralSelect select;
@@ -40,6 +47,11 @@ public class GeneralSelect extends SelectBase<Node<GeneralExpression>> implement
             return targetTable;
         }
 
+        @Override
+        public void accept(NewToStringVisitor<GeneralExpression> visitor) {
+            ((GeneralToStringVisitor) visitor).visit(this);
+        }
+
     }
 
 }
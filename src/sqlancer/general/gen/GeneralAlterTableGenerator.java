@@ -31,7 +31,6 @@ public final class GeneralAlterTableGenerator {
         GeneralTable table = globalState.getSchema().getRandomTableOrBailout(t -> !t.isView() && !t.getColumns().isEmpty());
         List<GeneralColumn> columnsToChange = new ArrayList<>(table.getColumns());
         List<TableIndex> indexes = new ArrayList<>(table.getIndexes());
-        GeneralExpressionGenerator gen = new GeneralExpressionGenerator(globalState).setColumns(table.getColumns());
         sb.append(table.getName());
         sb.append(" ");
         Action action = Randomly.fromOptions(Action.values());
@@ -53,7 +52,12 @@ public final class GeneralAlterTableGenerator {
             sb.append(GeneralCompositeDataType.getRandomWithoutNull().toString());
             if (Randomly.getBoolean()) {
                 sb.append(" USING ");
-                sb.append(GeneralToStringVisitor.asString(gen.generateExpression()));
+                GeneralExpressionGenerator gen = globalState.acquireUntypedExpressionGenerator(table.getColumns());
+                try {
+                    GeneralToStringVisitor.appendTo(sb, gen.generateExpression());
+                } finally {
+                    globalState.releaseExpressionGenerator(gen);
+                }
             }
             // no need to change the schema
             couldAffectSchema = false;
@@ -1,12 +1,15 @@
 package sqlancer.general.gen;
 
 import sqlancer.Randomly;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.common.gen.ExpressionGenerator;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.SQLQueryAdapter;
 import sqlancer.general.GeneralErrors;
 import sqlancer.general.GeneralProvider.GeneralGlobalState;
 import sqlancer.general.GeneralSchema.GeneralTable;
 import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.ast.GeneralExpression;
 
 public final class GeneralDeleteGenerator {
 
@@ -20,8 +23,13 @@ public final class GeneralDeleteGenerator {
         sb.append(table.getName());
         if (Randomly.getBoolean()) {
             sb.append(" WHERE ");
-            sb.append(GeneralToStringVisitor.asString(GeneralRandomQuerySynthesizer
-                    .getExpressionGenerator(globalState, table.getColumns()).generateExpression()));
+            ExpressionGenerator<Node<GeneralExpression>> gen = GeneralRandomQuerySynthesizer
+                    .getExpressionGenerator(globalState, table.getColumns());
+            try {
+                GeneralToStringVisitor.appendTo(sb, gen.generateExpression());
+            } finally {
+                globalState.releaseExpressionGenerator(gen);
+            }
         }
         GeneralErrors.addExpressionErrors(errors);
         return new SQLQueryAdapter(sb.toString(), errors);
@@ -45,6 +45,16 @@ public final class GeneralExpressionGenerator
         this.globalState = globalState;
     }
 
+    /**
+     * Resets the generator so that the instance can be reused, see
+     * {@link GeneralGlobalState#acquireUntypedExpressionGenerator(List)}.
+     */
+    public GeneralExpressionGenerator reset(List<GeneralColumn> columns) {
+        this.columns = columns;
+        this.allowAggregates = false;
+        return this;
+    }
+
     @Override
     public Node<GeneralExpression> generateExpression(boolean isTyped) {
         return generateExpression(0);
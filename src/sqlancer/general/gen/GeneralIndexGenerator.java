@@ -23,6 +23,7 @@ import sqlancer.general.learner.GeneralStringBuilder;
 public final class GeneralIndexGenerator {
 
     private static GeneralIndexFragments fragments = new GeneralIndexFragments();
+    private static final Pattern TEST_COLUMN_PATTERN = Pattern.compile("TEST_COLUMN(\\d+)");
     private static final String CONFIG_NAME = "indexgenerator.txt";
     private static final String STATEMENT = "CREATE_INDEX";
     private static final SQLFeature FEATURE = SQLFeature.CLAUSE;
@@ -70,10 +71,41 @@ public final class GeneralIndexGenerator {
                 matcher.appendReplacement(result, replacement);
             }
             matcher.appendTail(result);
-            queries.add(result.toString());
+            String statement = bindSketchTable(globalState, result.toString());
+            if (statement != null) {
+                queries.add(statement);
+            }
             return queries;
         }
 
+        /**
+         * The sketch refers to the indexed table as TEST_TABLE and to its columns as TEST_COLUMN&lt;i&gt;. For the
+         * validation, they are bound to a table of the schema that has enough columns.
+         *
+         * @return null if there is no such table
+         */
+        private String bindSketchTable(GeneralGlobalState globalState, String statement) {
+            Matcher columnMatcher = TEST_COLUMN_PATTERN.matcher(statement);
+            int nrColumns = 0;
+            while (columnMatcher.find()) {
+                nrColumns = Math.max(nrColumns, Integer.parseInt(columnMatcher.group(1)) + 1);
+            }
+            int requiredColumns = Math.max(1, nrColumns);
+            GeneralTable table = globalState.getSchema().getDatabaseTablesWithoutViews().stream()
+                    .filter(t -> t.getColumns().size() >= requiredColumns).findFirst().orElse(null);
+            if (table == null) {
+                return null;
+            }
+            columnMatcher.reset();
+            StringBuffer bound = new StringBuffer();
+            while (columnMatcher.find()) {
+                String column = table.getColumns().get(Integer.parseInt(columnMatcher.group(1))).getName();
+                columnMatcher.appendReplacement(bound, Matcher.quoteReplacement(column));
+            }
+            columnMatcher.appendTail(bound);
+            return bound.toString().replace("TEST_TABLE", table.getName());
+        }
+
         @Override
         public String getConfigName() {
             return CONFIG_NAME;
@@ -1,5 +1,6 @@
 package sqlancer.general.gen;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -66,11 +67,20 @@ public class GeneralInsertGenerator extends AbstractInsertGenerator<GeneralColum
     protected void insertValue(GeneralColumn columnGeneral) {
         if (globalState.getHandler().getOption(GeneratorNode.UNTYPE_EXPR)
                 || Randomly.getBooleanWithSmallProbability()) {
-            sb.append(GeneralToStringVisitor.asString(new GeneralExpressionGenerator(globalState).generateConstant()));
+            GeneralExpressionGenerator gen = globalState.acquireUntypedExpressionGenerator(Collections.emptyList());
+            try {
+                GeneralToStringVisitor.appendTo(sb, gen.generateConstant());
+            } finally {
+                globalState.releaseExpressionGenerator(gen);
+            }
         } else {
             GeneralCompositeDataType columnType = columnGeneral.getType();
-            sb.append(GeneralToStringVisitor
-                    .asString(new GeneralTypedExpressionGenerator(globalState).generateConstant(columnType)));
+            GeneralTypedExpressionGenerator gen = globalState.acquireTypedExpressionGenerator(Collections.emptyList());
+            try {
+                GeneralToStringVisitor.appendTo(sb, gen.generateConstant(columnType));
+            } finally {
+                globalState.releaseExpressionGenerator(gen);
+            }
         }
     }
 
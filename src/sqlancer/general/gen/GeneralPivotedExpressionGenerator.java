@@ -0,0 +1,127 @@
+package sqlancer.general.gen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import sqlancer.Randomly;
+import sqlancer.common.ast.newast.NewBinaryOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPostfixOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPrefixOperatorNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralErrorHandler;
+import sqlancer.general.GeneralErrorHandler.GeneratorNode;
+import sqlancer.general.GeneralExpressionEvaluator;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralCompositeDataType;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.ast.GeneralBinaryComparisonOperator;
+import sqlancer.general.ast.GeneralBinaryLogicalOperator;
+import sqlancer.general.ast.GeneralColumnReference;
+import sqlancer.general.ast.GeneralConstant;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.ast.GeneralUnaryPostfixOperator;
+import sqlancer.general.ast.GeneralUnaryPrefixOperator;
+
+/**
+ * Generates the predicates of pivoted query synthesis, restricted to the expressions that
+ * {@link GeneralExpressionEvaluator} can evaluate. Operators that the error handler has disabled for the DBMS under
+ * test are not used.
+ */
+public class GeneralPivotedExpressionGenerator extends GeneralTypedExpressionGenerator {
+
+    private static final List<GeneralBinaryComparisonOperator> COMPARISONS = List.of(
+            GeneralBinaryComparisonOperator.EQUALS, GeneralBinaryComparisonOperator.NOT_EQUALS,
+            GeneralBinaryComparisonOperator.NOT_EQUALS2, GeneralBinaryComparisonOperator.SMALLER,
+            GeneralBinaryComparisonOperator.SMALLER_EQUALS, GeneralBinaryComparisonOperator.GREATER,
+            GeneralBinaryComparisonOperator.GREATER_EQUALS);
+
+    private enum Action {
+        NOT, AND_OR, COMPARISON, IS_NULL, LEAF
+    }
+
+    private final List<GeneralColumn> nullCheckColumns;
+
+    /**
+     * @param columns
+     *            the columns whose values are known as integers or booleans
+     * @param nullCheckColumns
+     *            the columns of which it is only known whether they are NULL
+     */
+    public GeneralPivotedExpressionGenerator(GeneralGlobalState globalState, List<GeneralColumn> columns,
+            List<GeneralColumn> nullCheckColumns) {
+        super(globalState);
+        this.columns = columns;
+        this.nullCheckColumns = nullCheckColumns;
+    }
+
+    @Override
+    public Node<GeneralExpression> generateExpression(GeneralCompositeDataType type, int depth) {
+        if (type.getPrimitiveDataType() != GeneralDataType.BOOLEAN) {
+            return generateLeafNode(GeneralDataType.INT.get());
+        }
+        GeneralErrorHandler handler = getGlobalState().getHandler();
+        List<Action> actions = new ArrayList<>();
+        actions.add(Action.LEAF);
+        if (depth < getGlobalState().getOptions().getMaxExpressionDepth()) {
+            if (handler.getOption(GeneratorNode.UNOT)) {
+                actions.add(Action.NOT);
+            }
+            if (handler.getOption(GeneratorNode.LOPAND) || handler.getOption(GeneratorNode.LOPOR)) {
+                actions.add(Action.AND_OR);
+            }
+            if (canGenerateColumnOfType(GeneralDataType.INT.get()) && !getComparisons(handler).isEmpty()) {
+                actions.add(Action.COMPARISON);
+            }
+            if (!nullCheckColumns.isEmpty() || !columns.isEmpty()) {
+                actions.add(Action.IS_NULL);
+            }
+        }
+        switch (Randomly.fromList(actions)) {
+        case NOT:
+            return new NewUnaryPrefixOperatorNode<>(generateExpression(type, depth + 1),
+                    GeneralUnaryPrefixOperator.NOT);
+        case AND_OR:
+            GeneralBinaryLogicalOperator op;
+            if (!handler.getOption(GeneratorNode.LOPOR)) {
+                op = GeneralBinaryLogicalOperator.AND;
+            } else if (!handler.getOption(GeneratorNode.LOPAND)) {
+                op = GeneralBinaryLogicalOperator.OR;
+            } else {
+                op = Randomly.fromOptions(GeneralBinaryLogicalOperator.values());
+            }
+            return new NewBinaryOperatorNode<>(generateExpression(type, depth + 1),
+                    generateExpression(type, depth + 1), op);
+        case COMPARISON:
+            return new NewBinaryOperatorNode<>(generateLeafNode(GeneralDataType.INT.get()),
+                    generateLeafNode(GeneralDataType.INT.get()), Randomly.fromList(getComparisons(handler)));
+        case IS_NULL:
+            List<GeneralColumn> candidates = new ArrayList<>(columns);
+            candidates.addAll(nullCheckColumns);
+            return new NewUnaryPostfixOperatorNode<>(new GeneralColumnReference(Randomly.fromList(candidates)),
+                    Randomly.fromOptions(GeneralUnaryPostfixOperator.values()));
+        case LEAF:
+            return generateLeafNode(type);
+        default:
+            throw new AssertionError();
+        }
+    }
+
+    private static List<GeneralBinaryComparisonOperator> getComparisons(GeneralErrorHandler handler) {
+        return COMPARISONS.stream().filter(op -> handler.getOption(GeneratorNode.valueOf(op.name())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Node<GeneralExpression> generateConstant(GeneralCompositeDataType type) {
+        if (Randomly.getBooleanWithRatherLowProbability()) {
+            return GeneralConstant.createNullConstant();
+        }
+        if (type.getPrimitiveDataType() == GeneralDataType.BOOLEAN) {
+            return GeneralConstant.createBooleanConstant(Randomly.getBoolean());
+        }
+        return GeneralConstant.createIntConstant(getGlobalState().getRandomly().getInteger());
+    }
+
+}
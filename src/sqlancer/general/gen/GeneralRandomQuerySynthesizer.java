@@ -27,10 +27,19 @@ public final class GeneralRandomQuerySynthesizer {
     }
 
     public static GeneralSelect generateSelect(GeneralGlobalState globalState, List<GeneralColumn> columns) {
-        GeneralTables targetTables = globalState.getSchema().getRandomTableNonEmptyTables();
+        GeneralTables targetTables = globalState.getSchema()
+                .getRandomTableNonEmptyTables(globalState.getDbmsSpecificOptions().maxCrossProductRows);
         // TODO currently it only support Typed expressions
-        GeneralTypedExpressionGenerator gen = new GeneralTypedExpressionGenerator(globalState)
-                .setColumns(targetTables.getColumns());
+        GeneralTypedExpressionGenerator gen = globalState.acquireTypedExpressionGenerator(targetTables.getColumns());
+        try {
+            return generateSelect(globalState, columns, targetTables, gen);
+        } finally {
+            globalState.releaseExpressionGenerator(gen);
+        }
+    }
+
+    private static GeneralSelect generateSelect(GeneralGlobalState globalState, List<GeneralColumn> columns,
+            GeneralTables targetTables, GeneralTypedExpressionGenerator gen) {
         GeneralSelect select = new GeneralSelect();
         // TODO: distinct
         // select.setDistinct(Randomly.getBoolean());
@@ -52,7 +61,12 @@ public final class GeneralRandomQuerySynthesizer {
         select.setJoinList(joins.stream().collect(Collectors.toList()));
         select.setFromList(tableList.stream().collect(Collectors.toList()));
         if (Randomly.getBoolean()) {
-            select.setWhereClause(getExpressionGenerator(globalState, columns).generateExpression());
+            ExpressionGenerator<Node<GeneralExpression>> whereGen = getExpressionGenerator(globalState, columns);
+            try {
+                select.setWhereClause(whereGen.generateExpression());
+            } finally {
+                globalState.releaseExpressionGenerator(whereGen);
+            }
         }
         if (Randomly.getBoolean()) {
             select.setOrderByExpressions(gen.generateOrderBys());
@@ -75,25 +89,37 @@ public final class GeneralRandomQuerySynthesizer {
         return select;
     }
 
+    /**
+     * Returns a typed or an untyped generator of the state, which the caller hands back with
+     * {@link GeneralGlobalState#releaseExpressionGenerator(ExpressionGenerator)} once it is done with it.
+     */
     public static ExpressionGenerator<Node<GeneralExpression>> getExpressionGenerator(GeneralGlobalState globalState,
             List<GeneralColumn> columns) {
         ExpressionGenerator<Node<GeneralExpression>> gen;
         if (globalState.getHandler().getOption(GeneratorNode.UNTYPE_EXPR)
                 || Randomly.getBooleanWithSmallProbability()) {
-            gen = new GeneralExpressionGenerator(globalState).setColumns(columns);
+            gen = globalState.acquireUntypedExpressionGenerator(columns);
             globalState.getHandler().addScore(GeneratorNode.UNTYPE_EXPR);
         } else {
-            gen = new GeneralTypedExpressionGenerator(globalState).setColumns(columns);
+            gen = globalState.acquireTypedExpressionGenerator(columns);
         }
         return gen;
     }
 
     public static GeneralSubquery generateSubquery(GeneralGlobalState globalState, String name,
             GeneralTables targetTables) {
+        GeneralTypedExpressionGenerator gen = globalState.acquireTypedExpressionGenerator(targetTables.getColumns());
+        try {
+            return generateSubquery(name, targetTables, gen);
+        } finally {
+            globalState.releaseExpressionGenerator(gen);
+        }
+    }
+
+    private static GeneralSubquery generateSubquery(String name, GeneralTables targetTables,
+            GeneralTypedExpressionGenerator gen) {
         List<Node<GeneralExpression>> columns = new ArrayList<>();
         List<GeneralColumn> colRefs = new ArrayList<>();
-        GeneralTypedExpressionGenerator gen = new GeneralTypedExpressionGenerator(globalState)
-                .setColumns(targetTables.getColumns());
         for (int i = 0; i < Randomly.smallNumber() + 1; i++) {
             GeneralColumn c = new GeneralColumn(String.format("col%d", i),
                     GeneralCompositeDataType.getRandomWithoutNull(), false, false);
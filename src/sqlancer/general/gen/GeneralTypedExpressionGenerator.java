@@ -49,6 +49,17 @@ public class GeneralTypedExpressionGenerator
         this.globalState = globalState;
     }
 
+    /**
+     * Resets the generator so that the instance can be reused, see
+     * {@link GeneralGlobalState#acquireTypedExpressionGenerator(List)}.
+     */
+    public GeneralTypedExpressionGenerator reset(List<GeneralColumn> columns) {
+        this.columns = columns;
+        this.allowAggregates = false;
+        this.nullFlag = false;
+        return this;
+    }
+
     @Override
     public Node<GeneralExpression> generateExpression() {
         return generateExpression(GeneralDataType.BOOLEAN.get());
@@ -32,18 +32,22 @@ public final class GeneralUpdateGenerator extends AbstractUpdateGenerator<Genera
         GeneralTable table = globalState.getSchema().getRandomTableOrBailout(t -> !t.isView() && !t.getColumns().isEmpty());
         List<GeneralColumn> columns = table.getRandomNonEmptyColumnSubset();
         gen = GeneralRandomQuerySynthesizer.getExpressionGenerator(globalState, columns);
-        GeneralErrors.addInsertErrors(errors);
-        sb.append("UPDATE ");
-        sb.append(table.getName());
-        sb.append(" SET ");
-        updateColumns(columns);
-        if (globalState.getHandler().getOption(GeneratorNode.UPDATE_WHERE) && Randomly.getBoolean()) {
-            sb.append(" WHERE ");
-            sb.append(GeneralToStringVisitor.asString(gen.generateExpression()));
-            globalState.getHandler().addScore(GeneratorNode.UPDATE_WHERE);
-        }
+        try {
+            GeneralErrors.addInsertErrors(errors);
+            sb.append("UPDATE ");
+            sb.append(table.getName());
+            sb.append(" SET ");
+            updateColumns(columns);
+            if (globalState.getHandler().getOption(GeneratorNode.UPDATE_WHERE) && Randomly.getBoolean()) {
+                sb.append(" WHERE ");
+                GeneralToStringVisitor.appendTo(sb, gen.generateExpression());
+                globalState.getHandler().addScore(GeneratorNode.UPDATE_WHERE);
+            }
 
-        return new SQLQueryAdapter(sb.toString(), errors);
+            return new SQLQueryAdapter(sb.toString(), errors);
+        } finally {
+            globalState.releaseExpressionGenerator(gen);
+        }
     }
 
     @Override
@@ -65,7 +69,7 @@ public final class GeneralUpdateGenerator extends AbstractUpdateGenerator<Genera
                 expr = gen.generateConstant();
             }
         }
-        sb.append(GeneralToStringVisitor.asString(expr));
+        GeneralToStringVisitor.appendTo(sb, expr);
     }
 
 }
@@ -47,7 +47,7 @@ public final class GeneralViewGenerator {
         HashMap<String, Integer> tmpCompositeScore = new HashMap<>(
                 globalState.getHandler().getGeneratorInfo().getCompositeGeneratorScore());
         GeneralSelect select = GeneralRandomQuerySynthesizer.generateSelect(globalState, columns);
-        sb.append(GeneralToStringVisitor.asString(select));
+        GeneralToStringVisitor.appendTo(sb, select);
         GeneralTable newTable = new GeneralTable(viewName, columns, true);
         newTable.getColumns().forEach(c -> c.setTable(newTable));
         globalState.setUpdateTable(newTable);
@@ -0,0 +1,107 @@
+package sqlancer.general.learner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import sqlancer.Main;
+import sqlancer.general.learner.GeneralFragments.GeneralFragmentVariable;
+
+/**
+ * Binary cache of tokenized fragment config files (e.g., {@code dbconfigs/<engine>/typegenerator.txt}), stored in the
+ * directory given by {@code --fragment-cache-directory}, by default {@code logs/fragment-cache/}. An entry is only used
+ * while the modification time and the size of the config file match the ones recorded in the entry.
+ */
+public final class GeneralFragmentFileCache {
+
+    public static final File DEFAULT_DIRECTORY = new File(Main.LOG_DIRECTORY, "fragment-cache");
+    // bump when the tokenizer or the file layout changes
+    private static final int VERSION = 1;
+
+    static final class ParsedFragment {
+        final String key;
+        final String fmtString;
+        final List<GeneralFragmentVariable> vars;
+
+        ParsedFragment(String key, String fmtString, List<GeneralFragmentVariable> vars) {
+            this.key = key;
+            this.fmtString = fmtString;
+            this.vars = vars;
+        }
+    }
+
+    private GeneralFragmentFileCache() {
+    }
+
+    /**
+     * Returns the cached fragments of the config file, or {@code null} if there is no up-to-date entry.
+     */
+    static List<ParsedFragment> read(File directory, File configFile, String owner) {
+        File cacheFile = getCacheFile(directory, configFile, owner);
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != VERSION || in.readLong() != configFile.lastModified()
+                    || in.readLong() != configFile.length()) {
+                return null;
+            }
+            int nrFragments = in.readInt();
+            List<ParsedFragment> fragments = new ArrayList<>(nrFragments);
+            for (int i = 0; i < nrFragments; i++) {
+                String key = in.readUTF();
+                String fmtString = in.readUTF();
+                int nrVars = in.readInt();
+                List<GeneralFragmentVariable> vars = new ArrayList<>(nrVars);
+                for (int j = 0; j < nrVars; j++) {
+                    vars.add(GeneralFragmentVariable.valueOf(in.readUTF()));
+                }
+                fragments.add(new ParsedFragment(key, fmtString, vars));
+            }
+            return fragments;
+        } catch (IOException | IllegalArgumentException e) {
+            // corrupt or outdated entry, parse the config file again
+            return null;
+        }
+    }
+
+    static void write(File directory, File configFile, String owner, List<ParsedFragment> fragments) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        File cacheFile = getCacheFile(directory, configFile, owner);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(cacheFile)))) {
+            out.writeInt(VERSION);
+            out.writeLong(configFile.lastModified());
+            out.writeLong(configFile.length());
+            out.writeInt(fragments.size());
+            for (ParsedFragment fragment : fragments) {
+                out.writeUTF(fragment.key);
+                out.writeUTF(fragment.fmtString);
+                out.writeInt(fragment.vars.size());
+                for (GeneralFragmentVariable var : fragment.vars) {
+                    out.writeUTF(var.name());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (!cacheFile.delete()) {
+                System.err.println("Could not delete fragment cache entry " + cacheFile);
+            }
+        }
+    }
+
+    private static File getCacheFile(File directory, File configFile, String owner) {
+        String key = GeneralLearnerCache.computeKey(configFile.getAbsolutePath(), owner);
+        return new File(directory, String.format("%s-%s.bin", configFile.getName(), key.substring(0, 16)));
+    }
+
+}
@@ -0,0 +1,336 @@
+package sqlancer.general.learner;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.StateToReproduce;
+import sqlancer.general.GeneralErrorHandler.GeneratorNode;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.learner.GeneralFragments.GeneralFragmentChoice;
+
+/**
+ * Validates learned fragments against the DBMS under test.
+ *
+ * The candidates are validated concurrently on a few scratch databases, which are set up like the fuzzing database and
+ * into which the base tables of the schema are replayed, so that fragments that refer to the schema can be validated
+ * without touching the fuzzing database. Where the tables of all databases share one namespace, a scratch database is
+ * a set of tables prefixed with its name instead, as for the fuzzing databases. If the engine rolls back DDL, each
+ * scratch database is set up once and each candidate runs in a transaction that is rolled back afterwards. Otherwise,
+ * the scratch database is set up again for each candidate, so that a candidate never sees the objects of another.
+ */
+public class GeneralFragmentValidator {
+
+    private static final String FEATURE_TABLE = "TEST_FEATURE";
+    private static final String SKETCH_TABLE = "TEST_TABLE";
+    private static final int MAX_SCRATCH_DATABASES = 4;
+
+    private static final ExecutorService VALIDATOR_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sqlancer-fragment-validator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final GeneralGlobalState globalState;
+    private final GeneralFragments fragments;
+    private final GeneralDatabaseEngineFactory factory;
+    // the table name prefix of the fuzzing database, if the tables share one namespace
+    private final String tablePrefix;
+
+    public enum Verdict {
+        VALID, INVALID, SKIPPED
+    }
+
+    public static final class Candidate {
+        private final String key;
+        private final GeneralFragmentChoice choice;
+        private final String concreteFragment;
+
+        public Candidate(String key, GeneralFragmentChoice choice, String concreteFragment) {
+            this.key = key;
+            this.choice = choice;
+            this.concreteFragment = concreteFragment;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public GeneralFragmentChoice getChoice() {
+            return choice;
+        }
+    }
+
+    public static final class Result {
+        private final Candidate candidate;
+        private final Verdict verdict;
+        private final List<String> statements;
+        private final String error;
+
+        Result(Candidate candidate, Verdict verdict, List<String> statements, String error) {
+            this.candidate = candidate;
+            this.verdict = verdict;
+            this.statements = statements;
+            this.error = error;
+        }
+
+        public Candidate getCandidate() {
+            return candidate;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        public List<String> getStatements() {
+            return statements;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%s: %s", verdict, candidate.choice));
+            if (error != null) {
+                sb.append(" (");
+                sb.append(error);
+                sb.append(")");
+            }
+            return sb.toString();
+        }
+    }
+
+    public static final class Report {
+        private final List<Result> results;
+        private final long elapsedMillis;
+
+        Report(List<Result> results, long elapsedMillis) {
+            this.results = results;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<Result> getResults() {
+            return results;
+        }
+
+        public long count(Verdict verdict) {
+            return results.stream().filter(r -> r.verdict == verdict).count();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Validated %d fragments in %d ms: %d valid, %d invalid, %d skipped", results.size(),
+                    elapsedMillis, count(Verdict.VALID), count(Verdict.INVALID), count(Verdict.SKIPPED));
+        }
+    }
+
+    public GeneralFragmentValidator(GeneralGlobalState globalState, GeneralFragments fragments) {
+        this.globalState = globalState;
+        this.fragments = fragments;
+        factory = globalState.getDbmsSpecificOptions().getDatabaseEngineFactory();
+        if (globalState.getHandler().getOption(GeneratorNode.CREATE_DATABASE)) {
+            tablePrefix = null;
+        } else {
+            tablePrefix = globalState.getDatabaseName() + globalState.getDbmsSpecificOptions().dbTableDelim;
+        }
+    }
+
+    public Report validate(List<Candidate> candidates) {
+        long start = System.currentTimeMillis();
+        // the statements are generated here, as the generators use the random stream of the calling thread
+        List<List<String>> statements = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            statements.add(fragments.genValStatements(globalState, candidate.key, candidate.concreteFragment,
+                    FEATURE_TABLE));
+        }
+        Result[] results = new Result[candidates.size()];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> scratchDatabases = new ArrayList<>();
+        int nrScratchDatabases = Math.min(candidates.size(), MAX_SCRATCH_DATABASES);
+        for (int i = 0; i < nrScratchDatabases; i++) {
+            ScratchDatabase scratch = new ScratchDatabase(globalState.getDatabaseName() + "_val" + i);
+            scratchDatabases.add(VALIDATOR_EXECUTOR.submit(() -> {
+                try {
+                    for (int j = next.getAndIncrement(); j < results.length; j = next.getAndIncrement()) {
+                        results[j] = scratch.validate(candidates.get(j), statements.get(j));
+                    }
+                } finally {
+                    scratch.close();
+                }
+            }));
+        }
+        for (Future<?> scratchDatabase : scratchDatabases) {
+            try {
+                scratchDatabase.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IgnoreMeException();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new AssertionError(e.getCause());
+            }
+        }
+        return new Report(Arrays.asList(results), System.currentTimeMillis() - start);
+    }
+
+    private List<String> getSchemaStatements() {
+        List<String> statements = new ArrayList<>();
+        for (GeneralTable table : globalState.getSchema().getDatabaseTablesWithoutViews()) {
+            if (table.getColumns().isEmpty()) {
+                continue;
+            }
+            statements.add(String.format("CREATE TABLE %s (%s)", table.getName(), table.getColumns().stream()
+                    .map(c -> c.getName() + " " + c.getType()).collect(Collectors.joining(", "))));
+        }
+        return statements;
+    }
+
+    /**
+     * A scratch database with a connection of its own, which validates one candidate at a time.
+     */
+    private final class ScratchDatabase {
+
+        private final GeneralGlobalState scratchState;
+        // the table name prefix of the scratch database, if the tables share one namespace
+        private final String scratchTablePrefix;
+        private final List<String> schemaStatements;
+        // the connection that is reused for the candidates if the engine rolls back DDL
+        private Connection conn;
+        private String setUpError;
+
+        ScratchDatabase(String scratchName) {
+            scratchState = new GeneralGlobalState();
+            scratchState.setMainOptions(globalState.getOptions());
+            scratchState.setDbmsSpecificOptions(globalState.getDbmsSpecificOptions());
+            scratchState.setDatabaseName(scratchName);
+            scratchState.setState(new StateToReproduce(scratchName, new GeneralProvider()));
+            scratchTablePrefix = tablePrefix == null ? null
+                    : scratchName + globalState.getDbmsSpecificOptions().dbTableDelim;
+            schemaStatements = getSchemaStatements().stream().map(this::toScratch).collect(Collectors.toList());
+        }
+
+        Result validate(Candidate candidate, List<String> candidateStatements) {
+            List<String> statements = candidateStatements.stream().map(this::toScratch).collect(Collectors.toList());
+            if (statements.isEmpty()) {
+                return new Result(candidate, Verdict.SKIPPED, statements, null);
+            }
+            if (!factory.supportsTransactionalDdl()) {
+                Result result = setUp() ? execute(candidate, statements) : null;
+                close();
+                return result == null ? new Result(candidate, Verdict.SKIPPED, statements, setUpError) : result;
+            }
+            if (conn == null && setUpError == null && setUp()) {
+                try {
+                    conn.setAutoCommit(false);
+                } catch (SQLException e) {
+                    setUpError = "the scratch database could not be set up: " + e.getMessage();
+                    close();
+                }
+            }
+            if (conn == null) {
+                return new Result(candidate, Verdict.SKIPPED, statements, setUpError);
+            }
+            try {
+                return execute(candidate, statements);
+            } finally {
+                try {
+                    conn.rollback();
+                } catch (SQLException e) {
+                    // the next candidate must not see the objects of this one
+                    setUpError = "the scratch database could not be rolled back: " + e.getMessage();
+                    close();
+                }
+            }
+        }
+
+        private boolean setUp() {
+            try {
+                conn = factory.cleanOrSetUpDatabase(scratchState, scratchState.getDatabaseName());
+            } catch (SQLException e) {
+                setUpError = "the scratch database could not be set up: " + e.getMessage();
+                return false;
+            }
+            if (scratchTablePrefix != null) {
+                // the tables of the sketches are not dropped with the database
+                dropQuietly(conn, toScratch(SKETCH_TABLE));
+                dropQuietly(conn, toScratch(FEATURE_TABLE));
+            }
+            try (Statement s = conn.createStatement()) {
+                for (String statement : schemaStatements) {
+                    s.execute(statement);
+                }
+            } catch (SQLException e) {
+                setUpError = "the schema could not be replayed: " + e.getMessage();
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        private Result execute(Candidate candidate, List<String> statements) {
+            try (Statement s = conn.createStatement()) {
+                for (String statement : statements) {
+                    s.execute(statement);
+                }
+                return new Result(candidate, Verdict.VALID, statements, null);
+            } catch (SQLException e) {
+                return new Result(candidate, Verdict.INVALID, statements, e.getMessage());
+            }
+        }
+
+        void close() {
+            if (conn == null) {
+                return;
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                // the scratch database is set up again before its next use
+            }
+            conn = null;
+        }
+
+        /**
+         * Moves the tables of a statement from the fuzzing database to the scratch database.
+         */
+        private String toScratch(String statement) {
+            if (scratchTablePrefix == null) {
+                return statement;
+            }
+            return statement.replace(tablePrefix, scratchTablePrefix)
+                    .replace(SKETCH_TABLE, scratchTablePrefix + SKETCH_TABLE)
+                    .replace(FEATURE_TABLE, scratchTablePrefix + FEATURE_TABLE);
+        }
+    }
+
+    private static void dropQuietly(Connection conn, String tableName) {
+        try (Statement s = conn.createStatement()) {
+            s.execute("DROP TABLE " + tableName);
+        } catch (SQLException e) {
+            // the table usually does not exist
+        }
+    }
+
+}
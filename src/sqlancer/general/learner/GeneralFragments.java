@@ -10,10 +10,14 @@ import java.io.StringReader;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,10 +37,16 @@ import sqlancer.general.gen.GeneralRandomQuerySynthesizer;
 
 public abstract class GeneralFragments {
 
-    private boolean learnFlag;
+    // set while a learning sketch is generated; per thread, so that the workers that generate from the fragments
+    // meanwhile do not emit placeholders
+    private final ThreadLocal<Boolean> learnFlag = ThreadLocal.withInitial(() -> false);
     public static final String PLACEHOLDER = "{%d}";
-    private Map<String, List<GeneralFragmentChoice>> fragments = new HashMap<>();
-    private final Map<String, List<GeneralFragmentChoice>> newFragments = new HashMap<>();
+    // the batches that the current thread loads, per fragments object (see loadInBatch)
+    private static final ThreadLocal<Map<GeneralFragments, Batch>> BATCHES = new ThreadLocal<>();
+    // published snapshot: both the map and its lists are never modified after publication, so readers do not lock.
+    // Writers build a modified copy and swap it in while holding the lock of this object.
+    private volatile Map<String, List<GeneralFragmentChoice>> fragments = Collections.emptyMap();
+    protected static final Pattern VARIABLE_PATTERN = Pattern.compile("<([^>]*)>");
     protected String currentSketch = "";
 
     protected enum GeneralFragmentVariable {
@@ -75,7 +85,11 @@ public abstract class GeneralFragments {
                 columns = table.getColumns();
                 gen = GeneralRandomQuerySynthesizer.getExpressionGenerator(g, columns);
             }
-            return gen.generateExpression();
+            try {
+                return gen.generateExpression();
+            } finally {
+                g.releaseExpressionGenerator(gen);
+            }
         }, "Random expression based on current or random table"), RANDOM_POSITIVE_INT((g) -> {
             return GeneralConstant.createIntConstant(g.getRandomly().getPositiveIntegerInt());
         }, "Random positive integer"), RANDOM_DATE((g) -> {
@@ -95,7 +109,6 @@ public abstract class GeneralFragments {
             }
         };
 
-        private Node<GeneralExpression> node;
         private GeneralVariableGenerator<GeneralGlobalState> generator;
         private String description = "";
 
@@ -108,13 +121,13 @@ public abstract class GeneralFragments {
             this.description = description;
         }
 
-        public void genVariable(GeneralGlobalState state) {
-            node = generator.generate(state);
-        }
-
-        @Override
-        public String toString() {
-            return GeneralToStringVisitor.asString(node);
+        /**
+         * Generates a value of the variable. The value is returned rather than stored in the constant, as the workers
+         * and the learning jobs generate values concurrently.
+         */
+        public String generate(GeneralGlobalState state) {
+            Node<GeneralExpression> node = generator.generate(state);
+            return node == null ? "" : GeneralToStringVisitor.asString(node);
         }
 
         public String getDescription() {
@@ -135,10 +148,7 @@ public abstract class GeneralFragments {
         }
 
         public String toString(GeneralGlobalState state) {
-            for (GeneralFragmentVariable var : vars) {
-                var.genVariable(state);
-            }
-            return String.format(fmtString, vars.stream().map(var -> var.toString()).toArray());
+            return String.format(fmtString, vars.stream().map(var -> var.generate(state)).toArray());
         }
 
         @Override
@@ -178,36 +188,133 @@ public abstract class GeneralFragments {
     }
 
     public GeneralFragments() {
-        this.fragments = new HashMap<>();
     }
 
     public void setLearn(boolean learnFlag) {
-        this.learnFlag = learnFlag;
+        this.learnFlag.set(learnFlag);
     }
 
     public boolean getLearn() {
-        return learnFlag;
+        return learnFlag.get();
     }
 
+    /**
+     * Returns the current, read-only snapshot of the fragments.
+     */
     public Map<String, List<GeneralFragmentChoice>> getFragments() {
         return fragments;
     }
 
-    public void addFragment(String key, String fmtString, List<GeneralFragmentVariable> vars) {
-        if (!fragments.containsKey(key)) {
-            fragments.put(key, new ArrayList<>());
+    /**
+     * The fragments that a thread adds in a batch. They are only visible to that thread until the batch is published.
+     */
+    private final class Batch {
+
+        private final Map<String, List<GeneralFragmentChoice>> added = new HashMap<>();
+        // per key, the format strings of the published fragments and of the added ones, for the duplicate checks
+        private final Map<String, Set<String>> fmtStrings = new HashMap<>();
+        // tokenized fragments of the config file that is currently parsed, if any
+        private List<GeneralFragmentFileCache.ParsedFragment> recorded;
+
+        private Set<String> getFmtStrings(String key) {
+            return fmtStrings.computeIfAbsent(key, k -> GeneralFragments.getFmtStrings(fragments.get(k)));
         }
-        if (!newFragments.containsKey(key)) {
-            newFragments.put(key, new ArrayList<>());
+
+        private void add(GeneralFragmentChoice choice) {
+            getFmtStrings(choice.key).add(choice.fmtString);
+            added.computeIfAbsent(choice.key, k -> new ArrayList<>()).add(choice);
+        }
+
+        private boolean remove(GeneralFragmentChoice choice) {
+            List<GeneralFragmentChoice> choices = added.get(choice.key);
+            if (choices == null || !choices.remove(choice)) {
+                return false;
+            }
+            fmtStrings.get(choice.key).remove(choice.fmtString);
+            return true;
+        }
+    }
+
+    private static Set<String> getFmtStrings(List<GeneralFragmentChoice> choices) {
+        Set<String> fmtStrings = new HashSet<>();
+        if (choices != null) {
+            for (GeneralFragmentChoice choice : choices) {
+                fmtStrings.add(choice.fmtString);
+            }
+        }
+        return fmtStrings;
+    }
+
+    /**
+     * Runs the loader and publishes the fragments that it adds at once, rather than copying the fragments for every
+     * added one. The fragments are collected by the calling thread without locking, so that the workers that update
+     * the fragments by feedback meanwhile do not wait for the loader, which might parse learned fragments and validate
+     * them on the database. If the thread already loads a batch, the fragments are added to that one, which also
+     * holds the fragments that are added to other fragments objects in the meantime.
+     */
+    protected void loadInBatch(Runnable loader) {
+        if (BATCHES.get() != null) {
+            loader.run();
+            return;
+        }
+        Map<GeneralFragments, Batch> batches = new IdentityHashMap<>();
+        BATCHES.set(batches);
+        try {
+            loader.run();
+        } finally {
+            BATCHES.remove();
+            for (Map.Entry<GeneralFragments, Batch> batch : batches.entrySet()) {
+                batch.getKey().publish(batch.getValue());
+            }
         }
+    }
+
+    private Batch getBatch() {
+        return BATCHES.get().computeIfAbsent(this, f -> new Batch());
+    }
+
+    /**
+     * Adds the fragments of the batch to the current snapshot with a single copy. Fragments that were published by
+     * another batch in the meantime are skipped, and fragments that were removed by feedback stay removed.
+     */
+    private synchronized void publish(Batch batch) {
+        if (batch.added.isEmpty()) {
+            return;
+        }
+        Map<String, List<GeneralFragmentChoice>> updated = new HashMap<>(fragments);
+        for (Map.Entry<String, List<GeneralFragmentChoice>> entry : batch.added.entrySet()) {
+            List<GeneralFragmentChoice> current = updated.get(entry.getKey());
+            if (entry.getValue().isEmpty() && current != null) {
+                continue;
+            }
+            List<GeneralFragmentChoice> choices = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            Set<String> known = getFmtStrings(current);
+            for (GeneralFragmentChoice choice : entry.getValue()) {
+                if (known.add(choice.fmtString)) {
+                    choices.add(choice);
+                }
+            }
+            updated.put(entry.getKey(), Collections.unmodifiableList(choices));
+        }
+        fragments = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Adds a fragment to the batch that the current thread loads, or publishes it on its own.
+     */
+    public void addFragment(String key, String fmtString, List<GeneralFragmentVariable> vars) {
+        if (BATCHES.get() == null) {
+            loadInBatch(() -> addFragment(key, fmtString, vars));
+            return;
+        }
+        Batch batch = getBatch();
+        batch.added.computeIfAbsent(key, k -> new ArrayList<>());
         // remove trailing spaces
         String trimmedFmtString = fmtString.trim();
         // avoid duplicate:
-        for (GeneralFragmentChoice choice : fragments.get(key)) {
-            if (choice.fmtString.equals(trimmedFmtString)) {
-                // System.out.println("Duplicate fragment");
-                return;
-            }
+        if (batch.getFmtStrings(key).contains(trimmedFmtString)) {
+            // System.out.println("Duplicate fragment");
+            return;
         }
         try {
             validateFragment(trimmedFmtString, vars);
@@ -223,13 +330,12 @@ public abstract class GeneralFragments {
             return;
         }
         // System.out.println(String.format("Adding fragment %s", fmtString));
-        fragments.get(key).add(choice);
-        newFragments.get(key).add(choice);
+        batch.add(choice);
     }
 
     public String get(int index, GeneralGlobalState state) {
         String key = String.valueOf(index);
-        if (learnFlag) {
+        if (getLearn()) {
             return getPlaceHolder(index);
         }
         if (fragments.containsKey(key)) {
@@ -252,12 +358,36 @@ public abstract class GeneralFragments {
     public void loadFragmentsFromFile(GeneralGlobalState globalState) {
         File configFile = new File(globalState.getConfigDirectory(), getConfigName());
         if (configFile.exists()) {
+            String owner = getClass().getName();
+            String cacheDirectory = globalState.getDbmsSpecificOptions().fragmentCacheDirectory;
+            File directory = cacheDirectory.isEmpty() ? null : new File(cacheDirectory);
+            List<GeneralFragmentFileCache.ParsedFragment> cached = directory == null ? null
+                    : GeneralFragmentFileCache.read(directory, configFile, owner);
+            if (cached != null) {
+                System.out.println(String.format("Loading fragments from cached file %s.", getConfigName()));
+                loadInBatch(() -> {
+                    for (GeneralFragmentFileCache.ParsedFragment fragment : cached) {
+                        addParsedFragment(fragment.key, fragment.fmtString, fragment.vars);
+                    }
+                });
+                return;
+            }
             // read from file
-            FileReader fileReader;
             System.out.println(String.format("Loading fragments from file %s.", getConfigName()));
-            try {
-                fileReader = new FileReader(configFile);
-                loadFragmentsFromCSV(fileReader, globalState, false);
+            List<GeneralFragmentFileCache.ParsedFragment> parsed = new ArrayList<>();
+            try (FileReader fileReader = new FileReader(configFile)) {
+                loadInBatch(() -> {
+                    Batch batch = getBatch();
+                    batch.recorded = parsed;
+                    try {
+                        loadFragmentsFromCSV(fileReader, globalState, false);
+                    } finally {
+                        batch.recorded = null;
+                    }
+                });
+                if (directory != null) {
+                    GeneralFragmentFileCache.write(directory, configFile, owner, parsed);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -271,7 +401,19 @@ public abstract class GeneralFragments {
         return line;
     }
 
-    protected void loadFragmentsFromCSV(Reader configReader, GeneralGlobalState globalState, boolean isSpecific) {
+    /**
+     * Parses the fragments line by line and adds them.
+     *
+     * @return the number of lines that could not be parsed
+     */
+    protected int loadFragmentsFromCSV(Reader configReader, GeneralGlobalState globalState, boolean isSpecific) {
+        int[] rejected = new int[1];
+        loadInBatch(() -> rejected[0] = parseCSV(configReader, globalState, isSpecific));
+        return rejected[0];
+    }
+
+    private int parseCSV(Reader configReader, GeneralGlobalState globalState, boolean isSpecific) {
+        int rejected = 0;
         // get file lines by the reader
         try (BufferedReader reader = new BufferedReader(configReader)) {
             String line;
@@ -290,6 +432,7 @@ public abstract class GeneralFragments {
                         parseFragments(s);
                     }
                 } catch (Exception e) {
+                    rejected++;
                     // System.out.println(String.format("Error parsing %s for statement %s", String.join(" ", s),
                     // getStatementType()));
                     // System.err.println(e.getMessage());
@@ -298,9 +441,28 @@ public abstract class GeneralFragments {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return rejected;
     }
 
     protected void validateFragment(String fmtString, List<GeneralFragmentVariable> vars) {
+        // fast path: the tokenizer only produces %s specifiers, so most format strings can be checked by a scan
+        int nrSpecifiers = 0;
+        boolean simple = true;
+        for (int i = 0; i < fmtString.length() && simple; i++) {
+            if (fmtString.charAt(i) != '%') {
+                continue;
+            }
+            char next = i + 1 < fmtString.length() ? fmtString.charAt(i + 1) : '\0';
+            if (next == 's') {
+                nrSpecifiers++;
+            } else if (next != '%' && next != 'n') {
+                simple = false;
+            }
+            i++;
+        }
+        if (simple && nrSpecifiers <= vars.size()) {
+            return;
+        }
         // Validate that the format string is compatible with the variables; throws IllegalFormatException if invalid
         String formatted = String.format(fmtString, vars.stream().map(var -> var.name()).toArray());
         if (formatted == null) {
@@ -312,39 +474,46 @@ public abstract class GeneralFragments {
         parseFragments(s);
     }
 
-    protected void parseFragments(String... s) {
-        // assume all the rows are in the format "integer index, <content>"
-
+    /**
+     * Whether a fragment key read from a config file is valid. By default, keys are placeholder indexes.
+     */
+    protected boolean isValidKey(String key) {
         try {
-            Integer.parseInt(s[0]);
+            Integer.parseInt(key);
+            return true;
         } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    protected void parseFragments(String... s) {
+        // assume all the rows are in the format "integer index, <content>"
+        if (!isValidKey(s[0])) {
             System.err.println("Invalid fragment key");
             return;
         }
         String key = s[0];
-
-        StringBuffer fmtString = new StringBuffer();
         List<GeneralFragmentVariable> vars = new ArrayList<>();
-        Pattern pattern = Pattern.compile("<([^>]*)>");
-        Matcher matcher = pattern.matcher(s[1]);
-
-        String content = "";
-
-        while (matcher.find()) {
-            content = matcher.group(1);
-            matcher.appendReplacement(fmtString, "%s");
-            vars.add(GeneralFragmentVariable.valueOf(content.toUpperCase()));
-        }
-        matcher.appendTail(fmtString);
-
-        addFragment(key, fmtString.toString(), vars);
+        String fmtString = parseVariable(s[1], vars);
+        addParsedFragment(key, fmtString, vars);
+    }
 
+    /**
+     * Adds a fragment after it has been tokenized. Subclasses can override this to maintain derived state (e.g., the
+     * type map); it is also called when fragments are replayed from the pre-parsed cache.
+     */
+    protected void addParsedFragment(String key, String fmtString, List<GeneralFragmentVariable> vars) {
+        Map<GeneralFragments, Batch> batches = BATCHES.get();
+        Batch batch = batches == null ? null : batches.get(this);
+        if (batch != null && batch.recorded != null) {
+            batch.recorded.add(new GeneralFragmentFileCache.ParsedFragment(key, fmtString, vars));
+        }
+        addFragment(key, fmtString, vars);
     }
 
     protected String parseVariable(String s, List<GeneralFragmentVariable> vars) {
         StringBuffer fmtString = new StringBuffer();
-        Pattern pattern = Pattern.compile("<([^>]*)>");
-        Matcher matcher = pattern.matcher(s);
+        Matcher matcher = VARIABLE_PATTERN.matcher(s);
 
         String content = "";
 
@@ -360,14 +529,22 @@ public abstract class GeneralFragments {
 
     public synchronized void updateFragmentByFeedback(GeneralErrorHandler handler) {
         // Iterate the fragments and remove the ones that are not useful
-        for (String key : fragments.keySet()) {
-            List<GeneralFragmentChoice> choices = fragments.get(key);
+        Map<String, List<GeneralFragmentChoice>> updated = new HashMap<>();
+        for (Map.Entry<String, List<GeneralFragmentChoice>> entry : fragments.entrySet()) {
+            List<GeneralFragmentChoice> choices = new ArrayList<>(entry.getValue());
             choices.removeIf(choice -> !handler.getFragmentOption(choice));
+            updated.put(entry.getKey(), Collections.unmodifiableList(choices));
         }
+        fragments = Collections.unmodifiableMap(updated);
     }
 
+    /**
+     * Learns new fragments for a sketch of this statement type. The learned fragments are loaded into a batch,
+     * validated there, and published at once, so that the workers never generate from fragments that are rejected
+     * afterwards, and never wait for the validation. A job of the learning service should pass a state of its own (see
+     * {@link GeneralGlobalState#createLearnerState()}), as the sketch is generated with the state.
+     */
     public void updateFragmentsFromLearner(GeneralGlobalState globalState) {
-        newFragments.clear();
         String template = genLearnStatement(globalState);
         currentSketch = template;
         String variables = getVariables();
@@ -381,64 +558,58 @@ public abstract class GeneralFragments {
         learner.learn();
         System.out.println("Processing and loading fragments from learner");
         String fragments = learner.getFragments();
-        if (fragments != "") {
-            loadFragmentsFromCSV(new StringReader(fragments), globalState, false);
-        } else {
-            System.err.println("No fragments returned from learner");
-        }
-        if (globalState.getDbmsSpecificOptions().enableDirectValidation) {
-            validateNewFragments(globalState);
-        }
+        loadInBatch(() -> {
+            if (fragments != "") {
+                loadLearnedFragments(fragments, globalState, false);
+            } else {
+                System.err.println("No fragments returned from learner");
+            }
+            if (globalState.getDbmsSpecificOptions().enableDirectValidation) {
+                GeneralLearningService.getInstance().recordInvalidFragments(validateNewFragments(globalState));
+            }
+        });
         // printFragments();
     }
 
-    private void validateNewFragments(GeneralGlobalState globalState) {
-        for (String key : newFragments.keySet()) {
-            List<GeneralFragmentChoice> choices = newFragments.get(key);
-            List<GeneralFragmentChoice> toRemove = new ArrayList<>();
-            for (GeneralFragmentChoice choice : choices) {
-                // TODO here we should check if the fragment is valid
-                String databaseName = "TEST_FEATURE";
-                String concreteFragment = "";
+    protected void loadLearnedFragments(String learned, GeneralGlobalState globalState, boolean isSpecific) {
+        int rejected = loadFragmentsFromCSV(new StringReader(learned), globalState, isSpecific);
+        int total = (int) learned.lines().filter(line -> line.contains(";")).count();
+        GeneralLearningService.getInstance().recordFragments(total - rejected, rejected);
+    }
+
+    private int validateNewFragments(GeneralGlobalState globalState) {
+        Batch batch = getBatch();
+        List<GeneralFragmentValidator.Candidate> candidates = new ArrayList<>();
+        for (String key : batch.added.keySet()) {
+            for (GeneralFragmentChoice choice : batch.added.get(key)) {
                 try {
-                    concreteFragment = choice.toString(globalState);
+                    candidates.add(new GeneralFragmentValidator.Candidate(key, choice, choice.toString(globalState)));
                 } catch (Exception e) {
                     System.out.println(String.format("No need to test %s", choice.toString()));
-                    // toRemove.add(choice);
-                    continue;
-                }
-                List<String> valStatements = genValStatements(globalState, key, concreteFragment, databaseName);
-                if (valStatements.isEmpty()) {
-                    System.out.println(String.format("No need to test %s", choice.toString()));
-                    // remove the fragment
-                    // choices.remove(choice);
-                    continue;
-                }
-                if (globalState.checkIfQueriesAreValid(globalState, valStatements, databaseName)) {
-                    // TODO here we should check if the fragment is valid
-                    System.out.println(String.format("Fragment %s is supported", choice.toString()));
-                    // print the statements
-                    for (String stmt : valStatements) {
-                        System.out.println(String.format("%s", stmt));
-                    }
-                } else {
-                    System.out.println(String.format("Fragment %s is invalid", choice.toString()));
-                    for (String stmt : valStatements) {
-                        System.out.println(String.format("%s", stmt));
-                    }
-                    // remove the fragment
-                    toRemove.add(choice);
                 }
             }
-            for (GeneralFragmentChoice choice : toRemove) {
-                boolean removed = fragments.get(key).remove(choice);
-                if (removed) {
-                    System.out.println(String.format("Removed fragment %s", choice.toString()));
-                } else {
-                    System.out.println(String.format("Fragment %s not found", choice.toString()));
-                }
+        }
+        GeneralFragmentValidator validator = new GeneralFragmentValidator(globalState, this);
+        GeneralFragmentValidator.Report report = validator.validate(candidates);
+        int rejected = 0;
+        for (GeneralFragmentValidator.Result result : report.getResults()) {
+            if (globalState.getOptions().debugLogs()) {
+                System.out.println(result);
+            }
+            if (result.getVerdict() != GeneralFragmentValidator.Verdict.INVALID) {
+                continue;
+            }
+            GeneralFragmentChoice choice = result.getCandidate().getChoice();
+            boolean removed = batch.remove(choice);
+            rejected++;
+            if (removed) {
+                System.out.println(String.format("Removed fragment %s", choice.toString()));
+            } else {
+                System.out.println(String.format("Fragment %s not found", choice.toString()));
             }
         }
+        System.out.println(String.format("%s: %s", getStatementType(), report));
+        return rejected;
     }
 
     protected String getSystemPrompt() {
@@ -0,0 +1,183 @@
+package sqlancer.general.learner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import sqlancer.Main;
+
+/**
+ * Disk-backed, content-addressed cache for learner results.
+ *
+ * Every entry is stored as a single file named {@code <sha256>.<kind>} in the cache directory, by default
+ * {@code logs/learner-cache/}. The key is the hash of all the inputs that determine the learner output (DBMS name,
+ * feature, topic, template, variables, examples, system prompt, model and endpoint), so repeated campaigns against the
+ * same DBMS can skip both the retrieval subprocess and the chat completion request. Entries older than the TTL are
+ * ignored and removed; when the number of entries exceeds the configured maximum, the least recently modified ones are
+ * evicted until a tenth of the maximum is free again, so that the directory is only listed once in a while.
+ */
+public final class GeneralLearnerCache {
+
+    public static final File DEFAULT_DIRECTORY = new File(Main.LOG_DIRECTORY, "learner-cache");
+
+    /**
+     * The kind of content stored for a key.
+     */
+    public enum EntryKind {
+        RETRIEVAL("retrieval.txt"), FRAGMENTS("fragments.csv");
+
+        private final String extension;
+
+        EntryKind(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final File directory;
+    private final long ttlMillis;
+    private final int maxEntries;
+    // the number of entries in the directory, which is only counted on the first write
+    private int nrEntries = -1;
+
+    public GeneralLearnerCache(File directory, long ttlHours, int maxEntries) {
+        this.directory = directory;
+        this.ttlMillis = ttlHours <= 0 ? Long.MAX_VALUE : TimeUnit.HOURS.toMillis(ttlHours);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Computes the content-addressed key for the given inputs.
+     *
+     * @param parts
+     *            the inputs that determine the cached content; {@code null} is treated as the empty string
+     *
+     * @return the hex-encoded SHA-256 hash of the inputs
+     */
+    public static String computeKey(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        for (String part : parts) {
+            byte[] bytes = (part == null ? "" : part).getBytes(StandardCharsets.UTF_8);
+            // length-prefix every part so that ("ab", "c") and ("a", "bc") do not collide
+            digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            digest.update(bytes);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cached content for the key, or {@code null} if there is no entry or the entry has expired.
+     */
+    public synchronized String get(String key, EntryKind kind) {
+        File file = getFile(key, kind);
+        if (!file.isFile()) {
+            return null;
+        }
+        if (isExpired(file)) {
+            delete(file);
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public synchronized void put(String key, EntryKind kind, String content) {
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.err.println("Could not create learner cache directory " + directory);
+            return;
+        }
+        File file = getFile(key, kind);
+        boolean isNew = !file.exists();
+        File tmp = new File(directory, file.getName() + ".tmp");
+        try {
+            // write to a temporary file first so that concurrent readers never observe a partial entry
+            Files.write(tmp.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            if (!tmp.renameTo(file)) {
+                Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (nrEntries < 0) {
+            nrEntries = listEntries().length;
+        } else if (isNew) {
+            nrEntries++;
+        }
+        if (nrEntries > maxEntries) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        File[] entries = listEntries();
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        int remaining = entries.length;
+        int target = maxEntries - maxEntries / 10;
+        for (File entry : entries) {
+            if (remaining > target || isExpired(entry)) {
+                delete(entry);
+                remaining--;
+            }
+        }
+        nrEntries = remaining;
+    }
+
+    private File[] listEntries() {
+        File[] entries = directory.listFiles(f -> f.isFile() && !f.getName().endsWith(".tmp"));
+        return entries == null ? new File[0] : entries;
+    }
+
+    private boolean isExpired(File entry) {
+        return System.currentTimeMillis() - entry.lastModified() > ttlMillis;
+    }
+
+    private void delete(File entry) {
+        if (entry.delete()) {
+            if (nrEntries > 0) {
+                nrEntries--;
+            }
+        } else {
+            System.err.println("Could not delete learner cache entry " + entry);
+        }
+    }
+
+    private File getFile(String key, EntryKind kind) {
+        return new File(directory, key + "." + kind.getExtension());
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+}
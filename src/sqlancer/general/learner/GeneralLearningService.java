@@ -0,0 +1,145 @@
+package sqlancer.general.learner;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs learning jobs (LLM requests, retrieval subprocesses, fragment validation) on a single background thread so
+ * that the fuzzing threads keep generating queries with the fragments they already have. Learned fragments become
+ * visible to the workers once the job publishes them into {@link GeneralFragments}.
+ *
+ * Jobs are identified by a name; a job is not queued again while a job with the same name is still pending.
+ */
+public final class GeneralLearningService {
+
+    private static final GeneralLearningService INSTANCE = new GeneralLearningService();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sqlancer-learner");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<String> pendingJobs = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong fragmentsAccepted = new AtomicLong();
+    private final AtomicLong fragmentsRejected = new AtomicLong();
+
+    private GeneralLearningService() {
+    }
+
+    public static GeneralLearningService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a learning job.
+     *
+     * @param jobName
+     *            identifies the job, e.g., the fragment type or topic that is learned
+     * @param job
+     *            the learning work
+     *
+     * @return false if a job with the same name is already pending
+     */
+    public boolean submit(String jobName, Runnable job) {
+        if (!pendingJobs.add(jobName)) {
+            return false;
+        }
+        queueDepth.incrementAndGet();
+        executor.execute(() -> {
+            queueDepth.decrementAndGet();
+            long start = System.nanoTime();
+            try {
+                job.run();
+                completedJobs.incrementAndGet();
+            } catch (Throwable t) {
+                failedJobs.incrementAndGet();
+                System.err.println("Learning job " + jobName + " failed");
+                t.printStackTrace();
+            } finally {
+                long latency = System.nanoTime() - start;
+                totalLatencyNanos.addAndGet(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                pendingJobs.remove(jobName);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Waits until all jobs submitted so far have finished.
+     *
+     * @return false if the timeout elapsed before that
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!pendingJobs.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return true;
+    }
+
+    public void recordFragments(int accepted, int rejected) {
+        fragmentsAccepted.addAndGet(accepted);
+        fragmentsRejected.addAndGet(rejected);
+    }
+
+    /**
+     * Records fragments that were accepted by the parser but failed the direct validation afterwards.
+     */
+    public void recordInvalidFragments(int invalid) {
+        fragmentsAccepted.addAndGet(-invalid);
+        fragmentsRejected.addAndGet(invalid);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getCompletedJobs() {
+        return completedJobs.get();
+    }
+
+    public long getFailedJobs() {
+        return failedJobs.get();
+    }
+
+    public long getAverageLatencyMillis() {
+        long jobs = completedJobs.get() + failedJobs.get();
+        return jobs == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / jobs);
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    public long getFragmentsAccepted() {
+        return fragmentsAccepted.get();
+    }
+
+    public long getFragmentsRejected() {
+        return fragmentsRejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Learning: %d queued, %d completed, %d failed, avg latency %d ms, max latency %d ms, %d fragments accepted, %d rejected",
+                getQueueDepth(), getCompletedJobs(), getFailedJobs(), getAverageLatencyMillis(), getMaxLatencyMillis(),
+                getFragmentsAccepted(), getFragmentsRejected());
+    }
+
+}
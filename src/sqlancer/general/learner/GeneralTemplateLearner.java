@@ -1,6 +1,7 @@
 package sqlancer.general.learner;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -16,11 +17,17 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 import sqlancer.FeatureLearner;
 import sqlancer.general.GeneralLearningManager.SQLFeature;
+import sqlancer.general.GeneralOptions;
 import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.learner.GeneralLearnerCache.EntryKind;
 
 public class GeneralTemplateLearner implements FeatureLearner {
 
     private static final String CHAT_URL = "https://api.openai.com/v1/chat/completions";
+    // a single client shares its connection pool and dispatcher across all learners
+    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder().connectTimeout(60, TimeUnit.SECONDS)
+            .readTimeout(60, TimeUnit.SECONDS).build();
+    private static GeneralLearnerCache cache;
     private final String apiKey = System.getenv("OPENAI_API_KEY");
 
     private String rawFragments = "";
@@ -38,14 +45,42 @@ public class GeneralTemplateLearner implements FeatureLearner {
     public void learn() {
         String response = "";
         String reference = "";
+        GeneralOptions options = globalState.getDbmsSpecificOptions();
+        GeneralLearnerCache learnerCache = getCache(options);
+        String key = GeneralLearnerCache.computeKey(globalState.getDbmsNameForLearning(), feature.toString(), topic,
+                template, variables, examples, systemPrompt, options.learnerModel, options.learnerChatUrl);
+        if (learnerCache != null) {
+            String cached = learnerCache.get(key, EntryKind.FRAGMENTS);
+            if (cached != null) {
+                if (globalState.getOptions().debugLogs()) {
+                    System.out.println("Loaded learned fragments from cache " + key);
+                }
+                rawFragments = cached;
+                return;
+            }
+        }
 
         // get the documentation reference
-        if (globalState.getDbmsSpecificOptions().useRetrievalAugmentation) {
-            reference = retrieveSummarization();
+        if (options.useRetrievalAugmentation) {
+            reference = retrieveSummarization(learnerCache);
         }
         response = getDialectFromReference(reference);
 
         rawFragments = process(response);
+        if (learnerCache != null) {
+            learnerCache.put(key, EntryKind.FRAGMENTS, rawFragments);
+        }
+    }
+
+    private static synchronized GeneralLearnerCache getCache(GeneralOptions options) {
+        if (!options.useLearnerCache) {
+            return null;
+        }
+        File directory = new File(options.learnerCacheDirectory);
+        if (cache == null || !cache.getDirectory().equals(directory)) {
+            cache = new GeneralLearnerCache(directory, options.learnerCacheTtlHours, options.learnerCacheMaxEntries);
+        }
+        return cache;
     }
 
     public GeneralTemplateLearner(GeneralGlobalState globalState, SQLFeature feature, String template, String variables,
@@ -103,7 +138,15 @@ public class GeneralTemplateLearner implements FeatureLearner {
     // return doc_url;
     // }
 
-    private String retrieveSummarization() {
+    private String retrieveSummarization(GeneralLearnerCache learnerCache) {
+        // the retrieved summary only depends on the DBMS, the feature and the topic
+        String key = GeneralLearnerCache.computeKey(globalState.getDbmsNameForLearning(), feature.toString(), topic);
+        if (learnerCache != null) {
+            String cached = learnerCache.get(key, EntryKind.RETRIEVAL);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
             // assume that the python environment is set up
             List<String> command = Arrays.asList("python3", "src/chat.py", "--dbms",
@@ -125,6 +168,9 @@ public class GeneralTemplateLearner implements FeatureLearner {
                 System.err.println(sb.toString());
                 return null;
             } else {
+                if (learnerCache != null) {
+                    learnerCache.put(key, EntryKind.RETRIEVAL, sb.toString());
+                }
                 return sb.toString();
             }
 
@@ -137,7 +183,7 @@ public class GeneralTemplateLearner implements FeatureLearner {
 
     private String getDialectFromReference(String reference) {
         String response = "";
-        String model = "gpt-4o";
+        String model = globalState.getDbmsSpecificOptions().learnerModel;
         String system = systemPrompt;
         StringBuilder sb = new StringBuilder();
         sb.append("DBMS: ");
@@ -188,12 +234,12 @@ public class GeneralTemplateLearner implements FeatureLearner {
     }
 
     private String getChatGPTResponse(String model, String system, String user) throws IOException {
-        if (apiKey == null) {
+        String chatUrl = globalState.getDbmsSpecificOptions().learnerChatUrl;
+        // a custom endpoint (e.g., a local stand-in server) does not need an API key
+        if (apiKey == null && CHAT_URL.equals(chatUrl)) {
             System.err.println("OPENAI_API_KEY environment variable not set");
             return "";
         }
-        OkHttpClient client = new OkHttpClient.Builder().connectTimeout(60, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS).build();
 
         JSONObject json = new JSONObject();
 
@@ -216,10 +262,14 @@ public class GeneralTemplateLearner implements FeatureLearner {
 
         RequestBody body = RequestBody.create(json.toString(), MediaType.parse("application/json; charset=utf-8"));
 
-        Request request = new Request.Builder().url(CHAT_URL).post(body).addHeader("Content-Type", "application/json")
-                .addHeader("Authorization", "Bearer " + apiKey).build();
-        Response response = client.newCall(request).execute();
-        return response.body().string();
+        Request.Builder builder = new Request.Builder().url(chatUrl).post(body).addHeader("Content-Type",
+                "application/json");
+        if (apiKey != null) {
+            builder.addHeader("Authorization", "Bearer " + apiKey);
+        }
+        try (Response response = HTTP_CLIENT.newCall(builder.build()).execute()) {
+            return response.body().string();
+        }
     }
 
     private String parseAndGetGPTContent(String response) {
@@ -0,0 +1,237 @@
+package sqlancer.general.oracle;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.Randomly;
+import sqlancer.common.DBMSCommon;
+import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.NewBinaryOperatorNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.common.ast.newast.TableReferenceNode;
+import sqlancer.common.gen.ExpressionGenerator;
+import sqlancer.common.oracle.CERTOracleBase;
+import sqlancer.common.oracle.TestOracle;
+import sqlancer.general.GeneralErrors;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralQueryPlan;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.GeneralSchema.GeneralTables;
+import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.ast.GeneralBinaryLogicalOperator;
+import sqlancer.general.ast.GeneralConstant;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.ast.GeneralJoin;
+import sqlancer.general.ast.GeneralJoin.JoinType;
+import sqlancer.general.ast.GeneralSelect;
+import sqlancer.general.gen.GeneralRandomQuerySynthesizer;
+
+/**
+ * Cardinality Estimation Restriction Testing: a query is mutated so that its result can only grow or only shrink, and
+ * the row estimates that EXPLAIN reports for both queries must change in the same direction. The queries themselves are
+ * never executed.
+ */
+public class GeneralCERTOracle extends CERTOracleBase<GeneralGlobalState> implements TestOracle<GeneralGlobalState> {
+
+    private ExpressionGenerator<Node<GeneralExpression>> gen;
+    private GeneralSelect select;
+    private String lastQueryString;
+
+    public GeneralCERTOracle(GeneralGlobalState globalState) {
+        super(globalState);
+        GeneralErrors.addExpressionErrors(errors);
+    }
+
+    @Override
+    public void check() throws SQLException {
+        queryPlan1Sequences = new ArrayList<>();
+        queryPlan2Sequences = new ArrayList<>();
+        GeneralTables targetTables = state.getSchema()
+                .getRandomTableNonEmptyTables(state.getDbmsSpecificOptions().maxCrossProductRows);
+        gen = GeneralRandomQuerySynthesizer.getExpressionGenerator(state, targetTables.getColumns());
+        try {
+            select = new GeneralSelect();
+            select.setFetchColumns(Randomly.nonEmptySubset(targetTables.getColumns()).stream()
+                    .map(c -> new ColumnReferenceNode<GeneralExpression, GeneralColumn>(c))
+                    .collect(Collectors.toList()));
+            List<TableReferenceNode<GeneralExpression, GeneralTable>> tableList = targetTables.getTables().stream()
+                    .map(t -> new TableReferenceNode<GeneralExpression, GeneralTable>(t)).collect(Collectors.toList());
+            List<Node<GeneralExpression>> joins = GeneralJoin.getJoins(tableList, state);
+            select.setJoinList(joins.stream().collect(Collectors.toList()));
+            select.setFromList(tableList.stream().collect(Collectors.toList()));
+            if (Randomly.getBoolean()) {
+                select.setWhereClause(gen.generateExpression());
+            }
+            boolean estimatesJoins = state.getDbmsSpecificOptions().getDatabaseEngineFactory()
+                    .estimatesOuterJoinsAndCrossProducts();
+            if (!estimatesJoins && (joins.size() + select.getFromList().size() > 1 || hasOuterJoin(joins))) {
+                throw new IgnoreMeException();
+            }
+
+            String queryString1 = GeneralToStringVisitor.asString(select);
+            GeneralQueryPlan plan1 = explain(queryString1);
+            if (plan1.getEstimatedRows() == GeneralQueryPlan.UNKNOWN) {
+                state.getHandler().appendScoreToTable(true, true, queryString1);
+                throw new IgnoreMeException();
+            }
+
+            // the JOIN mutator turns inner joins into outer joins
+            boolean increase = estimatesJoins ? mutate() : mutate(Mutator.JOIN);
+            String queryString2 = GeneralToStringVisitor.asString(select);
+            GeneralQueryPlan plan2 = explain(queryString2);
+            // both queries are scored together, as the mutated query is mostly made up of the original one
+            state.getHandler().appendScoreToTable(true, true, queryString1);
+            if (plan2.getEstimatedRows() == GeneralQueryPlan.UNKNOWN) {
+                throw new IgnoreMeException();
+            }
+            queryPlan1Sequences.addAll(plan1.getOperators());
+            queryPlan2Sequences.addAll(plan2.getOperators());
+
+            // estimates of structurally different plans, or of different operators, are not comparable
+            if (!DBMSCommon.areQueryPlanSequencesSimilar(queryPlan1Sequences, queryPlan2Sequences)
+                    || !Objects.equals(plan1.getEstimatingOperator(), plan2.getEstimatingOperator())) {
+                return;
+            }
+            long rowCount1 = plan1.getEstimatedRows();
+            long rowCount2 = plan2.getEstimatedRows();
+            if (increase && rowCount1 > rowCount2 || !increase && rowCount1 < rowCount2) {
+                throw new AssertionError("Inconsistent row estimates: EXPLAIN " + queryString1 + "; -- " + rowCount1
+                        + "\nEXPLAIN " + queryString2 + "; -- " + rowCount2 + " (expected to "
+                        + (increase ? "increase" : "decrease") + ")");
+            }
+        } finally {
+            state.releaseExpressionGenerator(gen);
+        }
+    }
+
+    private static boolean hasOuterJoin(List<Node<GeneralExpression>> joins) {
+        for (Node<GeneralExpression> join : joins) {
+            if (join instanceof GeneralJoin) {
+                JoinType type = ((GeneralJoin) join).getJoinType();
+                if (type == JoinType.LEFT || type == JoinType.RIGHT
+                        || type == JoinType.NATURAL && ((GeneralJoin) join).getOuterType() != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private GeneralQueryPlan explain(String queryString) throws SQLException {
+        lastQueryString = queryString;
+        if (state.getOptions().logEachSelect()) {
+            state.getLogger().writeCurrent("EXPLAIN " + queryString);
+        }
+        GeneralQueryPlan plan = GeneralQueryPlan.explain(queryString, state, errors);
+        if (plan == null) {
+            state.getHandler().appendScoreToTable(false, true);
+            throw new IgnoreMeException();
+        }
+        return plan;
+    }
+
+    @Override
+    protected boolean mutateJoin() {
+        List<Node<GeneralExpression>> joins = select.getJoinList();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < joins.size(); i++) {
+            if (joins.get(i) instanceof GeneralJoin
+                    && ((GeneralJoin) joins.get(i)).getJoinType() != JoinType.NATURAL) {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new IgnoreMeException();
+        }
+        int index = Randomly.fromList(candidates);
+        GeneralJoin join = (GeneralJoin) joins.get(index);
+        // an outer join keeps at least the rows of the inner join, there is no such relation between LEFT and RIGHT
+        boolean increase = join.getJoinType() == JoinType.INNER;
+        JoinType newJoinType = increase ? Randomly.fromOptions(JoinType.LEFT, JoinType.RIGHT) : JoinType.INNER;
+        joins.set(index, new GeneralJoin(join.getLeftTable(), join.getRightTable(), newJoinType,
+                join.getOnCondition()));
+        return increase;
+    }
+
+    @Override
+    protected boolean mutateDistinct() {
+        boolean increase = select.isDistinct();
+        select.setDistinct(!increase);
+        return increase;
+    }
+
+    @Override
+    protected boolean mutateWhere() {
+        boolean increase = select.getWhereClause() != null;
+        select.setWhereClause(increase ? null : gen.generateExpression());
+        return increase;
+    }
+
+    @Override
+    protected boolean mutateGroupBy() {
+        boolean increase = !select.getGroupByExpressions().isEmpty();
+        if (increase) {
+            select.clearGroupByExpressions();
+            select.clearHavingClause();
+        } else {
+            select.setGroupByExpressions(select.getFetchColumns());
+        }
+        return increase;
+    }
+
+    @Override
+    protected boolean mutateHaving() {
+        if (select.getGroupByExpressions().isEmpty()) {
+            select.setGroupByExpressions(select.getFetchColumns());
+            select.setHavingClause(gen.generateHavingClause());
+            return false;
+        } else if (select.getHavingClause() == null) {
+            select.setHavingClause(gen.generateHavingClause());
+            return false;
+        } else {
+            select.clearHavingClause();
+            return true;
+        }
+    }
+
+    @Override
+    protected boolean mutateAnd() {
+        if (select.getWhereClause() == null) {
+            select.setWhereClause(gen.generateExpression());
+        } else {
+            select.setWhereClause(new NewBinaryOperatorNode<>(select.getWhereClause(), gen.generateExpression(),
+                    GeneralBinaryLogicalOperator.AND));
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean mutateOr() {
+        if (select.getWhereClause() == null) {
+            select.setWhereClause(gen.generateExpression());
+            return false;
+        } else {
+            select.setWhereClause(new NewBinaryOperatorNode<>(select.getWhereClause(), gen.generateExpression(),
+                    GeneralBinaryLogicalOperator.OR));
+            return true;
+        }
+    }
+
+    @Override
+    protected boolean mutateLimit() {
+        boolean increase = select.getLimitClause() != null;
+        select.setLimitClause(increase ? null : GeneralConstant.createIntConstant(Randomly.getNotCachedInteger(1, 10)));
+        return increase;
+    }
+
+    @Override
+    public String getLastQueryString() {
+        return lastQueryString;
+    }
+
+}
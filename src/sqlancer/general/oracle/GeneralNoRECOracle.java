@@ -3,9 +3,12 @@ package sqlancer.general.oracle;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import sqlancer.IgnoreMeException;
 import sqlancer.Main;
@@ -13,29 +16,35 @@ import sqlancer.Randomly;
 import sqlancer.Reproducer;
 import sqlancer.SQLConnection;
 import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.NewCaseOperatorNode;
+import sqlancer.common.ast.newast.NewFunctionNode;
 import sqlancer.common.ast.newast.NewPostfixTextNode;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.common.ast.newast.TableReferenceNode;
 import sqlancer.common.gen.ExpressionGenerator;
+import sqlancer.common.metrics.StatementKind;
 import sqlancer.common.oracle.NoRECBase;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.query.SQLQueryAdapter;
 import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.StatementWatchdog;
+import sqlancer.common.query.StatementWatchdog.Watch;
+import sqlancer.general.GeneralErrorHandler.GeneratorInfo;
 import sqlancer.general.GeneralErrorHandler.GeneratorNode;
 import sqlancer.general.GeneralErrors;
 import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralQueryGroup;
 import sqlancer.general.GeneralSchema;
 import sqlancer.general.GeneralSchema.GeneralColumn;
 import sqlancer.general.GeneralSchema.GeneralTable;
 import sqlancer.general.GeneralSchema.GeneralTables;
 import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.ast.GeneralConstant;
 import sqlancer.general.ast.GeneralExpression;
 import sqlancer.general.ast.GeneralJoin;
 import sqlancer.general.ast.GeneralSelect;
 import sqlancer.general.gen.AutoIndexSelectHelper;
 import sqlancer.general.gen.AutoIndexSelectHelper.BooleanCountResult;
-import sqlancer.general.gen.GeneralExpressionGenerator;
-import sqlancer.general.gen.GeneralTypedExpressionGenerator;
 
 public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements TestOracle<GeneralGlobalState> {
 
@@ -75,6 +84,9 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
                 SQLancerResultSet srs;
                 try {
                     srs = q.executeAndGet(globalState);
+                } catch (IgnoreMeException e) {
+                    // canceled by the statement watchdog
+                    return false;
                 } catch (Exception e) {
                     this.errorMessage = e.getMessage();
                     return true;
@@ -82,16 +94,21 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
                 if (srs == null) {
                     secondCount = -1;
                 } else {
-                    while (srs.next()) {
-                        secondCount += srs.getBoolean(1) ? 1 : 0;
+                    try {
+                        while (srs.next()) {
+                            secondCount += srs.getBoolean(1) ? 1 : 0;
+                        }
+                    } finally {
+                        srs.close();
                     }
-                    srs.close();
                 }
 
                 // first count
                 int firstCount = -1;
-                try (Statement stat = globalState.getConnection().createStatement()) {
+                SQLConnection con = globalState.getConnection();
+                try (Statement stat = con.createStatement()) {
                     stat.setMaxRows(MAX_ROWS_LIMIT);
+                    con.beginStreaming(stat);
                     try (ResultSet rs = stat.executeQuery(firstQueryString)) {
                         firstCount = 0;
                         while (rs.next()) {
@@ -101,6 +118,8 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
                 } catch (SQLException e) {
                     // Query failed, treat as inconclusive
                     return false;
+                } finally {
+                    con.endStreaming();
                 }
 
                 if (firstCount == -1 || secondCount == -1) {
@@ -123,25 +142,57 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
 
     @Override
     public void check() throws SQLException {
-        reproducer = null;
-        GeneralTables randomTables = s.getRandomTableNonEmptyTables();
+        GeneralTables randomTables = s.getRandomTableNonEmptyTables(state.getDbmsSpecificOptions().maxCrossProductRows);
         List<GeneralColumn> columns = randomTables.getColumns();
         ExpressionGenerator<Node<GeneralExpression>> gen;
         if (state.getHandler().getOption(GeneratorNode.UNTYPE_EXPR) && Randomly.getBooleanWithSmallProbability()) {
-            gen = new GeneralExpressionGenerator(state).setColumns(columns);
+            gen = state.acquireUntypedExpressionGenerator(columns);
             state.getHandler().addScore(GeneratorNode.UNTYPE_EXPR);
         } else {
-            gen = new GeneralTypedExpressionGenerator(state).setColumns(columns);
+            gen = state.acquireTypedExpressionGenerator(columns);
         }
-        Node<GeneralExpression> randomWhereCondition = gen.generateExpression();
+        try {
+            check(gen, randomTables);
+        } finally {
+            state.releaseExpressionGenerator(gen);
+        }
+    }
+
+    /**
+     * Checks the predicates that the generator generates on the given tables.
+     */
+    public void check(ExpressionGenerator<Node<GeneralExpression>> gen, GeneralTables randomTables)
+            throws SQLException {
+        reproducer = null;
+        List<GeneralColumn> columns = randomTables.getColumns();
         List<GeneralTable> tables = randomTables.getTables();
         List<TableReferenceNode<GeneralExpression, GeneralTable>> tableList = tables.stream()
                 .map(t -> new TableReferenceNode<GeneralExpression, GeneralTable>(t)).collect(Collectors.toList());
         List<Node<GeneralExpression>> joins = GeneralJoin.getJoins(tableList, state);
+        int nrPredicates = state.getDbmsSpecificOptions().norecPredicates;
+        if (nrPredicates > 1 && !AutoIndexSelectHelper.isEnabled(state)) {
+            checkPredicates(gen, nrPredicates, tableList.stream().collect(Collectors.toList()), columns, joins);
+            return;
+        }
+        Node<GeneralExpression> randomWhereCondition = gen.generateExpression();
 
-        int secondCount = getSecondQuery(tableList.stream().collect(Collectors.toList()), randomWhereCondition, joins);
-        int firstCount = getFirstQueryCount(con, tableList.stream().collect(Collectors.toList()), columns,
-                randomWhereCondition, joins);
+        int[] counts = null;
+        if (GeneralQueryGroup.isEnabled(state)) {
+            buildUnoptimizedQuery(tableList.stream().collect(Collectors.toList()), randomWhereCondition, joins);
+            buildOptimizedQuery(tableList.stream().collect(Collectors.toList()), columns, randomWhereCondition,
+                    joins);
+            counts = getCountsAsGroup();
+        }
+        int secondCount;
+        int firstCount;
+        if (counts != null) {
+            secondCount = counts[0];
+            firstCount = counts[1];
+        } else {
+            secondCount = getSecondQuery(tableList.stream().collect(Collectors.toList()), randomWhereCondition, joins);
+            firstCount = getFirstQueryCount(con, tableList.stream().collect(Collectors.toList()), columns,
+                    randomWhereCondition, joins);
+        }
         if (firstCount == -1 || secondCount == -1) {
             state.getHandler().appendScoreToTable(false, true);
             throw new IgnoreMeException();
@@ -160,20 +211,187 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
         state.getHandler().appendScoreToTable(true, true, optimizedQueryString);
     }
 
+    /**
+     * Checks several predicates on the same FROM clause. The unoptimized counts of all predicates are computed in a
+     * single scan, and the optimized counts in a single UNION ALL query. If a query fails, it is repeated for each half
+     * of its predicates, so that only the failing predicates are dropped. A mismatch is reported for a single
+     * predicate, with the queries that are used without this mode.
+     */
+    private void checkPredicates(ExpressionGenerator<Node<GeneralExpression>> gen, int nrPredicates,
+            List<Node<GeneralExpression>> tableList, List<GeneralColumn> columns, List<Node<GeneralExpression>> joins)
+            throws SQLException {
+        // each predicate is scored on its own, together with the FROM clause
+        GeneratorInfo fromClauseInfo = state.getHandler().takeGeneratorInfo();
+        List<Node<GeneralExpression>> predicates = new ArrayList<>();
+        List<GeneratorInfo> predicateInfos = new ArrayList<>();
+        for (int i = 0; i < nrPredicates; i++) {
+            predicates.add(gen.generateExpression());
+            predicateInfos.add(state.getHandler().takeGeneratorInfo());
+            predicateInfos.get(i).addScores(fromClauseInfo);
+        }
+        List<Integer> indices = IntStream.range(0, nrPredicates).boxed().collect(Collectors.toList());
+
+        long[] unoptimizedCounts = new long[nrPredicates];
+        List<Integer> failed = new ArrayList<>();
+        executeBisecting(indices, failed, subset -> {
+            GeneralSelect select = new GeneralSelect();
+            select.setFetchColumns(subset.stream()
+                    .map(i -> new NewFunctionNode<GeneralExpression, String>(
+                            List.of(new NewCaseOperatorNode<>(null, List.of(predicates.get(i)),
+                                    List.of(GeneralConstant.createIntConstant(1)),
+                                    GeneralConstant.createIntConstant(0))),
+                            "SUM"))
+                    .collect(Collectors.toList()));
+            select.setFromList(tableList);
+            select.setJoinList(joins);
+            return GeneralToStringVisitor.asString(select);
+        }, (subset, rs) -> {
+            if (!rs.next()) {
+                return false;
+            }
+            for (int j = 0; j < subset.size(); j++) {
+                unoptimizedCounts[subset.get(j)] = rs.getLong(j + 1);
+            }
+            return true;
+        });
+
+        long[] optimizedCounts = new long[nrPredicates];
+        indices.removeAll(failed);
+        executeBisecting(indices, failed, subset -> subset.stream().map(i -> {
+            GeneralSelect select = new GeneralSelect();
+            select.setFetchColumns(List.of(GeneralConstant.createIntConstant(i),
+                    new NewFunctionNode<GeneralExpression, String>(List.of(GeneralConstant.createIntConstant(1)),
+                            "COUNT")));
+            select.setFromList(tableList);
+            select.setJoinList(joins);
+            select.setWhereClause(predicates.get(i));
+            return GeneralToStringVisitor.asString(select);
+        }).collect(Collectors.joining(" UNION ALL ")), (subset, rs) -> {
+            int nrRows = 0;
+            while (rs.next()) {
+                optimizedCounts[rs.getInt(1)] = rs.getLong(2);
+                nrRows++;
+            }
+            return nrRows == subset.size();
+        });
+        indices.removeAll(failed);
+
+        int mismatch = -1;
+        for (int i = 0; i < nrPredicates; i++) {
+            optimizedSelect = new GeneralSelect();
+            optimizedSelect.setFetchColumns(columns.stream()
+                    .map(c -> new ColumnReferenceNode<GeneralExpression, GeneralColumn>(c))
+                    .collect(Collectors.toList()));
+            optimizedSelect.setFromList(tableList);
+            optimizedSelect.setJoinList(joins);
+            optimizedSelect.setWhereClause(predicates.get(i));
+            optimizedQueryString = GeneralToStringVisitor.asString(optimizedSelect);
+            state.getHandler().loadGeneratorInfo(predicateInfos.get(i));
+            if (!indices.contains(i)) {
+                state.getHandler().appendScoreToTable(false, true);
+            } else {
+                state.getHandler().appendScoreToTable(true, true, optimizedQueryString);
+                if (mismatch == -1 && optimizedCounts[i] != unoptimizedCounts[i]) {
+                    mismatch = i;
+                }
+            }
+        }
+        if (indices.isEmpty()) {
+            throw new IgnoreMeException();
+        }
+        if (mismatch != -1) {
+            optimizedSelect.setWhereClause(predicates.get(mismatch));
+            optimizedQueryString = GeneralToStringVisitor.asString(optimizedSelect);
+            GeneralSelect select = new GeneralSelect();
+            select.setFetchColumns(List.of(new NewPostfixTextNode<>(predicates.get(mismatch), " IS TRUE ")));
+            select.setFromList(tableList);
+            select.setJoinList(joins);
+            unoptimizedQueryString = GeneralToStringVisitor.asString(select);
+            String errorMessage = optimizedQueryString + "; -- " + optimizedCounts[mismatch] + "\n"
+                    + unoptimizedQueryString + " -- " + unoptimizedCounts[mismatch];
+            reproducer = new GeneralNoRECReproducer(unoptimizedQueryString, optimizedQueryString, errorMessage);
+            throw new AssertionError(errorMessage);
+        }
+    }
+
+    private interface BatchResultReader {
+        /**
+         * @return false if the result is incomplete
+         */
+        boolean read(List<Integer> subset, SQLancerResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Executes the query for the predicates with the given indices, and if it fails, for each half of them, until the
+     * failing predicates are found and added to failed. A canceled query is not repeated.
+     */
+    private void executeBisecting(List<Integer> indices, List<Integer> failed,
+            Function<List<Integer>, String> queryBuilder, BatchResultReader reader) {
+        if (indices.isEmpty()) {
+            return;
+        }
+        String query = queryBuilder.apply(indices);
+        boolean success;
+        try (SQLancerResultSet rs = new SQLQueryAdapter(query, errors).executeAndGetLogged(state)) {
+            success = rs != null && reader.read(indices, rs);
+        } catch (IgnoreMeException e) {
+            // canceled by the statement watchdog
+            failed.addAll(indices);
+            return;
+        } catch (SQLException e) {
+            state.getLogger().writeCurrent("-- " + e.getMessage());
+            success = false;
+        } catch (Exception e) {
+            throw new AssertionError(query, e);
+        }
+        if (success) {
+            return;
+        }
+        if (indices.size() == 1) {
+            failed.addAll(indices);
+            return;
+        }
+        int half = indices.size() / 2;
+        executeBisecting(indices.subList(0, half), failed, queryBuilder, reader);
+        executeBisecting(indices.subList(half, indices.size()), failed, queryBuilder, reader);
+    }
+
+    /**
+     * Executes the unoptimized and the optimized query as a single request.
+     *
+     * @return the unoptimized and the optimized count, or null if the queries have to be executed one by one
+     */
+    private int[] getCountsAsGroup() throws SQLException {
+        int[] counts = new int[2];
+        int[] nrUnoptimizedRows = new int[1];
+        boolean executed = GeneralQueryGroup.execute(List.of(unoptimizedQueryString, optimizedQueryString),
+                MAX_ROWS_LIMIT, state, (index, rs) -> {
+                    if (index == 0) {
+                        while (rs.next()) {
+                            nrUnoptimizedRows[0]++;
+                            counts[0] += rs.getBoolean(1) ? 1 : 0;
+                        }
+                    } else {
+                        // some drivers ignore the limit
+                        while (counts[1] < MAX_ROWS_LIMIT && rs.next()) {
+                            counts[1]++;
+                        }
+                    }
+                });
+        if (!executed) {
+            return null;
+        }
+        // the count of a truncated unoptimized query is not comparable
+        if (nrUnoptimizedRows[0] >= MAX_ROWS_LIMIT) {
+            throw new IgnoreMeException();
+        }
+        return counts;
+    }
+
     private int getSecondQuery(List<Node<GeneralExpression>> tableList, Node<GeneralExpression> randomWhereCondition,
             List<Node<GeneralExpression>> joins) throws SQLException {
-        GeneralSelect select = new GeneralSelect();
-        // select.setGroupByClause(groupBys);
-        // GeneralExpression isTrue =
-        // GeneralPostfixOperation.create(randomWhereCondition,
-        // PostfixOperator.IS_TRUE);
-        Node<GeneralExpression> asText = new NewPostfixTextNode<>(randomWhereCondition, " IS TRUE ");
-        select.setFetchColumns(Arrays.asList(asText));
-        select.setFromList(tableList);
-        // select.setSelectType(SelectType.ALL);
-        select.setJoinList(joins);
+        buildUnoptimizedQuery(tableList, randomWhereCondition, joins);
         int secondCount = 0;
-        unoptimizedQueryString = GeneralToStringVisitor.asString(select);
 
         // Use auto-index-selects if enabled
         if (AutoIndexSelectHelper.isEnabled(state)) {
@@ -193,6 +411,9 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
         SQLancerResultSet rs;
         try {
             rs = q.executeAndGetLogged(state);
+        } catch (IgnoreMeException e) {
+            // canceled by the statement watchdog
+            return -1;
         } catch (Exception e) {
             throw new AssertionError(unoptimizedQueryString, e);
         }
@@ -214,26 +435,25 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
         return secondCount;
     }
 
+    private void buildUnoptimizedQuery(List<Node<GeneralExpression>> tableList,
+            Node<GeneralExpression> randomWhereCondition, List<Node<GeneralExpression>> joins) {
+        GeneralSelect select = new GeneralSelect();
+        // select.setGroupByClause(groupBys);
+        // GeneralExpression isTrue =
+        // GeneralPostfixOperation.create(randomWhereCondition,
+        // PostfixOperator.IS_TRUE);
+        Node<GeneralExpression> asText = new NewPostfixTextNode<>(randomWhereCondition, " IS TRUE ");
+        select.setFetchColumns(Arrays.asList(asText));
+        select.setFromList(tableList);
+        // select.setSelectType(SelectType.ALL);
+        select.setJoinList(joins);
+        unoptimizedQueryString = GeneralToStringVisitor.asString(select);
+    }
+
     private int getFirstQueryCount(SQLConnection con, List<Node<GeneralExpression>> tableList,
             List<GeneralColumn> columns, Node<GeneralExpression> randomWhereCondition,
             List<Node<GeneralExpression>> joins) throws SQLException {
-        optimizedSelect = new GeneralSelect();
-        // select.setGroupByClause(groupBys);
-        // GeneralAggregate aggr = new GeneralAggregate(
-        List<Node<GeneralExpression>> allColumns = columns.stream()
-                .map((c) -> new ColumnReferenceNode<GeneralExpression, GeneralColumn>(c)).collect(Collectors.toList());
-        // GeneralAggregateFunction.COUNT);
-        // select.setFetchColumns(Arrays.asList(aggr));
-        optimizedSelect.setFetchColumns(allColumns);
-        optimizedSelect.setFromList(tableList);
-        optimizedSelect.setWhereClause(randomWhereCondition);
-        // if (Randomly.getBooleanWithSmallProbability()) {
-        // select.setOrderByExpressions(new
-        // GeneralExpressionGenerator(state).setColumns(columns).generateOrderBys());
-        // }
-        // select.setSelectType(SelectType.ALL);
-        optimizedSelect.setJoinList(joins);
-        optimizedQueryString = GeneralToStringVisitor.asString(optimizedSelect);
+        buildOptimizedQuery(tableList, columns, randomWhereCondition, joins);
 
         // Use auto-index-selects if enabled
         if (AutoIndexSelectHelper.isEnabled(state)) {
@@ -252,22 +472,54 @@ public class GeneralNoRECOracle extends NoRECBase<GeneralGlobalState> implements
         int firstCount = 0;
         try (Statement stat = con.createStatement()) {
             stat.setMaxRows(MAX_ROWS_LIMIT); // Limit rows to avoid OOM; query plan unchanged
+            con.beginStreaming(stat);
             if (options.logEachSelect()) {
                 logger.writeCurrent(optimizedQueryString);
             }
+            Watch watch = StatementWatchdog.watch(stat, StatementKind.SELECT);
             try (ResultSet rs = stat.executeQuery(optimizedQueryString)) {
                 while (rs.next()) {
                     firstCount++;
                 }
+            } catch (SQLException e) {
+                if (watch.isCanceled()) {
+                    con.recordTimeout();
+                }
+                throw e;
+            } finally {
+                watch.close();
             }
         } catch (SQLException e) {
             state.getHandler().appendScoreToTable(false, true);
             state.getLogger().writeCurrent(e.getMessage());
             throw new IgnoreMeException();
+        } finally {
+            con.endStreaming();
         }
         return firstCount;
     }
 
+    private void buildOptimizedQuery(List<Node<GeneralExpression>> tableList, List<GeneralColumn> columns,
+            Node<GeneralExpression> randomWhereCondition, List<Node<GeneralExpression>> joins) {
+        optimizedSelect = new GeneralSelect();
+        // select.setGroupByClause(groupBys);
+        // GeneralAggregate aggr = new GeneralAggregate(
+        List<Node<GeneralExpression>> allColumns = columns.stream()
+                .map((c) -> new ColumnReferenceNode<GeneralExpression, GeneralColumn>(c)).collect(Collectors.toList());
+        // GeneralAggregateFunction.COUNT);
+        // select.setFetchColumns(Arrays.asList(aggr));
+        optimizedSelect.setFetchColumns(allColumns);
+        optimizedSelect.setFromList(tableList);
+        optimizedSelect.setWhereClause(randomWhereCondition);
+        // if (Randomly.getBooleanWithSmallProbability()) {
+        // select.setOrderByExpressions(new
+        // GeneralExpressionGenerator(state).setColumns(columns).generateOrderBys());
+        // }
+        // select.setSelectType(SelectType.ALL);
+        optimizedSelect.setJoinList(joins);
+        optimizedQueryString = GeneralToStringVisitor.asString(optimizedSelect);
+    }
+
     @Override
     public Reproducer<GeneralGlobalState> getLastReproducer() {
         return reproducer;
@@ -0,0 +1,154 @@
+package sqlancer.general.oracle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.Randomly;
+import sqlancer.SQLConnection;
+import sqlancer.common.ast.newast.NewAliasNode;
+import sqlancer.common.ast.newast.NewBinaryOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPostfixOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPrefixOperatorNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.common.ast.newast.TableReferenceNode;
+import sqlancer.common.oracle.PivotedQuerySynthesisBase;
+import sqlancer.common.query.Query;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.general.GeneralCardinalityStats;
+import sqlancer.general.GeneralErrors;
+import sqlancer.general.GeneralExpressionEvaluator;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralRowValue;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.GeneralSchema.GeneralTables;
+import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.ast.GeneralColumnReference;
+import sqlancer.general.ast.GeneralConstant;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.ast.GeneralSelect;
+import sqlancer.general.ast.GeneralUnaryPostfixOperator;
+import sqlancer.general.ast.GeneralUnaryPrefixOperator;
+import sqlancer.general.gen.GeneralPivotedExpressionGenerator;
+
+/**
+ * Pivoted Query Synthesis: a random row of each table is fetched, and a query is generated whose WHERE clause is
+ * rectified so that it evaluates to TRUE for the combination of these rows. The check only asks the DBMS whether the
+ * query fetches the pivot row, with a query that returns at most one row, so no result set is transferred.
+ */
+public class GeneralPivotedQuerySynthesisOracle
+        extends PivotedQuerySynthesisBase<GeneralGlobalState, GeneralRowValue, Node<GeneralExpression>, SQLConnection> {
+
+    private static final String ALIAS = "pqs";
+
+    private List<GeneralColumn> fetchColumns;
+
+    public GeneralPivotedQuerySynthesisOracle(GeneralGlobalState globalState) {
+        super(globalState);
+        GeneralErrors.addExpressionErrors(errors);
+    }
+
+    @Override
+    protected Query<SQLConnection> getRectifiedQuery() throws Exception {
+        List<GeneralTable> tables = globalState.getSchema().getDatabaseTablesWithoutViews();
+        if (tables.isEmpty()) {
+            throw new IgnoreMeException();
+        }
+        // views are not used, as the rows of a view need not be the same when it is queried again
+        GeneralTables targetTables = new GeneralTables(GeneralCardinalityStats.limitCrossProduct(
+                Randomly.nonEmptySubset(tables), globalState.getDbmsSpecificOptions().maxCrossProductRows));
+        pivotRow = targetTables.getRandomRowValue(globalState, errors);
+        fetchColumns = targetTables.getColumns();
+
+        // the expressions only compare integers and booleans, the other columns can only be checked for NULL
+        List<GeneralColumn> evaluableColumns = new ArrayList<>();
+        List<GeneralColumn> nullCheckColumns = new ArrayList<>();
+        for (Map.Entry<GeneralColumn, Object> entry : pivotRow.getValues().entrySet()) {
+            Object value = entry.getValue();
+            if (value == null || value instanceof Long || value instanceof Boolean) {
+                evaluableColumns.add(entry.getKey());
+            } else {
+                nullCheckColumns.add(entry.getKey());
+            }
+        }
+        GeneralPivotedExpressionGenerator gen = new GeneralPivotedExpressionGenerator(globalState, evaluableColumns,
+                nullCheckColumns);
+        Node<GeneralExpression> where = rectify(gen.generatePredicate());
+        rectifiedPredicates.add(where);
+
+        GeneralSelect select = new GeneralSelect();
+        List<Node<GeneralExpression>> columns = new ArrayList<>();
+        for (int i = 0; i < fetchColumns.size(); i++) {
+            columns.add(new NewAliasNode<>(new GeneralColumnReference(fetchColumns.get(i)), "ref" + i));
+        }
+        select.setFetchColumns(columns);
+        select.setFromList(targetTables.getTables().stream()
+                .map(t -> new TableReferenceNode<GeneralExpression, GeneralTable>(t)).collect(Collectors.toList()));
+        select.setWhereClause(where);
+        return new SQLQueryAdapter(GeneralToStringVisitor.asString(select), errors);
+    }
+
+    private Node<GeneralExpression> rectify(Node<GeneralExpression> predicate) {
+        Object value = GeneralExpressionEvaluator.evaluate(predicate, pivotRow.getValues());
+        if (value == null) {
+            return new NewUnaryPostfixOperatorNode<>(predicate, GeneralUnaryPostfixOperator.IS_NULL);
+        } else if (Boolean.FALSE.equals(value)) {
+            return new NewUnaryPrefixOperatorNode<>(predicate, GeneralUnaryPrefixOperator.NOT);
+        } else {
+            return predicate;
+        }
+    }
+
+    @Override
+    protected Query<SQLConnection> getContainmentCheckQuery(Query<?> pivotRowQuery) throws Exception {
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < fetchColumns.size(); i++) {
+            Object value = pivotRow.getValues().get(fetchColumns.get(i));
+            String ref = ALIAS + ".ref" + i;
+            if (value == null) {
+                conditions.add(ref + " IS NULL");
+            } else if (value instanceof Long) {
+                conditions.add(ref + " = " + GeneralConstant.createIntConstant((Long) value));
+            } else if (value instanceof Boolean) {
+                conditions.add(ref + " = " + GeneralConstant.createBooleanConstant((Boolean) value));
+            }
+            // the string representation of other values differs between DBMSs, so they are not compared
+        }
+        StringBuilder sb = new StringBuilder("SELECT 1 FROM (");
+        sb.append(pivotRowQuery.getUnterminatedQueryString());
+        sb.append(") AS ");
+        sb.append(ALIAS);
+        if (!conditions.isEmpty()) {
+            sb.append(" WHERE ");
+            sb.append(String.join(" AND ", conditions));
+        }
+        sb.append(" LIMIT 1");
+        return new SQLQueryAdapter(sb.toString(), errors);
+    }
+
+    @Override
+    protected String getExpectedValues(Node<GeneralExpression> expr) {
+        StringBuilder sb = new StringBuilder();
+        appendExpectedValues(expr, sb);
+        return sb.toString();
+    }
+
+    private void appendExpectedValues(Node<GeneralExpression> expr, StringBuilder sb) {
+        sb.append("\n");
+        sb.append(GeneralToStringVisitor.asString(expr));
+        sb.append(" -- ");
+        sb.append(GeneralExpressionEvaluator.evaluate(expr, pivotRow.getValues()));
+        if (expr instanceof NewUnaryPrefixOperatorNode) {
+            appendExpectedValues(((NewUnaryPrefixOperatorNode<GeneralExpression>) expr).getExpr(), sb);
+        } else if (expr instanceof NewUnaryPostfixOperatorNode) {
+            appendExpectedValues(((NewUnaryPostfixOperatorNode<GeneralExpression>) expr).getExpr(), sb);
+        } else if (expr instanceof NewBinaryOperatorNode) {
+            appendExpectedValues(((NewBinaryOperatorNode<GeneralExpression>) expr).getLeft(), sb);
+            appendExpectedValues(((NewBinaryOperatorNode<GeneralExpression>) expr).getRight(), sb);
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+package sqlancer.general.oracle;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import sqlancer.ComparatorHelper;
+import sqlancer.IgnoreMeException;
+import sqlancer.Randomly;
+import sqlancer.Reproducer;
+import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.NewFunctionNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralComparatorHelper;
+import sqlancer.general.GeneralErrors;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSelectTemplate;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.gen.GeneralExpressionGenerator.GeneralAggregateFunction;
+
+/**
+ * TLP for aggregates: an aggregate over all rows must equal the combination of the aggregates of the three partitions,
+ * e.g., {@code SELECT MAX(c0) FROM t0} and the largest value of
+ * {@code SELECT MAX(c0) FROM t0 WHERE p UNION ALL SELECT MAX(c0) FROM t0 WHERE NOT p UNION ALL ...}. The queries fetch
+ * one and three rows, so the check costs two round trips, regardless of the size of the tables.
+ */
+public class GeneralQueryPartitioningAggregate extends GeneralQueryPartitioningBase {
+
+    private Reproducer<GeneralGlobalState> reproducer;
+    private String lastQueryString;
+
+    public GeneralQueryPartitioningAggregate(GeneralGlobalState state) {
+        super(state);
+        GeneralErrors.addExpressionErrors(errors);
+    }
+
+    private class GeneralQueryPartitioningAggregateReproducer implements Reproducer<GeneralGlobalState> {
+        final GeneralAggregateFunction aggregate;
+        final String originalQueryString;
+        final String combinedQueryString;
+        private String errorMessage;
+
+        GeneralQueryPartitioningAggregateReproducer(GeneralAggregateFunction aggregate, String originalQueryString,
+                String combinedQueryString, String errorMessage) {
+            this.aggregate = aggregate;
+            this.originalQueryString = originalQueryString;
+            this.combinedQueryString = combinedQueryString;
+            this.errorMessage = errorMessage;
+        }
+
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        @Override
+        public boolean bugStillTriggers(GeneralGlobalState globalState) {
+            try {
+                assumeAggregatesAreEqual(aggregate, originalQueryString, combinedQueryString, globalState);
+            } catch (AssertionError triggeredError) {
+                this.errorMessage = triggeredError.getMessage();
+                return true;
+            } catch (SQLException ignored) {
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void check() throws SQLException {
+        reproducer = null;
+        try {
+            super.check();
+            GeneralAggregateFunction aggregate = Randomly.fromOptions(GeneralAggregateFunction.COUNT,
+                    GeneralAggregateFunction.SUM, GeneralAggregateFunction.MIN, GeneralAggregateFunction.MAX);
+            List<GeneralColumn> intColumns = targetTables.getColumns().stream()
+                    .filter(c -> c.getType().getPrimitiveDataType() == GeneralDataType.INT)
+                    .collect(Collectors.toList());
+            if (aggregate == GeneralAggregateFunction.SUM && intColumns.isEmpty()) {
+                // the sum of other types could be rounded differently for the partitions
+                aggregate = GeneralAggregateFunction.COUNT;
+            }
+            GeneralColumn argument;
+            if (aggregate == GeneralAggregateFunction.SUM) {
+                argument = Randomly.fromList(intColumns);
+            } else if (aggregate == GeneralAggregateFunction.COUNT && Randomly.getBoolean()) {
+                argument = new GeneralColumn("*", null, false, false);
+            } else {
+                argument = Randomly.fromList(targetTables.getColumns());
+            }
+            Node<GeneralExpression> call = new NewFunctionNode<GeneralExpression, GeneralAggregateFunction>(
+                    List.of(new ColumnReferenceNode<GeneralExpression, GeneralColumn>(argument)), aggregate);
+            select.setFetchColumns(List.of(call));
+            GeneralSelectTemplate template = GeneralSelectTemplate.of(select);
+            String originalQueryString = template.render(null);
+            lastQueryString = originalQueryString;
+
+            String firstQueryString = template.render(predicate);
+            String combinedQueryString = firstQueryString + " UNION ALL " + template.render(negatedPredicate)
+                    + " UNION ALL " + template.render(isNullPredicate);
+            try {
+                assumeAggregatesAreEqual(aggregate, originalQueryString, combinedQueryString, state);
+            } catch (SQLException e) {
+                state.getHandler().appendScoreToTable(false, true);
+                throw e;
+            } catch (AssertionError e) {
+                state.getHandler().appendScoreToTable(true, true, firstQueryString);
+                reproducer = new GeneralQueryPartitioningAggregateReproducer(aggregate, originalQueryString,
+                        combinedQueryString, e.getMessage());
+                throw e;
+            }
+            state.getHandler().appendScoreToTable(true, true, firstQueryString);
+        } finally {
+            releaseGenerator();
+        }
+    }
+
+    private void assumeAggregatesAreEqual(GeneralAggregateFunction aggregate, String originalQueryString,
+            String combinedQueryString, GeneralGlobalState globalState) throws SQLException {
+        List<String> originalResult = GeneralComparatorHelper.getResultSetFirstColumnAsString(originalQueryString,
+                errors, globalState);
+        List<String> partitionResults = GeneralComparatorHelper.getResultSetFirstColumnAsString(combinedQueryString,
+                errors, globalState);
+        if (originalResult.size() != 1 || partitionResults.size() != 3) {
+            throw new AssertionError(String.format("The aggregates fetch %d and %d rows!%nFirst query : \"%s\"%n"
+                    + "Second query: \"%s\"", originalResult.size(), partitionResults.size(), originalQueryString,
+                    combinedQueryString));
+        }
+        String originalValue = ComparatorHelper.canonicalizeResultValue(originalResult.get(0));
+        boolean equal = isCombinationEqual(aggregate, originalValue, partitionResults.stream()
+                .map(ComparatorHelper::canonicalizeResultValue).collect(Collectors.toList()));
+        if (!equal) {
+            throw new AssertionError(String.format("The aggregates mismatch: %s and %s!%nFirst query : \"%s\"%n"
+                    + "Second query: \"%s\"", originalValue, partitionResults, originalQueryString,
+                    combinedQueryString));
+        }
+    }
+
+    /**
+     * Returns whether the aggregate over all rows equals the combination of the aggregates of the partitions. A
+     * partition without rows yields NULL, except for COUNT, and is not part of the combination.
+     */
+    public static boolean isCombinationEqual(GeneralAggregateFunction aggregate, String originalValue,
+            List<String> partitionResults) {
+        List<String> partitionValues = partitionResults.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        switch (aggregate) {
+        case COUNT:
+        case SUM:
+            return isEqualSum(originalValue, partitionValues);
+        case MIN:
+        case MAX:
+            return isEqualExtremum(aggregate == GeneralAggregateFunction.MAX, originalValue, partitionValues);
+        default:
+            throw new AssertionError(aggregate);
+        }
+    }
+
+    private static boolean isEqualSum(String originalValue, List<String> partitionValues) {
+        if (originalValue == null) {
+            // the sum of no rows is NULL, the count is 0
+            return partitionValues.isEmpty();
+        }
+        BigDecimal sum = BigDecimal.ZERO;
+        try {
+            for (String value : partitionValues) {
+                sum = sum.add(new BigDecimal(value));
+            }
+            return sum.compareTo(new BigDecimal(originalValue)) == 0;
+        } catch (NumberFormatException e) {
+            throw new IgnoreMeException();
+        }
+    }
+
+    private static boolean isEqualExtremum(boolean max, String originalValue, List<String> partitionValues) {
+        if (originalValue == null || partitionValues.isEmpty()) {
+            return originalValue == null && partitionValues.isEmpty();
+        }
+        Comparator<String> order = getOrder(partitionValues);
+        if (order == null) {
+            // the order of other values depends on the collation of the DBMS, but the extremum of all rows must still
+            // be that of one of the partitions
+            return partitionValues.contains(originalValue);
+        }
+        String extremum = max ? Collections.max(partitionValues, order) : Collections.min(partitionValues, order);
+        return extremum.equals(originalValue) || ComparatorHelper.isEqualDouble(extremum, originalValue);
+    }
+
+    /**
+     * Returns the order of the values if they are all numbers or all booleans, and otherwise null.
+     */
+    private static Comparator<String> getOrder(List<String> values) {
+        if (values.stream().allMatch(v -> "true".equalsIgnoreCase(v) || "false".equalsIgnoreCase(v))) {
+            return Comparator.comparing(Boolean::parseBoolean);
+        }
+        try {
+            values.forEach(BigDecimal::new);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return Comparator.comparing(BigDecimal::new);
+    }
+
+    @Override
+    public Reproducer<GeneralGlobalState> getLastReproducer() {
+        return reproducer;
+    }
+
+    @Override
+    public String getLastQueryString() {
+        return lastQueryString;
+    }
+
+}
@@ -41,10 +41,9 @@ public class GeneralQueryPartitioningBase
     @Override
     public void check() throws SQLException {
         s = state.getSchema();
-        targetTables = s.getRandomTableNonEmptyTables();
+        targetTables = s.getRandomTableNonEmptyTables(state.getDbmsSpecificOptions().maxCrossProductRows);
+        // the generator is used until the end of the check, after which the subclasses release it
         gen = GeneralRandomQuerySynthesizer.getExpressionGenerator(state, targetTables.getColumns());
-        // gen = new
-        // GeneralExpressionGenerator(state).setColumns(targetTables.getColumns());
         initializeTernaryPredicateVariants();
         select = new GeneralSelect();
         select.setFetchColumns(generateFetchColumns());
@@ -74,6 +73,16 @@ public class GeneralQueryPartitioningBase
         return columns;
     }
 
+    /**
+     * Returns the expression generator of the check to the state.
+     */
+    void releaseGenerator() {
+        if (gen != null) {
+            state.releaseExpressionGenerator(gen);
+            gen = null;
+        }
+    }
+
     @Override
     protected ExpressionGenerator<Node<GeneralExpression>> getGen() {
         return gen;
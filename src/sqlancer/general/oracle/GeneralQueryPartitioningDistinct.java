@@ -0,0 +1,133 @@
+package sqlancer.general.oracle;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import sqlancer.ComparatorHelper;
+import sqlancer.Randomly;
+import sqlancer.Reproducer;
+import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralComparatorHelper;
+import sqlancer.general.GeneralErrors;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSelectTemplate;
+import sqlancer.general.ast.GeneralExpression;
+
+/**
+ * TLP for duplicate elimination: {@code SELECT DISTINCT cols ...} (or the same query with {@code GROUP BY cols}) must
+ * fetch the rows of the UNION of its three partitions, in which the DBMS also removes the duplicates.
+ */
+public class GeneralQueryPartitioningDistinct extends GeneralQueryPartitioningBase {
+
+    private Reproducer<GeneralGlobalState> reproducer;
+    private String lastQueryString;
+
+    public GeneralQueryPartitioningDistinct(GeneralGlobalState state) {
+        super(state);
+        GeneralErrors.addExpressionErrors(errors);
+    }
+
+    private class GeneralQueryPartitioningDistinctReproducer implements Reproducer<GeneralGlobalState> {
+        final String firstQueryString;
+        final String secondQueryString;
+        final String thirdQueryString;
+        final String originalQueryString;
+        private String errorMessage;
+
+        GeneralQueryPartitioningDistinctReproducer(String firstQueryString, String secondQueryString,
+                String thirdQueryString, String originalQueryString, String errorMessage) {
+            this.firstQueryString = firstQueryString;
+            this.secondQueryString = secondQueryString;
+            this.thirdQueryString = thirdQueryString;
+            this.originalQueryString = originalQueryString;
+            this.errorMessage = errorMessage;
+        }
+
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        @Override
+        public boolean bugStillTriggers(GeneralGlobalState globalState) {
+            try {
+                List<String> resultSet = GeneralComparatorHelper.getResultSetFirstColumnAsString(originalQueryString,
+                        errors, globalState);
+                List<String> combinedString = new ArrayList<>();
+                List<String> secondResultSet = GeneralComparatorHelper.getCombinedResultSetNoDuplicates(
+                        firstQueryString, secondQueryString, thirdQueryString, combinedString, true, globalState,
+                        errors);
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, globalState, ComparatorHelper::canonicalizeResultValue);
+            } catch (AssertionError triggeredError) {
+                this.errorMessage = triggeredError.getMessage();
+                return true;
+            } catch (SQLException ignored) {
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void check() throws SQLException {
+        reproducer = null;
+        try {
+            super.check();
+            // GROUP BY * is not valid, so the columns are always named
+            List<Node<GeneralExpression>> columns = Randomly.nonEmptySubset(targetTables.getColumns()).stream()
+                    .map(c -> new ColumnReferenceNode<GeneralExpression, GeneralColumn>(c))
+                    .collect(Collectors.toList());
+            select.setFetchColumns(columns);
+            if (Randomly.getBoolean()) {
+                select.setDistinct(true);
+            } else {
+                select.setGroupByExpressions(columns);
+            }
+            GeneralSelectTemplate template = GeneralSelectTemplate.of(select);
+            String originalQueryString = template.render(null);
+            lastQueryString = originalQueryString;
+            String firstQueryString = template.render(predicate);
+            String secondQueryString = template.render(negatedPredicate);
+            String thirdQueryString = template.render(isNullPredicate);
+
+            List<String> resultSet;
+            List<String> combinedString = new ArrayList<>();
+            List<String> secondResultSet;
+            try {
+                resultSet = GeneralComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
+                secondResultSet = GeneralComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
+                        secondQueryString, thirdQueryString, combinedString, true, state, errors);
+            } catch (Exception e) {
+                state.getHandler().appendScoreToTable(false, true);
+                throw e;
+            }
+            try {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state, ComparatorHelper::canonicalizeResultValue);
+            } catch (AssertionError e) {
+                state.getHandler().appendScoreToTable(true, true, firstQueryString);
+                reproducer = new GeneralQueryPartitioningDistinctReproducer(firstQueryString, secondQueryString,
+                        thirdQueryString, originalQueryString, e.getMessage());
+                throw e;
+            }
+            state.getHandler().appendScoreToTable(true, true, firstQueryString);
+        } finally {
+            releaseGenerator();
+        }
+    }
+
+    @Override
+    public Reproducer<GeneralGlobalState> getLastReproducer() {
+        return reproducer;
+    }
+
+    @Override
+    public String getLastQueryString() {
+        return lastQueryString;
+    }
+
+}
@@ -2,19 +2,32 @@ package sqlancer.general.oracle;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import sqlancer.ComparatorHelper;
+import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 import sqlancer.Reproducer;
+import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.NewAliasNode;
+import sqlancer.common.ast.newast.Node;
 import sqlancer.general.GeneralComparatorHelper;
+import sqlancer.general.GeneralComparatorHelper.SetDifference;
 import sqlancer.general.GeneralErrors;
 import sqlancer.general.GeneralProvider.GeneralGlobalState;
-import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.GeneralQueryGroup;
+import sqlancer.general.GeneralSelectTemplate;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.gen.AutoIndexSelectHelper;
 
 public class GeneralQueryPartitioningWhere extends GeneralQueryPartitioningBase {
     private Reproducer<GeneralGlobalState> reproducer;
     private String lastQueryString;
+    private int originalResultSize;
+    private Set<String> originalResultValues;
 
     public GeneralQueryPartitioningWhere(GeneralGlobalState state) {
         super(state);
@@ -66,10 +79,69 @@ public class GeneralQueryPartitioningWhere extends GeneralQueryPartitioningBase
     @Override
     public void check() throws SQLException {
         reproducer = null;
-        super.check();
-        select.setWhereClause(null);
-        String originalQueryString = GeneralToStringVisitor.asString(select);
-        lastQueryString = originalQueryString;
+        originalResultValues = null;
+        try {
+            super.check();
+            select.setWhereClause(null);
+            SetDifference setDifference = state.getDbmsSpecificOptions().serverSideComparison
+                    && !AutoIndexSelectHelper.isEnabled(state) ? GeneralComparatorHelper.getSetDifference(state)
+                            : SetDifference.NONE;
+            List<String> columnNames = new ArrayList<>();
+            if (setDifference == SetDifference.GROUP_BY) {
+                // the GROUP BY needs the names of the columns, which are unknown for *
+                if (select.getFetchColumns().stream().anyMatch(c -> c instanceof ColumnReferenceNode
+                        && "*".equals(((ColumnReferenceNode<?, ?>) c).getColumn().getName()))) {
+                    setDifference = SetDifference.NONE;
+                } else {
+                    List<Node<GeneralExpression>> aliased = new ArrayList<>();
+                    for (Node<GeneralExpression> column : select.getFetchColumns()) {
+                        columnNames.add("v" + columnNames.size());
+                        aliased.add(new NewAliasNode<>(column, columnNames.get(columnNames.size() - 1)));
+                    }
+                    select.setFetchColumns(aliased);
+                }
+            }
+            GeneralSelectTemplate template = GeneralSelectTemplate.of(select);
+            String originalQueryString = template.render(null);
+            lastQueryString = originalQueryString;
+
+            boolean concurrent = state.getDbmsSpecificOptions().tlpSiblingConnections > 0
+                    && !AutoIndexSelectHelper.isEnabled(state) && !state.getSiblingConnections().isEmpty();
+            boolean grouped = !concurrent && GeneralQueryGroup.isEnabled(state);
+            boolean anyChecked = false;
+            for (int i = 0; i < state.getDbmsSpecificOptions().tlpPredicates; i++) {
+                if (i != 0) {
+                    initializeTernaryPredicateVariants();
+                }
+                try {
+                    if (setDifference != SetDifference.NONE
+                            && checkPartitionsOnServer(template, setDifference, columnNames, originalQueryString)) {
+                        anyChecked = true;
+                        continue;
+                    }
+                } catch (IgnoreMeException e) {
+                    continue;
+                }
+                if (originalResultValues == null && !concurrent && !grouped) {
+                    fetchOriginalResult(originalQueryString, true);
+                }
+                try {
+                    checkPartitions(template, originalQueryString, concurrent, grouped);
+                    anyChecked = true;
+                } catch (IgnoreMeException e) {
+                    // the partitions of the other predicates can still be checked
+                }
+            }
+            if (!anyChecked) {
+                throw new IgnoreMeException();
+            }
+        } finally {
+            releaseGenerator();
+        }
+    }
+
+    // the original result is kept only as what the comparison needs, and shared by all predicates
+    private void fetchOriginalResult(String originalQueryString, boolean scoreFailure) throws SQLException {
         List<String> resultSet;
         try {
             resultSet = GeneralComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
@@ -83,33 +155,133 @@ public class GeneralQueryPartitioningWhere extends GeneralQueryPartitioningBase
             // Noticed that, we would still add some extra information to the generator table. Since the UNION ALL query
             // would not be actually executed but fail due to the previous JOIN query.
             // I think it is fine. We could do dependency analysis later.
-            state.getHandler().appendScoreToTable(false, true);
+            if (scoreFailure) {
+                state.getHandler().appendScoreToTable(false, true);
+            }
             throw e;
         }
+        setOriginalResult(resultSet);
+    }
+
+    private void setOriginalResult(List<String> resultSet) {
+        originalResultSize = resultSet.size();
+        originalResultValues = resultSet.stream().map(ComparatorHelper::canonicalizeResultValue)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Fetches the partitions as separate queries, together with the original query if its result is not known yet,
+     * over the main connection and its siblings.
+     */
+    private List<String> fetchPartitionsConcurrently(String originalQueryString, String firstQueryString,
+            String secondQueryString, String thirdQueryString, List<String> combinedString) throws SQLException {
+        List<String> queries = new ArrayList<>(List.of(firstQueryString, secondQueryString, thirdQueryString));
+        boolean withOriginal = originalResultValues == null;
+        if (withOriginal) {
+            queries.add(0, originalQueryString);
+        }
+        List<List<String>> results = GeneralComparatorHelper.getResultSetsConcurrently(queries, errors, state);
+        if (withOriginal) {
+            setOriginalResult(results.remove(0));
+        }
+        combinedString.addAll(List.of(firstQueryString, secondQueryString, thirdQueryString));
+        return results.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Fetches the partitions, together with the original query if its result is not known yet, in a single request.
+     * If the request fails, the queries are executed one by one.
+     */
+    private List<String> fetchPartitionsAsGroup(String originalQueryString, String firstQueryString,
+            String secondQueryString, String thirdQueryString, List<String> combinedString, boolean asUnion)
+            throws SQLException {
+        List<String> partitions = asUnion
+                ? List.of(getUnionQueryString(firstQueryString, secondQueryString, thirdQueryString))
+                : List.of(firstQueryString, secondQueryString, thirdQueryString);
+        List<String> queries = new ArrayList<>(partitions);
+        boolean withOriginal = originalResultValues == null;
+        if (withOriginal) {
+            queries.add(0, originalQueryString);
+        }
+        List<List<String>> results = GeneralQueryGroup.getResultSetsFirstColumnAsString(queries, state);
+        if (results == null) {
+            if (withOriginal) {
+                // a failure is scored by the caller, as for the partitions
+                fetchOriginalResult(originalQueryString, false);
+            }
+            return GeneralComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
+                    thirdQueryString, combinedString, asUnion, state, errors);
+        }
+        if (withOriginal) {
+            setOriginalResult(results.remove(0));
+        }
+        combinedString.addAll(partitions);
+        return results.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
 
+    /**
+     * Compares the partitions with the original query in the DBMS, which only transfers differing rows.
+     *
+     * @return false if the DBMS could not compare the results, or found them to differ; the comparison on the client
+     *         then decides whether this is a bug, as the larger difference query can itself be miscomputed (e.g., by
+     *         SQLite for RIGHT JOINs in a derived table)
+     */
+    private boolean checkPartitionsOnServer(GeneralSelectTemplate template, SetDifference setDifference,
+            List<String> columnNames, String originalQueryString) throws SQLException {
+        String firstQueryString = template.render(predicate);
+        String secondQueryString = template.render(negatedPredicate);
+        String thirdQueryString = template.render(isNullPredicate);
+        String unionQueryString = getUnionQueryString(firstQueryString, secondQueryString, thirdQueryString);
+        try {
+            if (!GeneralComparatorHelper.assumeResultSetsAreEqualOnServer(setDifference, originalQueryString,
+                    unionQueryString, columnNames, state, errors)) {
+                return false;
+            }
+        } catch (AssertionError e) {
+            return false;
+        }
+        state.getHandler().appendScoreToTable(true, true, firstQueryString);
+        return true;
+    }
+
+    private static String getUnionQueryString(String firstQueryString, String secondQueryString,
+            String thirdQueryString) {
+        return firstQueryString + " UNION ALL " + secondQueryString + " UNION ALL " + thirdQueryString;
+    }
+
+    private void checkPartitions(GeneralSelectTemplate template, String originalQueryString, boolean concurrent,
+            boolean grouped) throws SQLException {
         boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
         if (orderBy) {
             select.setOrderByExpressions(gen.generateOrderBys());
+            template = template.withSuffixOf(select);
         }
-        select.setWhereClause(predicate);
-        String firstQueryString = GeneralToStringVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = GeneralToStringVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = GeneralToStringVisitor.asString(select);
+        String firstQueryString = template.render(predicate);
+        String secondQueryString = template.render(negatedPredicate);
+        String thirdQueryString = template.render(isNullPredicate);
         List<String> combinedString = new ArrayList<>();
 
         List<String> secondResultSet;
         try {
-            secondResultSet = GeneralComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                    thirdQueryString, combinedString, !orderBy, state, errors);
+            if (concurrent) {
+                secondResultSet = fetchPartitionsConcurrently(originalQueryString, firstQueryString,
+                        secondQueryString, thirdQueryString, combinedString);
+            } else if (grouped) {
+                secondResultSet = fetchPartitionsAsGroup(originalQueryString, firstQueryString, secondQueryString,
+                        thirdQueryString, combinedString, !orderBy);
+            } else {
+                secondResultSet = GeneralComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
+                        thirdQueryString, combinedString, !orderBy, state, errors);
+            }
         } catch (Exception e) {
             state.getHandler().appendScoreToTable(false, true);
             throw e;
         }
         try {
-            ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                    state, ComparatorHelper::canonicalizeResultValue);
+            ComparatorHelper.assumeResultSetsAreEqual(originalResultSize, originalResultValues,
+                    secondResultSet.stream().map(ComparatorHelper::canonicalizeResultValue)
+                            .collect(Collectors.toList()),
+                    originalQueryString, combinedString, state);
         } catch (AssertionError e) {
             // TODO we need to give some information to the handler here
             // state.getHandler().printStatistics();
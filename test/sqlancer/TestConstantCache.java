@@ -0,0 +1,85 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class TestConstantCache {
+
+    @Test
+    public void testDuplicatesAreIgnored() {
+        SplittableRandom random = new SplittableRandom(0);
+        LongConstantCache cache = new LongConstantCache(10);
+        for (int i = 0; i < 5; i++) {
+            cache.add(42, random);
+        }
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains(42));
+        assertEquals(42, cache.get(random));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        SplittableRandom random = new SplittableRandom(0);
+        LongConstantCache cache = new LongConstantCache(100);
+        ObjectConstantCache<String> stringCache = new ObjectConstantCache<>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.add(i, random);
+            stringCache.add(String.valueOf(i), random);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(100, stringCache.size());
+    }
+
+    @Test
+    public void testEmptyCache() {
+        LongConstantCache cache = new LongConstantCache(0);
+        cache.add(1, new SplittableRandom(0));
+        assertTrue(cache.isEmpty());
+        assertFalse(cache.contains(1));
+    }
+
+    @Test // the cache keeps evolving once it is full
+    public void testLateValuesEnterFullCache() {
+        SplittableRandom random = new SplittableRandom(0);
+        LongConstantCache cache = new LongConstantCache(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.add(i, random);
+        }
+        boolean containsLateValue = false;
+        for (int i = 5000; i < 10000; i++) {
+            containsLateValue |= cache.contains(i);
+        }
+        assertTrue(containsLateValue);
+    }
+
+    @Test // checks the open-addressing table against a set after many replacements
+    public void testLookupsAfterReplacements() {
+        SplittableRandom random = new SplittableRandom(0);
+        LongConstantCache cache = new LongConstantCache(64);
+        for (int i = 0; i < 100000; i++) {
+            // few distinct values, so that replacements collide in the table
+            cache.add(random.nextLong(500) * 1024, random);
+        }
+        Set<Long> sampled = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            sampled.add(cache.get(random));
+        }
+        assertEquals(64, sampled.size());
+        int found = 0;
+        for (long v = 0; v < 500; v++) {
+            if (cache.contains(v * 1024)) {
+                assertTrue(sampled.contains(v * 1024));
+                found++;
+            }
+        }
+        assertEquals(64, found);
+    }
+
+}
@@ -0,0 +1,62 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.general.GeneralComparatorHelper;
+import sqlancer.general.GeneralComparatorHelper.SetDifference;
+
+public class TestGeneralComparatorHelper {
+
+    private static final String ORIGINAL = "SELECT t0.c0 AS v0, t0.c1 AS v1 FROM t0";
+    private static final String PARTITIONS = "SELECT t0.c0 AS v0, t0.c1 AS v1 FROM t0 WHERE t0.c0 > 1"
+            + " UNION ALL SELECT t0.c0 AS v0, t0.c1 AS v1 FROM t0 WHERE NOT (t0.c0 > 1)"
+            + " UNION ALL SELECT t0.c0 AS v0, t0.c1 AS v1 FROM t0 WHERE (t0.c0 > 1) IS NULL";
+    // a partitioning that loses the rows with a NULL predicate and duplicates the others
+    private static final String WRONG_PARTITIONS = "SELECT t0.c0 AS v0, t0.c1 AS v1 FROM t0 WHERE t0.c0 > 1"
+            + " UNION ALL SELECT t0.c0 AS v0, t0.c1 AS v1 FROM t0 WHERE t0.c0 > 1";
+
+    private static int countDifference(SQLConnection con, SetDifference setDifference, String partitions)
+            throws SQLException {
+        int rows = 0;
+        for (String query : GeneralComparatorHelper.getDifferenceQueries(setDifference, ORIGINAL, partitions,
+                List.of("v0", "v1"))) {
+            try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery(query)) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testSetDifference() throws SQLException {
+        List<String> urls = List.of("jdbc:duckdb:", "jdbc:sqlite::memory:", "jdbc:h2:mem:");
+        // neither SQLite nor H2 2.1 support EXCEPT ALL
+        List<SetDifference> expected = List.of(SetDifference.EXCEPT_ALL, SetDifference.GROUP_BY,
+                SetDifference.GROUP_BY);
+        for (int i = 0; i < urls.size(); i++) {
+            try (SQLConnection con = new SQLConnection(DriverManager.getConnection(urls.get(i)))) {
+                try (Statement s = con.createStatement()) {
+                    s.execute("CREATE TABLE t0(c0 INT, c1 VARCHAR(10))");
+                    s.execute("INSERT INTO t0 VALUES (1, 'a'), (2, 'b'), (2, 'b'), (NULL, NULL), (3, NULL)");
+                }
+                SetDifference setDifference = GeneralComparatorHelper.probeSetDifference(con);
+                assertEquals(expected.get(i), setDifference, urls.get(i));
+                assertEquals(0, countDifference(con, setDifference, PARTITIONS), urls.get(i));
+                // (1, 'a') and (NULL, NULL) are missing, (2, 'b') is extra twice and (3, NULL) once
+                assertEquals(setDifference == SetDifference.GROUP_BY ? 4 : 5,
+                        countDifference(con, setDifference, WRONG_PARTITIONS), urls.get(i));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.ast.newast.NewBinaryOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPostfixOperatorNode;
+import sqlancer.common.ast.newast.NewUnaryPrefixOperatorNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.general.GeneralExpressionEvaluator;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.ast.GeneralBinaryArithmeticOperator;
+import sqlancer.general.ast.GeneralBinaryComparisonOperator;
+import sqlancer.general.ast.GeneralBinaryLogicalOperator;
+import sqlancer.general.ast.GeneralColumnReference;
+import sqlancer.general.ast.GeneralConstant;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.ast.GeneralUnaryPostfixOperator;
+import sqlancer.general.ast.GeneralUnaryPrefixOperator;
+
+public class TestGeneralExpressionEvaluator {
+
+    private final GeneralColumn c0 = new GeneralColumn("c0", GeneralDataType.INT.get(), false, true);
+    private final GeneralColumn c1 = new GeneralColumn("c1", GeneralDataType.BOOLEAN.get(), false, true);
+    private final Map<GeneralColumn, Object> row = new HashMap<>();
+
+    public TestGeneralExpressionEvaluator() {
+        new GeneralTable("t0", List.of(c0, c1), false);
+        row.put(c0, 3L);
+        row.put(c1, null);
+    }
+
+    private Object evaluate(Node<GeneralExpression> expr) {
+        return GeneralExpressionEvaluator.evaluate(expr, row);
+    }
+
+    private static Node<GeneralExpression> compare(Node<GeneralExpression> left, Node<GeneralExpression> right,
+            GeneralBinaryComparisonOperator op) {
+        return new NewBinaryOperatorNode<>(left, right, op);
+    }
+
+    @Test
+    public void testComparisons() {
+        Node<GeneralExpression> col = new GeneralColumnReference(c0);
+        assertEquals(true, evaluate(compare(col, GeneralConstant.createIntConstant(3),
+                GeneralBinaryComparisonOperator.EQUALS)));
+        assertEquals(false, evaluate(compare(col, GeneralConstant.createIntConstant(3),
+                GeneralBinaryComparisonOperator.NOT_EQUALS2)));
+        assertEquals(true, evaluate(compare(GeneralConstant.createIntConstant(-5), col,
+                GeneralBinaryComparisonOperator.SMALLER)));
+        assertNull(evaluate(compare(col, GeneralConstant.createNullConstant(),
+                GeneralBinaryComparisonOperator.GREATER_EQUALS)));
+    }
+
+    @Test
+    public void testThreeValuedLogic() {
+        Node<GeneralExpression> unknown = new GeneralColumnReference(c1);
+        Node<GeneralExpression> falseConstant = GeneralConstant.createBooleanConstant(false);
+        Node<GeneralExpression> trueConstant = GeneralConstant.createBooleanConstant(true);
+        assertEquals(false,
+                evaluate(new NewBinaryOperatorNode<>(unknown, falseConstant, GeneralBinaryLogicalOperator.AND)));
+        assertNull(evaluate(new NewBinaryOperatorNode<>(unknown, trueConstant, GeneralBinaryLogicalOperator.AND)));
+        assertEquals(true,
+                evaluate(new NewBinaryOperatorNode<>(trueConstant, unknown, GeneralBinaryLogicalOperator.OR)));
+        assertNull(evaluate(new NewUnaryPrefixOperatorNode<>(unknown, GeneralUnaryPrefixOperator.NOT)));
+        assertEquals(true, evaluate(new NewUnaryPostfixOperatorNode<>(unknown, GeneralUnaryPostfixOperator.IS_NULL)));
+        assertEquals(false,
+                evaluate(new NewUnaryPostfixOperatorNode<>(unknown, GeneralUnaryPostfixOperator.IS_NOT_NULL)));
+    }
+
+    @Test
+    public void testUnsupported() {
+        Node<GeneralExpression> sum = new NewBinaryOperatorNode<>(new GeneralColumnReference(c0),
+                GeneralConstant.createIntConstant(1), GeneralBinaryArithmeticOperator.ADD);
+        assertThrows(IgnoreMeException.class, () -> evaluate(sum));
+        assertThrows(IgnoreMeException.class, () -> evaluate(compare(GeneralConstant.createBooleanConstant(true),
+                GeneralConstant.createIntConstant(1), GeneralBinaryComparisonOperator.EQUALS)));
+    }
+
+}
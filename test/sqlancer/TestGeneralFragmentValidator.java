@@ -0,0 +1,70 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.learner.GeneralFragmentValidator;
+import sqlancer.general.learner.GeneralFragmentValidator.Candidate;
+import sqlancer.general.learner.GeneralFragmentValidator.Verdict;
+import sqlancer.general.learner.GeneralFragments;
+
+public class TestGeneralFragmentValidator {
+
+    @Test
+    public void testCandidatesAreRolledBackOnDuckDB() {
+        assertTrue(GeneralDatabaseEngineFactory.DUCKDB.supportsTransactionalDdl());
+        assertCandidatesDoNotSeeEachOther(GeneralDatabaseEngineFactory.DUCKDB);
+    }
+
+    @Test
+    public void testCandidatesAreRolledBackOnSQLite() {
+        assertTrue(GeneralDatabaseEngineFactory.SQLITE.supportsTransactionalDdl());
+        assertCandidatesDoNotSeeEachOther(GeneralDatabaseEngineFactory.SQLITE);
+    }
+
+    @Test
+    public void testScratchDatabasesAreSetUpPerCandidateOnH2() {
+        // H2 commits DDL
+        assertFalse(GeneralDatabaseEngineFactory.H2.supportsTransactionalDdl());
+        assertCandidatesDoNotSeeEachOther(GeneralDatabaseEngineFactory.H2);
+    }
+
+    private static void assertCandidatesDoNotSeeEachOther(GeneralDatabaseEngineFactory engine) {
+        GeneralOptions options = new GeneralOptions();
+        options.databaseEngine = engine;
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setDbmsSpecificOptions(options);
+        state.setMainOptions(MainOptions.DEFAULT_OPTIONS);
+        state.setDatabaseName("validator_" + engine.name().toLowerCase());
+        state.setSchema(List.of(new GeneralTable("t0",
+                List.of(new GeneralColumn("c0", GeneralDataType.INT.get(), false, true)), false)));
+
+        // the type fragments are validated with CREATE TABLE TEST_FEATURE (c0 <type>) and an INSERT of the value
+        GeneralFragments fragments = GeneralSchema.getFragments();
+        List<String> values = List.of("1", "2", "3", "(SELECT MAX(c0) FROM t0)", "(SELECT MAX(c1) FROM t0)", "4", "5",
+                "6");
+        List<Candidate> candidates = values.stream()
+                .map(v -> new Candidate("INT", fragments.new GeneralFragmentChoice(v, List.of(), "INT"), v))
+                .collect(Collectors.toList());
+        List<Verdict> verdicts = new GeneralFragmentValidator(state, fragments).validate(candidates).getResults()
+                .stream().map(r -> r.getVerdict()).collect(Collectors.toList());
+        // there are more candidates than scratch databases, and none of them sees the table of a previous one, while
+        // all of them see the replayed schema
+        assertEquals(List.of(Verdict.VALID, Verdict.VALID, Verdict.VALID, Verdict.VALID, Verdict.INVALID,
+                Verdict.VALID, Verdict.VALID, Verdict.VALID), verdicts);
+    }
+
+}
@@ -0,0 +1,66 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sqlancer.general.learner.GeneralLearnerCache;
+import sqlancer.general.learner.GeneralLearnerCache.EntryKind;
+
+public class TestGeneralLearnerCache {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testKeyIsContentAddressed() {
+        assertEquals(GeneralLearnerCache.computeKey("SQLITE", "FUNCTION", "overview"),
+                GeneralLearnerCache.computeKey("SQLITE", "FUNCTION", "overview"));
+        assertNotEquals(GeneralLearnerCache.computeKey("ab", "c"), GeneralLearnerCache.computeKey("a", "bc"));
+        assertNotEquals(GeneralLearnerCache.computeKey("SQLITE", "gpt-4o"),
+                GeneralLearnerCache.computeKey("SQLITE", "gpt-4o-mini"));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        GeneralLearnerCache cache = new GeneralLearnerCache(tempDir.toFile(), 1, 10);
+        String key = GeneralLearnerCache.computeKey("DUCKDB", "DATATYPE");
+        assertNull(cache.get(key, EntryKind.FRAGMENTS));
+        cache.put(key, EntryKind.FRAGMENTS, "0;INT\n");
+        assertEquals("0;INT\n", cache.get(key, EntryKind.FRAGMENTS));
+        assertNull(cache.get(key, EntryKind.RETRIEVAL));
+    }
+
+    @Test
+    public void testExpiredEntryIsIgnored() throws Exception {
+        GeneralLearnerCache cache = new GeneralLearnerCache(tempDir.toFile(), 1, 10);
+        String key = GeneralLearnerCache.computeKey("H2");
+        cache.put(key, EntryKind.RETRIEVAL, "summary");
+        File entry = new File(tempDir.toFile(), key + "." + EntryKind.RETRIEVAL.getExtension());
+        entry.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000);
+        assertNull(cache.get(key, EntryKind.RETRIEVAL));
+    }
+
+    @Test
+    public void testOldestEntriesAreEvicted() throws Exception {
+        GeneralLearnerCache cache = new GeneralLearnerCache(tempDir.toFile(), 0, 2);
+        for (int i = 0; i < 3; i++) {
+            String key = GeneralLearnerCache.computeKey(Integer.toString(i));
+            cache.put(key, EntryKind.FRAGMENTS, "content" + i);
+            new File(tempDir.toFile(), key + "." + EntryKind.FRAGMENTS.getExtension())
+                    .setLastModified(System.currentTimeMillis() - (10 - i) * 1000L);
+        }
+        cache.put(GeneralLearnerCache.computeKey("3"), EntryKind.FRAGMENTS, "content3");
+        assertEquals(2, Files.list(tempDir).count());
+        assertNull(cache.get(GeneralLearnerCache.computeKey("0"), EntryKind.FRAGMENTS));
+        assertEquals("content3", cache.get(GeneralLearnerCache.computeKey("3"), EntryKind.FRAGMENTS));
+    }
+
+}
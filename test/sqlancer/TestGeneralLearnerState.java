@@ -0,0 +1,123 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.general.GeneralErrorHandler;
+import sqlancer.general.GeneralLearningManager.SQLFeature;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.gen.GeneralTableGenerator;
+import sqlancer.general.learner.GeneralFragments;
+
+public class TestGeneralLearnerState {
+
+    @Test
+    public void testWorkerKeepsItsStream() {
+        GeneralGlobalState worker = new GeneralGlobalState();
+        worker.setDatabaseName("database0");
+        worker.setRandomly(new Randomly(42));
+        GeneralGlobalState learner = worker.createLearnerState();
+        assertNotSame(worker.getRandomly(), learner.getRandomly());
+        assertNotSame(worker.getHandler(), learner.getHandler());
+        long workerValue = Randomly.getNotCachedInteger(0, Integer.MAX_VALUE);
+
+        Randomly expected = new Randomly(42);
+        expected.split();
+        expected.bindToCurrentThread();
+        assertEquals(Randomly.getNotCachedInteger(0, Integer.MAX_VALUE), workerValue);
+    }
+
+    @Test
+    public void testLearnFlagIsPerThread() throws InterruptedException {
+        GeneralFragments fragments = GeneralTableGenerator.getFragments();
+        AtomicBoolean seenByWorker = new AtomicBoolean();
+        fragments.setLearn(true);
+        try {
+            Thread worker = new Thread(() -> seenByWorker.set(fragments.getLearn()));
+            worker.start();
+            worker.join();
+            assertTrue(fragments.getLearn());
+            assertFalse(seenByWorker.get());
+        } finally {
+            fragments.setLearn(false);
+        }
+    }
+
+    @Test
+    public void testBatchIsPublishedAtOnceWithoutBlockingFeedback() throws InterruptedException {
+        TestFragments fragments = new TestFragments();
+        CountDownLatch added = new CountDownLatch(1);
+        CountDownLatch published = new CountDownLatch(1);
+        Thread loader = new Thread(() -> fragments.loadInBatch(() -> {
+            fragments.addFragment("0", "1", Collections.emptyList());
+            fragments.addFragment("0", "2 ", Collections.emptyList());
+            fragments.addFragment("0", "2", Collections.emptyList());
+            added.countDown();
+            try {
+                published.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        loader.start();
+        try {
+            assertTrue(added.await(10, TimeUnit.SECONDS));
+            // the loader is still in its batch, which neither holds the lock nor is visible yet
+            fragments.updateFragmentByFeedback(new GeneralErrorHandler(() -> false));
+            assertNull(fragments.getFragments().get("0"));
+        } finally {
+            published.countDown();
+            loader.join();
+        }
+        assertEquals(2, fragments.getFragments().get("0").size());
+        fragments.addFragment("0", "1", Collections.emptyList());
+        fragments.addFragment("0", "3", Collections.emptyList());
+        assertEquals(3, fragments.getFragments().get("0").size());
+    }
+
+    private static final class TestFragments extends GeneralFragments {
+
+        @Override
+        protected void loadInBatch(Runnable loader) {
+            super.loadInBatch(loader);
+        }
+
+        @Override
+        public String getConfigName() {
+            return "test.txt";
+        }
+
+        @Override
+        public String getStatementType() {
+            return "TEST";
+        }
+
+        @Override
+        public SQLFeature getFeature() {
+            return SQLFeature.DATATYPE;
+        }
+
+        @Override
+        public String genLearnStatement(GeneralGlobalState globalState) {
+            return "";
+        }
+
+        @Override
+        public List<String> genValStatements(GeneralGlobalState globalState, String key, String choice,
+                String databaseName) {
+            return Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.NewFunctionNode;
+import sqlancer.common.ast.newast.NewPostfixTextNode;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.common.gen.ExpressionGenerator;
+import sqlancer.general.GeneralErrorHandler.GeneratorInfo;
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.GeneralSchema.GeneralTables;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.oracle.GeneralNoRECOracle;
+
+public class TestGeneralNoRECOracle {
+
+    // t0.c0 holds 1 to 5, so that the predicates that do not fail have different counts
+    private static final List<String> PREDICATES = List.of(" > 1", "NO_SUCH_FUNCTION", " > 3", " = 5");
+    private static final int FAILING = 1;
+
+    @Test
+    public void testFailingPredicateIsDroppedAlone() throws SQLException {
+        List<String> queries = new ArrayList<>();
+        GeneralGlobalState state = check(queries, UnaryOperator.identity());
+
+        // the scan of all predicates fails and is bisected down to the failing one
+        List<List<Integer>> unoptimized = List.of(List.of(0, 1, 2, 3), List.of(0, 1), List.of(0), List.of(1),
+                List.of(2, 3));
+        for (int i = 0; i < unoptimized.size(); i++) {
+            assertEquals(unoptimized.get(i), getPredicates(queries.get(i)), queries.get(i));
+            assertTrue(queries.get(i).contains("SUM"), queries.get(i));
+        }
+        // the other predicates are counted with a single UNION ALL query
+        assertEquals(unoptimized.size() + 1, queries.size());
+        String optimized = queries.get(unoptimized.size());
+        assertEquals(List.of(0, 2, 3), getPredicates(optimized));
+        assertEquals(2, optimized.split(" UNION ALL ").length - 1, optimized);
+
+        // each predicate is scored on its own, together with the FROM clause
+        List<GeneratorInfo> infos = state.getHandler().getGeneratorInfos();
+        assertEquals(PREDICATES.size(), infos.size());
+        for (int i = 0; i < PREDICATES.size(); i++) {
+            GeneratorInfo info = infos.get(i);
+            assertEquals(i != FAILING, info.getStatus());
+            assertEquals(List.of("from", "predicate" + i),
+                    info.getCompositeGeneratorScore().keySet().stream().sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testMismatchIsAttributedToItsPredicate() throws SQLException {
+        // an optimized count that is off for the third predicate, while the second one fails
+        AssertionError e = assertThrows(AssertionError.class, () -> check(new ArrayList<>(),
+                query -> query.contains("UNION ALL") ? query.replace("t0.c0 > 3", "t0.c0 > 2") : query));
+        assertTrue(e.getMessage().startsWith("SELECT t0.c0 FROM t0 WHERE t0.c0 > 3; -- 3\n"), e.getMessage());
+        assertTrue(e.getMessage().endsWith(" -- 2"), e.getMessage());
+        assertFalse(e.getMessage().contains("NO_SUCH_FUNCTION"), e.getMessage());
+    }
+
+    /**
+     * Checks the predicates on SQLite, with a connection that records the queries after rewriting them.
+     */
+    private static GeneralGlobalState check(List<String> queries, UnaryOperator<String> rewrite) throws SQLException {
+        Connection backing = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement s = backing.createStatement()) {
+            s.execute("CREATE TABLE t0 (c0 INT)");
+            s.execute("INSERT INTO t0 VALUES (1), (2), (3), (4), (5)");
+        }
+        MainOptions options = new MainOptions();
+        GeneralOptions generalOptions = new GeneralOptions();
+        generalOptions.databaseEngine = GeneralDatabaseEngineFactory.SQLITE;
+        generalOptions.norecPredicates = PREDICATES.size();
+        GeneralProvider provider = new GeneralProvider();
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setDatabaseName("norec");
+        state.setState(provider.getStateToReproduce("norec"));
+        state.setStateLogger(new Main.StateLogger("norec", provider, options));
+        state.setMainOptions(options);
+        state.setDbmsSpecificOptions(generalOptions);
+        GeneralColumn c0 = new GeneralColumn("c0", GeneralDataType.INT.get(), false, true);
+        GeneralTable t0 = new GeneralTable("t0", List.of(c0), false);
+        c0.setTable(t0);
+        state.setSchema(List.of(t0));
+        try (SQLConnection con = new SQLConnection(getRecordingConnection(backing, queries, rewrite))) {
+            state.setConnection(con);
+            state.getHandler().addScore("from");
+            new GeneralNoRECOracle(state).check(getGenerator(state, c0), new GeneralTables(List.of(t0)));
+        }
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExpressionGenerator<Node<GeneralExpression>> getGenerator(GeneralGlobalState state,
+            GeneralColumn column) {
+        Iterator<Integer> indices = List.of(0, 1, 2, 3).iterator();
+        return (ExpressionGenerator<Node<GeneralExpression>>) Proxy.newProxyInstance(
+                ExpressionGenerator.class.getClassLoader(), new Class<?>[] { ExpressionGenerator.class },
+                (proxy, method, args) -> {
+                    if (!"generateExpression".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int i = indices.next();
+                    state.getHandler().addScore("predicate" + i);
+                    Node<GeneralExpression> columnReference = new ColumnReferenceNode<>(column);
+                    if (i == FAILING) {
+                        return new NewFunctionNode<GeneralExpression, String>(List.of(columnReference),
+                                PREDICATES.get(i));
+                    }
+                    return new NewPostfixTextNode<>(columnReference, PREDICATES.get(i));
+                });
+    }
+
+    // returns the indices of the predicates that a query refers to
+    private static List<Integer> getPredicates(String query) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < PREDICATES.size(); i++) {
+            if (query.contains("t0.c0" + PREDICATES.get(i)) || i == FAILING && query.contains(PREDICATES.get(i))) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    private static Connection getRecordingConnection(Connection backing, List<String> queries,
+            UnaryOperator<String> rewrite) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    Object result = invoke(backing, method, args);
+                    if (!"createStatement".equals(method.getName())) {
+                        return result;
+                    }
+                    Statement statement = (Statement) result;
+                    return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                            new Class<?>[] { Statement.class }, (s, m, a) -> {
+                                if ("executeQuery".equals(m.getName())) {
+                                    String query = rewrite.apply((String) a[0]);
+                                    queries.add(query);
+                                    return statement.executeQuery(query);
+                                }
+                                return invoke(statement, m, a);
+                            });
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
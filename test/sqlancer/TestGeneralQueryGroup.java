@@ -0,0 +1,123 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.general.GeneralQueryGroup;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+
+public class TestGeneralQueryGroup {
+
+    @Test
+    public void testProbeEmbedded() throws SQLException {
+        // the embedded drivers return the result of only one statement, so the oracles execute the queries one by one
+        for (String url : List.of("jdbc:duckdb:", "jdbc:sqlite::memory:", "jdbc:h2:mem:")) {
+            try (SQLConnection con = new SQLConnection(DriverManager.getConnection(url))) {
+                assertFalse(GeneralQueryGroup.probe(con), url);
+            }
+        }
+    }
+
+    @Test
+    public void testResultsAreSplitPerQuery() throws SQLException {
+        try (Connection backing = DriverManager.getConnection("jdbc:duckdb:")) {
+            List<Integer> maxRows = new ArrayList<>();
+            GeneralGlobalState state = getState(backing, false, maxRows);
+            List<List<String>> results = GeneralQueryGroup.getResultSetsFirstColumnAsString(
+                    List.of("SELECT * FROM range(3) ORDER BY 1", "SELECT 'a'", "SELECT 1.0 WHERE FALSE"), state);
+            assertEquals(List.of(List.of("0", "1", "2"), List.of("a"), List.of()), results);
+            assertEquals(List.of(ComparatorHelper.MAX_ROWS_LIMIT), maxRows);
+        }
+    }
+
+    @Test
+    public void testGroupFailsIfResultsAreMissing() throws SQLException {
+        try (Connection backing = DriverManager.getConnection("jdbc:duckdb:")) {
+            GeneralGlobalState state = getState(backing, true, new ArrayList<>());
+            assertNull(GeneralQueryGroup.getResultSetsFirstColumnAsString(List.of("SELECT 1", "SELECT 2"), state));
+        }
+    }
+
+    @Test
+    public void testTruncatedResultIsIgnored() throws SQLException {
+        try (Connection backing = DriverManager.getConnection("jdbc:duckdb:")) {
+            GeneralGlobalState state = getState(backing, false, new ArrayList<>());
+            assertThrows(IgnoreMeException.class, () -> GeneralQueryGroup.getResultSetsFirstColumnAsString(
+                    List.of("SELECT 1", "SELECT * FROM range(" + (ComparatorHelper.MAX_ROWS_LIMIT + 1) + ")"), state));
+        }
+    }
+
+    private static GeneralGlobalState getState(Connection backing, boolean onlyFirstResult, List<Integer> maxRows) {
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse("--log-each-select", "false");
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setMainOptions(options);
+        Connection con = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if ("createStatement".equals(method.getName())) {
+                        return getMultiStatement(backing, onlyFirstResult, maxRows);
+                    }
+                    return null;
+                });
+        state.setConnection(new SQLConnection(con));
+        return state;
+    }
+
+    /**
+     * A statement that executes a group of queries separated by ";\n" on the backing connection and returns a result
+     * set per query, as the drivers that support multi-statement requests do.
+     */
+    private static Statement getMultiStatement(Connection backing, boolean onlyFirstResult, List<Integer> maxRows) {
+        List<ResultSet> results = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
+        int[] current = new int[1];
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { Statement.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "setMaxRows":
+                        maxRows.add((Integer) args[0]);
+                        return null;
+                    case "execute":
+                        for (String query : ((String) args[0]).split(";\n")) {
+                            Statement s = backing.createStatement();
+                            statements.add(s);
+                            s.setMaxRows(maxRows.get(maxRows.size() - 1));
+                            results.add(s.executeQuery(query));
+                            if (onlyFirstResult) {
+                                break;
+                            }
+                        }
+                        return true;
+                    case "getResultSet":
+                        return results.get(current[0]);
+                    case "getMoreResults":
+                        return ++current[0] < results.size();
+                    case "getUpdateCount":
+                        return -1;
+                    case "close":
+                        for (Statement s : statements) {
+                            s.close();
+                        }
+                        return null;
+                    default:
+                        return null;
+                    }
+                });
+    }
+
+}
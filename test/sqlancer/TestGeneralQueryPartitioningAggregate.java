@@ -0,0 +1,71 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.general.gen.GeneralExpressionGenerator.GeneralAggregateFunction;
+import sqlancer.general.oracle.GeneralQueryPartitioningAggregate;
+
+public class TestGeneralQueryPartitioningAggregate {
+
+    private static boolean isEqual(GeneralAggregateFunction aggregate, String original, String... partitions) {
+        return GeneralQueryPartitioningAggregate.isCombinationEqual(aggregate, original, Arrays.asList(partitions));
+    }
+
+    @Test
+    public void testSum() {
+        assertTrue(isEqual(GeneralAggregateFunction.SUM, "6", "1", "2", "3"));
+        assertTrue(isEqual(GeneralAggregateFunction.SUM, "3", "1", null, "2"));
+        assertTrue(isEqual(GeneralAggregateFunction.SUM, "-1.5", "0.5", "-2", null));
+        assertFalse(isEqual(GeneralAggregateFunction.SUM, "5", "1", "2", "3"));
+        // the sum of no rows is NULL
+        assertTrue(isEqual(GeneralAggregateFunction.SUM, null, null, null, null));
+        assertFalse(isEqual(GeneralAggregateFunction.SUM, null, "1", null, null));
+        assertFalse(isEqual(GeneralAggregateFunction.SUM, "1", null, null, null));
+        assertThrows(IgnoreMeException.class, () -> isEqual(GeneralAggregateFunction.SUM, "1", "a", null, null));
+    }
+
+    @Test
+    public void testCount() {
+        assertTrue(isEqual(GeneralAggregateFunction.COUNT, "5", "2", "3", "0"));
+        assertTrue(isEqual(GeneralAggregateFunction.COUNT, "0", "0", "0", "0"));
+        assertFalse(isEqual(GeneralAggregateFunction.COUNT, "4", "2", "3", "0"));
+    }
+
+    @Test
+    public void testMinMax() {
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "10", "2", "10", "-3"));
+        assertTrue(isEqual(GeneralAggregateFunction.MIN, "-3", "2", "10", "-3"));
+        // the original must be the extremum, not any of the partition values
+        assertFalse(isEqual(GeneralAggregateFunction.MAX, "2", "2", "10", "-3"));
+        assertFalse(isEqual(GeneralAggregateFunction.MIN, "2", "2", "10", "-3"));
+        // numbers are compared by their value rather than as strings
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "10", "9", "10", null));
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "1.5", "1.5", "1.25", null));
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "true", "false", "true", null));
+        assertFalse(isEqual(GeneralAggregateFunction.MIN, "true", "false", "true", null));
+    }
+
+    @Test
+    public void testMinMaxNullAndEmptyPartitions() {
+        // a partition without rows, or with only NULL values, yields NULL
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "1", null, "1", null));
+        assertTrue(isEqual(GeneralAggregateFunction.MIN, null, null, null, null));
+        assertFalse(isEqual(GeneralAggregateFunction.MIN, null, "1", null, null));
+        assertFalse(isEqual(GeneralAggregateFunction.MIN, "1", null, null, null));
+    }
+
+    @Test
+    public void testMinMaxOfOtherValues() {
+        // the order of strings is up to the DBMS, but the extremum must be one of the partition values
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "b", "a", "b", null));
+        assertTrue(isEqual(GeneralAggregateFunction.MAX, "a", "a", "B", null));
+        assertFalse(isEqual(GeneralAggregateFunction.MAX, "c", "a", "b", null));
+    }
+
+}
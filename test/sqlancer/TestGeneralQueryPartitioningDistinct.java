@@ -0,0 +1,139 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.StateToReproduce.OracleRunReproductionState;
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.oracle.GeneralQueryPartitioningDistinct;
+
+public class TestGeneralQueryPartitioningDistinct {
+
+    private static final int NR_CHECKS = 200;
+
+    @Test
+    public void testCorrectEngineIsNotReported() throws SQLException {
+        List<String> queries = new ArrayList<>();
+        int nrCompared = 0;
+        try (SQLConnection con = new SQLConnection(getConnection(queries, UnaryOperator.identity()))) {
+            GeneralGlobalState state = getState(con, 1);
+            GeneralQueryPartitioningDistinct oracle = new GeneralQueryPartitioningDistinct(state);
+            for (int i = 0; i < NR_CHECKS; i++) {
+                try (OracleRunReproductionState localState = state.getState().createLocalState()) {
+                    oracle.check();
+                    nrCompared++;
+                } catch (IgnoreMeException e) {
+                    // the predicate or a subquery failed
+                }
+            }
+        }
+        assertTrue(nrCompared > NR_CHECKS / 2, String.valueOf(nrCompared));
+        // both kinds of duplicate elimination are checked, each against the partitions that the DBMS unites
+        assertTrue(queries.stream().anyMatch(q -> q.startsWith("SELECT DISTINCT ") && !q.contains(" UNION ")));
+        assertTrue(queries.stream().anyMatch(q -> q.contains(" GROUP BY ") && !q.contains(" UNION ")));
+        assertTrue(queries.stream().anyMatch(q -> q.contains(" UNION ") && !q.contains(" UNION ALL ")));
+    }
+
+    @Test
+    public void testDuplicatesOfDistinctAreReported() throws SQLException {
+        // a DBMS that ignores DISTINCT in queries without a WHERE clause
+        UnaryOperator<String> bug = q -> q.startsWith("SELECT DISTINCT ") && !q.contains(" WHERE ")
+                ? q.replaceFirst("SELECT DISTINCT ", "SELECT ") : q;
+        try (SQLConnection con = new SQLConnection(getConnection(new ArrayList<>(), bug))) {
+            GeneralGlobalState state = getState(con, 2);
+            GeneralQueryPartitioningDistinct oracle = new GeneralQueryPartitioningDistinct(state);
+            for (int i = 0; i < NR_CHECKS; i++) {
+                try (OracleRunReproductionState localState = state.getState().createLocalState()) {
+                    oracle.check();
+                } catch (IgnoreMeException e) {
+                    // the predicate or a subquery failed
+                } catch (AssertionError e) {
+                    assertTrue(oracle.getLastQueryString().startsWith("SELECT DISTINCT "), e.getMessage());
+                    return;
+                }
+            }
+        }
+        throw new AssertionError("the duplicates were not reported");
+    }
+
+    // every subset of the columns has duplicates, also of NULL values
+    private static GeneralGlobalState getState(SQLConnection con, long seed) {
+        MainOptions options = new MainOptions();
+        GeneralOptions generalOptions = new GeneralOptions();
+        generalOptions.databaseEngine = GeneralDatabaseEngineFactory.SQLITE;
+        GeneralProvider provider = new GeneralProvider();
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setDatabaseName("distinct");
+        state.setRandomly(new Randomly(seed));
+        state.setState(provider.getStateToReproduce("distinct"));
+        state.setStateLogger(new Main.StateLogger("distinct", provider, options));
+        state.setMainOptions(options);
+        state.setDbmsSpecificOptions(generalOptions);
+        state.setConnection(con);
+        GeneralColumn c0 = new GeneralColumn("c0", GeneralDataType.INT.get(), false, true);
+        GeneralColumn c1 = new GeneralColumn("c1", GeneralDataType.STRING.get(), false, true);
+        GeneralTable t0 = new GeneralTable("t0", List.of(c0, c1), false);
+        c0.setTable(t0);
+        c1.setTable(t0);
+        state.setSchema(List.of(t0));
+        // as when the database is generated
+        GeneralDataType.calcWeight();
+        return state;
+    }
+
+    /**
+     * Returns a connection to a SQLite database with the table t0, which records the queries after rewriting them.
+     */
+    private static Connection getConnection(List<String> queries, UnaryOperator<String> rewrite)
+            throws SQLException {
+        Connection backing = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement s = backing.createStatement()) {
+            s.execute("CREATE TABLE t0 (c0 INT, c1 TEXT)");
+            s.execute("INSERT INTO t0 VALUES (1, 'a'), (1, 'a'), (2, 'b'), (2, 'b'), (NULL, NULL), (NULL, NULL)");
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    Object result = invoke(backing, method, args);
+                    if (!"createStatement".equals(method.getName())) {
+                        return result;
+                    }
+                    Statement statement = (Statement) result;
+                    return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                            new Class<?>[] { Statement.class }, (s, m, a) -> {
+                                if ("executeQuery".equals(m.getName())) {
+                                    String query = rewrite.apply((String) a[0]);
+                                    queries.add(query);
+                                    return statement.executeQuery(query);
+                                }
+                                return invoke(statement, m, a);
+                            });
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.general.GeneralQueryPlan;
+
+public class TestGeneralQueryPlan {
+
+    private static GeneralQueryPlan explain(Statement s, String query) throws SQLException {
+        try (ResultSet rs = s.executeQuery("EXPLAIN " + query)) {
+            List<String> columnNames = new ArrayList<>();
+            for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                columnNames.add(rs.getMetaData().getColumnName(i));
+            }
+            List<List<String>> rows = new ArrayList<>();
+            while (rs.next()) {
+                List<String> row = new ArrayList<>();
+                for (int i = 1; i <= columnNames.size(); i++) {
+                    row.add(rs.getString(i));
+                }
+                rows.add(row);
+            }
+            return GeneralQueryPlan.parse(columnNames, rows);
+        }
+    }
+
+    private static void createTables(Statement s) throws SQLException {
+        s.execute("CREATE TABLE t0(c0 INT, c1 INT)");
+        s.execute("INSERT INTO t0 VALUES (1, 2), (3, 4), (5, 6), (7, 8)");
+        s.execute("CREATE TABLE t1(c0 INT)");
+        s.execute("INSERT INTO t1 VALUES (1), (2)");
+    }
+
+    @Test
+    public void testDuckDB() throws SQLException {
+        try (Connection con = DriverManager.getConnection("jdbc:duckdb:"); Statement s = con.createStatement()) {
+            createTables(s);
+            GeneralQueryPlan scan = explain(s, "SELECT t0.c0 FROM t0");
+            assertEquals(4, scan.getEstimatedRows());
+            assertEquals(List.of("SEQ_SCAN"), scan.getOperators());
+            GeneralQueryPlan filter = explain(s, "SELECT t0.c0 FROM t0 WHERE t0.c0 > 2");
+            assertTrue(filter.getEstimatedRows() <= scan.getEstimatedRows());
+            GeneralQueryPlan join = explain(s, "SELECT t0.c0 FROM t0 INNER JOIN t1 ON t0.c0 = t1.c0");
+            assertTrue(join.getOperators().contains("HASH_JOIN"));
+            assertEquals(2, join.getOperators().stream().filter("SEQ_SCAN"::equals).count());
+        }
+    }
+
+    @Test
+    public void testNoEstimates() throws SQLException {
+        for (String url : List.of("jdbc:h2:mem:", "jdbc:sqlite::memory:")) {
+            try (Connection con = DriverManager.getConnection(url); Statement s = con.createStatement()) {
+                createTables(s);
+                GeneralQueryPlan plan = explain(s, "SELECT t0.c0 FROM t0");
+                assertEquals(GeneralQueryPlan.UNKNOWN, plan.getEstimatedRows());
+                assertTrue(!plan.getPlan().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testServerFormats() {
+        GeneralQueryPlan postgres = GeneralQueryPlan.parse(List.of("QUERY PLAN"),
+                List.of(List.of("Hash Join  (cost=60.85..99.39 rows=2550 width=4)"),
+                        List.of("  Hash Cond: (t0.c0 = t1.c0)"),
+                        List.of("  ->  Seq Scan on t0  (cost=0.00..35.50 rows=2550 width=4)"),
+                        List.of("  ->  Hash  (cost=32.60..32.60 rows=2260 width=4)"),
+                        List.of("        ->  Index Only Scan using i0 on t1  (cost=0.15..32.60 rows=2260 width=4)")));
+        assertEquals(2550, postgres.getEstimatedRows());
+        assertEquals(List.of("Hash Join", "Seq Scan", "Hash", "Index Only Scan"), postgres.getOperators());
+
+        GeneralQueryPlan cockroach = GeneralQueryPlan.parse(List.of("info"),
+                List.of(List.of("distribution: local"), List.of("• filter"),
+                        List.of("│ estimated row count: 1,000"), List.of("│"),
+                        List.of("└── • scan"), List.of("      estimated row count: 3,000")));
+        assertEquals(1000, cockroach.getEstimatedRows());
+        assertEquals(List.of("filter", "scan"), cockroach.getOperators());
+
+        List<String> mysqlColumns = List.of("id", "select_type", "table", "type", "rows", "filtered", "Extra");
+        GeneralQueryPlan mysql = GeneralQueryPlan.parse(mysqlColumns,
+                List.of(List.of("1", "SIMPLE", "t0", "ALL", "10", "50.00", "Using where"),
+                        List.of("1", "SIMPLE", "t1", "ref", "3", "100.00", "")));
+        assertEquals(15, mysql.getEstimatedRows());
+        assertEquals(List.of("ALL", "ref"), mysql.getOperators());
+
+        GeneralQueryPlan tidb = GeneralQueryPlan.parse(List.of("id", "estRows", "task", "access object", "operator info"),
+                List.of(List.of("Projection_4", "8000.00", "root", "", "test.t0.c0"),
+                        List.of("└─TableReader_6", "8000.00", "root", "", "data:TableFullScan_5")));
+        assertEquals(8000, tidb.getEstimatedRows());
+        assertEquals(List.of("Projection", "TableReader"), tidb.getOperators());
+    }
+
+}
@@ -0,0 +1,82 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.general.GeneralCardinalityStats;
+import sqlancer.general.GeneralSchema;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+
+public class TestGeneralSchema {
+
+    private static GeneralTable table(String name, String... columnNames) {
+        List<GeneralColumn> columns = new ArrayList<>();
+        for (String columnName : columnNames) {
+            columns.add(new GeneralColumn(columnName, GeneralDataType.INT.get(), false, true));
+        }
+        return new GeneralTable(name, columns, false);
+    }
+
+    private static GeneralTable tableWithRows(String name, long rows) {
+        return new GeneralTable(name, List.of(new GeneralColumn("c0", GeneralDataType.INT.get(), false, true)), false) {
+            {
+                rowCount = rows;
+            }
+        };
+    }
+
+    @Test
+    public void testLimitCrossProduct() {
+        GeneralTable small = tableWithRows("t0", 10);
+        GeneralTable large = tableWithRows("t1", 100_000);
+        GeneralTable unknown = table("t2", "c0");
+        List<GeneralTable> tables = List.of(small, large, unknown);
+        assertEquals(1_000_000, GeneralCardinalityStats.estimateCrossProductRows(tables));
+        assertEquals(tables, GeneralCardinalityStats.limitCrossProduct(tables, 0));
+        assertEquals(tables, GeneralCardinalityStats.limitCrossProduct(tables, 1_000_000));
+        assertEquals(List.of(small, unknown), GeneralCardinalityStats.limitCrossProduct(tables, 1000));
+        assertEquals(List.of(large), GeneralCardinalityStats.limitCrossProduct(List.of(large), 1000));
+    }
+
+    @Test
+    public void testSnapshotsAreImmutable() {
+        GeneralTable t0 = table("t0", "c0");
+        GeneralSchema first = new GeneralSchema(List.of(t0));
+        GeneralTable newT0 = table("t0", "c0", "c1");
+        GeneralSchema second = first.withTable(newT0).withTable(table("t1", "c0"));
+        assertEquals(2, second.getVersion() - first.getVersion());
+        assertSame(t0, first.getDatabaseTable("t0"));
+        assertSame(newT0, second.getDatabaseTable("t0"));
+        assertEquals(1, first.getDatabaseTables().size());
+        assertEquals(2, second.getDatabaseTables().size());
+        GeneralSchema third = second.withoutTable("t0");
+        assertNull(third.getDatabaseTable("t0"));
+        assertEquals(1, third.getDatabaseTables().size());
+        assertEquals(2, second.getDatabaseTables().size());
+    }
+
+    @Test
+    public void testFreeNames() {
+        GeneralSchema schema = new GeneralSchema(
+                List.of(table("database0_t0", "c0", "c1"), table("database0_t1", "c0"), table("t2", "c0")));
+        for (int i = 0; i < 100; i++) {
+            String name = schema.getFreeTableName();
+            assertNotEquals("t0", name);
+            assertNotEquals("t1", name);
+            assertNotEquals("t2", name);
+            String columnName = schema.getDatabaseTable("database0_t0").getFreeColumnName();
+            assertNotEquals("c0", columnName);
+            assertNotEquals("c1", columnName);
+        }
+    }
+
+}
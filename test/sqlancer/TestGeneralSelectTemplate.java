@@ -0,0 +1,52 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.ast.newast.ColumnReferenceNode;
+import sqlancer.common.ast.newast.NewBinaryOperatorNode;
+import sqlancer.common.ast.newast.NewOrderingTerm;
+import sqlancer.common.ast.newast.NewOrderingTerm.Ordering;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.common.ast.newast.TableReferenceNode;
+import sqlancer.general.GeneralSchema.GeneralColumn;
+import sqlancer.general.GeneralSchema.GeneralDataType;
+import sqlancer.general.GeneralSchema.GeneralTable;
+import sqlancer.general.GeneralSelectTemplate;
+import sqlancer.general.GeneralToStringVisitor;
+import sqlancer.general.ast.GeneralBinaryArithmeticOperator;
+import sqlancer.general.ast.GeneralConstant;
+import sqlancer.general.ast.GeneralExpression;
+import sqlancer.general.ast.GeneralSelect;
+
+public class TestGeneralSelectTemplate {
+
+    @Test
+    public void testSplicedQueriesMatchRenderedSelect() {
+        GeneralColumn column = new GeneralColumn("c0", GeneralDataType.INT.get(), false, true);
+        GeneralTable table = new GeneralTable("t0", List.of(column), false);
+        column.setTable(table);
+        Node<GeneralExpression> columnRef = new ColumnReferenceNode<>(column);
+        GeneralSelect select = new GeneralSelect();
+        select.setFetchColumns(List.of(columnRef));
+        select.setFromList(List.of(new TableReferenceNode<>(table)));
+        select.setLimitClause(GeneralConstant.createIntConstant(3));
+        Node<GeneralExpression> predicate = new NewBinaryOperatorNode<>(columnRef,
+                GeneralConstant.createIntConstant(1), GeneralBinaryArithmeticOperator.ADD);
+
+        GeneralSelectTemplate template = GeneralSelectTemplate.of(select);
+        assertEquals(GeneralToStringVisitor.asString(select), template.render(null));
+        select.setWhereClause(predicate);
+        assertEquals(GeneralToStringVisitor.asString(select), template.render(predicate));
+
+        select.setOrderByExpressions(List.of(new NewOrderingTerm<>(columnRef, Ordering.DESC)));
+        template = template.withSuffixOf(select);
+        assertEquals("SELECT t0.c0 FROM t0 WHERE ((t0.c0)+(1)) ORDER BY t0.c0 DESC LIMIT 3",
+                template.render(predicate));
+        assertEquals(GeneralToStringVisitor.asString(select), template.render(predicate));
+    }
+
+}
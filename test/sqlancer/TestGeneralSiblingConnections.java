@@ -0,0 +1,74 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.general.GeneralComparatorHelper;
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+
+public class TestGeneralSiblingConnections {
+
+    @Test
+    public void testQueriesAreFetchedOverSiblings() throws SQLException {
+        GeneralGlobalState state = getState(2);
+        try (SQLConnection con = state.getConnection()) {
+            List<SQLConnection> connections = new ArrayList<>();
+            connections.add(con);
+            connections.addAll(state.getSiblingConnections());
+            assertEquals(3, connections.size());
+            // a temporary table is private to its connection, so each result shows the connection that fetched it
+            for (int i = 0; i < connections.size(); i++) {
+                try (Statement s = connections.get(i).createStatement()) {
+                    s.execute("CREATE TEMPORARY TABLE marker AS SELECT " + i + " AS id");
+                }
+            }
+            List<String> queries = List.of("SELECT id FROM marker", "SELECT id FROM marker", "SELECT id FROM marker",
+                    "SELECT id * 10 FROM marker");
+            List<List<String>> results = GeneralComparatorHelper.getResultSetsConcurrently(queries,
+                    new ExpectedErrors(), state);
+            assertEquals(List.of(List.of("0"), List.of("1"), List.of("2"), List.of("0")), results);
+        }
+    }
+
+    @Test
+    public void testFailureOnSiblingIsThrown() throws SQLException {
+        GeneralGlobalState state = getState(1);
+        try (SQLConnection con = state.getConnection()) {
+            ExpectedErrors errors = new ExpectedErrors();
+            List<String> failing = List.of("SELECT 1", "SELECT * FROM does_not_exist");
+            assertThrows(AssertionError.class,
+                    () -> GeneralComparatorHelper.getResultSetsConcurrently(failing, errors, state));
+            // the failure is only thrown once both connections are idle, so that they can be used again
+            assertEquals(List.of(List.of("1"), List.of("2")), GeneralComparatorHelper
+                    .getResultSetsConcurrently(List.of("SELECT 1", "SELECT 2"), errors, state));
+        }
+    }
+
+    private static GeneralGlobalState getState(int nrSiblings) throws SQLException {
+        MainOptions mainOptions = new MainOptions();
+        JCommander.newBuilder().addObject(mainOptions).build().parse("--log-each-select", "false");
+        GeneralOptions options = new GeneralOptions();
+        options.databaseEngine = GeneralDatabaseEngineFactory.DUCKDB;
+        options.tlpSiblingConnections = nrSiblings;
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setMainOptions(mainOptions);
+        state.setDbmsSpecificOptions(options);
+        state.setDatabaseName("database0");
+        state.setConnection(new SQLConnection(
+                GeneralDatabaseEngineFactory.DUCKDB.cleanOrSetUpDatabase(state, state.getDatabaseName())));
+        return state;
+    }
+
+}
@@ -0,0 +1,115 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import sqlancer.general.GeneralLearningManager.SQLFeature;
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+import sqlancer.general.learner.GeneralTemplateLearner;
+
+public class TestGeneralTemplateLearner {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final List<JSONObject> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        // a stand-in for chat completion endpoints, which answers every request with the same two fragments
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+            JSONObject message = new JSONObject().put("role", "assistant").put("content",
+                    "```csv\n0;INTEGER\n0;VARCHAR(10)\n```");
+            byte[] response = new JSONObject()
+                    .put("choices", new JSONArray().put(new JSONObject().put("message", message))).toString()
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testLearnFromStandInServer() {
+        GeneralGlobalState state = getState("model-a");
+        assertEquals("0;INTEGER\n0;VARCHAR(10)\n", learn(state, "prompt a"));
+        assertEquals(1, requests.size());
+        JSONObject request = requests.get(0);
+        assertEquals("model-a", request.getString("model"));
+        JSONArray messages = request.getJSONArray("messages");
+        assertEquals("prompt a", messages.getJSONObject(0).getString("content"));
+        assertTrue(messages.getJSONObject(1).getString("content").contains("Sketch:\nCREATE TABLE t0 (c0 <type>)"));
+    }
+
+    @Test
+    public void testCacheKeyCoversPromptModelAndEndpoint() {
+        assertEquals("0;INTEGER\n0;VARCHAR(10)\n", learn(getState("model-a"), "prompt a"));
+        // the same inputs are answered from the cache
+        assertEquals("0;INTEGER\n0;VARCHAR(10)\n", learn(getState("model-a"), "prompt a"));
+        assertEquals(1, requests.size());
+        learn(getState("model-a"), "prompt b");
+        assertEquals(2, requests.size());
+        learn(getState("model-b"), "prompt b");
+        assertEquals(3, requests.size());
+        learn(getState("model-b"), "prompt a");
+        assertEquals(4, requests.size());
+        learn(getState("model-a"), "prompt b");
+        assertEquals(4, requests.size());
+        // another endpoint might serve another model under the same name
+        GeneralGlobalState otherEndpoint = getState("model-a");
+        otherEndpoint.getDbmsSpecificOptions().learnerChatUrl = "http://localhost:" + server.getAddress().getPort()
+                + "/other/v1/chat/completions";
+        learn(otherEndpoint, "prompt b");
+        assertEquals(5, requests.size());
+    }
+
+    private static String learn(GeneralGlobalState state, String systemPrompt) {
+        GeneralTemplateLearner learner = new GeneralTemplateLearner(state, SQLFeature.DATATYPE,
+                "CREATE TABLE t0 (c0 <type>)", "", systemPrompt, "overview");
+        learner.learn();
+        return learner.getFragments();
+    }
+
+    private GeneralGlobalState getState(String model) {
+        GeneralOptions options = new GeneralOptions();
+        options.databaseEngine = GeneralDatabaseEngineFactory.DUCKDB;
+        options.useRetrievalAugmentation = false;
+        options.learnerChatUrl = "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions";
+        options.learnerModel = model;
+        options.learnerCacheDirectory = tempDir.toString();
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setMainOptions(MainOptions.DEFAULT_OPTIONS);
+        state.setDbmsSpecificOptions(options);
+        return state;
+    }
+
+}
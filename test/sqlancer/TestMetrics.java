@@ -0,0 +1,69 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.metrics.LatencyHistogram;
+import sqlancer.common.metrics.Metrics;
+import sqlancer.common.metrics.MetricsExporter;
+import sqlancer.common.metrics.StatementKind;
+
+public class TestMetrics {
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500_000, histogram.getSum());
+        for (double percentile : new double[] { 1, 50, 90, 99, 100 }) {
+            double expected = percentile * 10_000;
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected * 1.07, percentile + ": " + actual);
+        }
+    }
+
+    @Test
+    public void testStatementKind() {
+        assertEquals(StatementKind.SELECT, StatementKind.of("SELECT * FROM t0;"));
+        assertEquals(StatementKind.SELECT, StatementKind.of(" (select 1) UNION (SELECT 2)"));
+        assertEquals(StatementKind.SELECT, StatementKind.of("WITH x AS (SELECT 1) SELECT * FROM x"));
+        assertEquals(StatementKind.CREATE, StatementKind.of("CREATE TABLE t0(c0 INT);"));
+        assertEquals(StatementKind.INSERT, StatementKind.of("insert into t0 values (1)"));
+        assertEquals(StatementKind.EXPLAIN, StatementKind.of("EXPLAIN SELECT 1"));
+        assertEquals(StatementKind.OTHER, StatementKind.of("SELECTED"));
+        assertEquals(StatementKind.OTHER, StatementKind.of("DROP TABLE t0"));
+    }
+
+    @Test
+    public void testNormalizeErrorMessage() {
+        assertEquals("no such column: tN.cN", Metrics.normalizeErrorMessage("no such column: t0.c12"));
+        assertEquals("cannot cast '?' to INT at position N",
+                Metrics.normalizeErrorMessage("cannot cast 'abc' to INT at position 3.5\nmore details"));
+        assertEquals("<no message>", Metrics.normalizeErrorMessage(null));
+    }
+
+    @Test
+    public void testJson() {
+        Metrics.recordStatement(StatementKind.EXPLAIN, 2_000_000, true);
+        Metrics.recordStatement(StatementKind.EXPLAIN, 4_000_000, false);
+        Metrics.recordError("quote \" and\nnew line");
+        JSONObject json = new JSONObject(new MetricsExporter(() -> Map.of("queries", 3L)).toJson());
+        assertEquals(3, json.getJSONObject("counters").getLong("queries"));
+        JSONObject explain = json.getJSONObject("statements").getJSONObject(StatementKind.EXPLAIN.getLabel());
+        assertTrue(explain.getLong("count") >= 2);
+        assertTrue(explain.getLong("failed") >= 1);
+        assertTrue(explain.has("p999_us"));
+        assertTrue(json.getJSONObject("errors").has(Metrics.normalizeErrorMessage("quote \" and\nnew line")));
+    }
+
+}
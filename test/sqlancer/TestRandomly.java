@@ -12,10 +12,18 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
+import sqlancer.general.GeneralOptions;
+import sqlancer.general.GeneralOptions.GeneralDatabaseEngineFactory;
+import sqlancer.general.GeneralProvider;
+import sqlancer.general.GeneralProvider.GeneralGlobalState;
+
 public class TestRandomly {
 
     private static final int NR_MIN_RUNS = 100000;
@@ -223,6 +231,88 @@ public class TestRandomly {
         }
     }
 
+    @Test // check that each database of a thread gets the same stream for a seed, regardless of the number of threads
+    public void testSplitStreamsAreIndependentOfThreadCount() throws Exception {
+        long seed = 123;
+        int nrDatabases = 3;
+        List<List<String>> expected = getDatabaseLists(seed, 1, nrDatabases, (name, r) -> getRandomValueList(r));
+        for (int nrThreads : new int[] { 2, 4 }) {
+            List<List<String>> actual = getDatabaseLists(seed, nrThreads, nrDatabases,
+                    (name, r) -> getRandomValueList(r));
+            // the first thread uses the same seed as in the single-threaded run
+            assertEquals(expected, actual.subList(0, nrDatabases));
+            assertNotEquals(actual.get(0), actual.get(nrDatabases));
+        }
+    }
+
+    @Test // check that the statements that generate a seeded database do not depend on the number of threads
+    public void testSplitStreamsGenerateTheSameDatabasesForAnyThreadCount() throws Exception {
+        long seed = 123;
+        int nrDatabases = 2;
+        List<List<String>> expected = getDatabaseLists(seed, 1, nrDatabases, TestRandomly::getDatabaseStatements);
+        List<List<String>> actual = getDatabaseLists(seed, 4, nrDatabases, TestRandomly::getDatabaseStatements);
+        assertEquals(expected, actual.subList(0, nrDatabases));
+        assertNotEquals(actual.get(0), actual.get(nrDatabases));
+    }
+
+    // simulates Main: thread i uses seed + i, and each of its databases uses a split of the thread's generator
+    private List<List<String>> getDatabaseLists(long seed, int nrThreads, int nrDatabases,
+            BiFunction<String, Randomly, List<String>> generator) throws Exception {
+        List<List<String>> results = new ArrayList<>();
+        for (int i = 0; i < nrThreads * nrDatabases; i++) {
+            results.add(null);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nrThreads);
+        List<Future<?>> threads = new ArrayList<>();
+        for (int i = 0; i < nrThreads; i++) {
+            int thread = i;
+            threads.add(executor.submit(() -> {
+                Randomly r = new Randomly(seed + thread);
+                for (int j = 0; j < nrDatabases; j++) {
+                    Randomly databaseRandomly = r.split();
+                    assertEquals(j, databaseRandomly.getSplitIndex());
+                    List<String> values = generator.apply("splitdatabase" + thread + "_" + j, databaseRandomly);
+                    // the amount of values that the database draws afterwards must not affect the next database
+                    for (int k = 0; k < nrThreads * 10; k++) {
+                        databaseRandomly.getString();
+                    }
+                    synchronized (results) {
+                        results.set(thread * nrDatabases + j, values);
+                    }
+                }
+            }));
+        }
+        for (Future<?> thread : threads) {
+            thread.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        return results;
+    }
+
+    // generates a database on SQLite as the executor of Main does, and returns its statements
+    private static List<String> getDatabaseStatements(String databaseName, Randomly r) {
+        MainOptions options = new MainOptions();
+        GeneralOptions generalOptions = new GeneralOptions();
+        generalOptions.databaseEngine = GeneralDatabaseEngineFactory.SQLITE;
+        GeneralProvider provider = new GeneralProvider();
+        GeneralGlobalState state = new GeneralGlobalState();
+        state.setState(provider.getStateToReproduce(databaseName));
+        state.setStateLogger(new Main.StateLogger(databaseName, provider, options));
+        state.setRandomly(r);
+        state.setDatabaseName(databaseName);
+        state.setMainOptions(options);
+        state.setDbmsSpecificOptions(generalOptions);
+        try (SQLConnection con = provider.createDatabase(state)) {
+            state.setConnection(con);
+            state.setManager(new Main.QueryManager<>(state));
+            provider.generateDatabase(state);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        return state.getState().getStatements().stream().map(q -> q.getLogString()).collect(Collectors.toList());
+    }
+
     private List<String> getRandomValueList(Randomly r) {
         List<String> values = new ArrayList<>();
         for (int i = 0; i < 1000; i++) {
@@ -0,0 +1,71 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+public class TestSQLConnection {
+
+    @Test
+    public void testStreamingInTransaction() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (SQLConnection con = new SQLConnection(connection)) {
+            con.setFetchSize(100, true);
+            try (Statement s = con.createStatement()) {
+                con.beginStreaming(s);
+                assertEquals(100, s.getFetchSize());
+                assertFalse(connection.getAutoCommit());
+                s.executeQuery("SELECT 1").close();
+            } finally {
+                con.endStreaming();
+            }
+            assertTrue(connection.getAutoCommit());
+            con.setFetchSize(0, true);
+            try (Statement s = con.createStatement()) {
+                con.beginStreaming(s);
+                assertTrue(connection.getAutoCommit());
+            } finally {
+                con.endStreaming();
+            }
+        }
+    }
+
+    @Test
+    public void testUnfinishedStreamingIsEndedByNextStatement() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (SQLConnection con = new SQLConnection(connection)) {
+            con.setFetchSize(100, true);
+            try (Statement s = con.createStatement()) {
+                s.execute("CREATE TABLE t0 (c0 INT)");
+            }
+            // the result set of the query is never closed, as when reading it fails
+            Statement query = con.createStatement();
+            con.beginStreaming(query);
+            query.executeQuery("SELECT * FROM t0");
+            try (Statement s = con.createStatement()) {
+                assertTrue(connection.getAutoCommit());
+                s.execute("INSERT INTO t0 VALUES (1)");
+            }
+            // the insert is not rolled back together with the transaction of the next streamed query
+            try (Statement s = con.createStatement()) {
+                con.beginStreaming(s);
+                s.executeQuery("SELECT 1").close();
+            } finally {
+                con.endStreaming();
+            }
+            try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM t0")) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+}
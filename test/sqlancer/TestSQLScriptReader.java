@@ -0,0 +1,64 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.query.SQLScriptReader;
+
+public class TestSQLScriptReader {
+
+    private static List<String> split(String script) throws IOException {
+        return split(script, false);
+    }
+
+    private static List<String> split(String script, boolean backslashEscapes) throws IOException {
+        List<String> statements = new ArrayList<>();
+        try (SQLScriptReader reader = new SQLScriptReader(new StringReader(script), backslashEscapes)) {
+            String statement;
+            while ((statement = reader.next()) != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    @Test
+    public void testLogFile() throws IOException {
+        String log = "-- Time: 2024/01/01 00:00:00\n-- Database: database0\n"
+                + "CREATE TABLE t0(c0 INT); -- 24ms;\nINSERT INTO t0(c0) VALUES ('a;b'), ('it''s;'); -- 1ms;\n"
+                + "SELECT * FROM t0\nWHERE c0 > 1;\n";
+        assertEquals(List.of("CREATE TABLE t0(c0 INT)", "INSERT INTO t0(c0) VALUES ('a;b'), ('it''s;')",
+                "SELECT * FROM t0\nWHERE c0 > 1"), split(log));
+    }
+
+    @Test
+    public void testQuotesAndComments() throws IOException {
+        assertEquals(List.of("SELECT \"a;\", `b;` FROM t0", "SELECT /*+ HINT; */ 1 - -1", "SELECT 2/1"),
+                split("SELECT \"a;\", `b;` FROM t0;;\n SELECT /*+ HINT; */ 1 - -1 -- no; statement\n;SELECT 2/1"));
+    }
+
+    @Test
+    public void testBackslashEscapes() throws IOException {
+        String script = "INSERT INTO t0 VALUES ('it\\'s;', \"a\\\";\", 'b\\\\');\nSELECT `c\\`;\nSELECT 1;";
+        assertEquals(List.of("INSERT INTO t0 VALUES ('it\\'s;', \"a\\\";\", 'b\\\\')", "SELECT `c\\`", "SELECT 1"),
+                split(script, true));
+        // in standard SQL, a backslash is an ordinary character
+        assertEquals(List.of("SELECT 'a\\'", "SELECT 1"), split("SELECT 'a\\';SELECT 1;"));
+    }
+
+    @Test
+    public void testDollarQuoting() throws IOException {
+        assertEquals(
+                List.of("CREATE FUNCTION f() RETURNS INT AS $body$ SELECT 1; $x$; $body$ LANGUAGE SQL",
+                        "SELECT $$a;$$, $1, c$d FROM t0"),
+                split("CREATE FUNCTION f() RETURNS INT AS $body$ SELECT 1; $x$; $body$ LANGUAGE SQL;\n"
+                        + "SELECT $$a;$$, $1, c$d FROM t0;"));
+    }
+
+}
@@ -0,0 +1,60 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.metrics.StatementKind;
+import sqlancer.common.query.StatementWatchdog;
+import sqlancer.common.query.StatementWatchdog.Watch;
+
+public class TestStatementWatchdog {
+
+    @Test
+    public void testRunawayQueryIsCanceled() throws SQLException {
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite::memory:");
+                Statement s = con.createStatement()) {
+            StatementWatchdog.configure(1000, 20);
+            try (Watch watch = StatementWatchdog.watch(s, StatementKind.SELECT)) {
+                assertFalse(watch.isCanceled());
+                assertThrows(SQLException.class, () -> s.executeQuery(
+                        "WITH RECURSIVE r(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM r) SELECT COUNT(*) FROM r")
+                        .next());
+                assertTrue(watch.isCanceled());
+            }
+            try (Watch watch = StatementWatchdog.watch(s, StatementKind.SELECT)) {
+                s.executeQuery("SELECT 1").close();
+                assertFalse(watch.isCanceled());
+            }
+        } finally {
+            StatementWatchdog.configure(0, 20);
+        }
+    }
+
+    @Test
+    public void testTimeoutOfSiblingIsSeenByParent() throws SQLException {
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            // the sibling is closed together with the connection
+            SQLConnection sibling = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"));
+            con.addSibling(sibling);
+            assertFalse(con.takeTimeout());
+            Thread worker = new Thread(sibling::recordTimeout);
+            worker.start();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(con.takeTimeout());
+            assertFalse(con.takeTimeout());
+        }
+    }
+
+}